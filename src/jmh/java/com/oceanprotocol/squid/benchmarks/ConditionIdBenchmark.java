@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oceanprotocol.squid.helpers.EncodingHelper;
+import com.oceanprotocol.squid.helpers.EthereumHelper;
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.service.AccessService;
+import com.oceanprotocol.squid.models.service.Condition;
+import org.openjdk.jmh.annotations.*;
+import org.web3j.crypto.Hash;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generation of the condition ids and the agreement hash with the ABI packer against the hex
+ * String concatenations hashed with Hash.sha3 used before
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConditionIdBenchmark {
+
+    private static final String DDO_JSON_SAMPLE = "src/test/resources/examples/ddo-example.json";
+
+    private static final String AGREEMENT_ID = "0x0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0";
+    private static final String CONSUMER = "0x068ed00cf0441e4829d9784fcbe7b9e26d4bd8d0";
+    private static final String PUBLISHER = "0x00bd138abd70e2f00903268f3db08f2d25677c9e";
+    private static final String LOCK_REWARD_ADDRESS = "0x3a3926f3f88f1ee05164404f93fdb3887cbe8e35";
+    private static final String ACCESS_SECRET_STORE_ADDRESS = "0x19513460bc16254c74ae806683e906478a42b543";
+    private static final String ESCROW_REWARD_ADDRESS = "0x8f006dbb3727d18f032c5618595ecdd2ede13b61";
+
+    private AccessService accessService;
+
+    @Setup
+    public void setup() throws Exception {
+
+        DDO ddo = DDO.fromJSON(new TypeReference<DDO>() {}, new String(Files.readAllBytes(Paths.get(DDO_JSON_SAMPLE))));
+        accessService = ddo.getAccessService("1");
+        accessService.templateId = PUBLISHER;
+        accessService.getConditionbyName("lockReward").getParameterByName("_amount").value = "10";
+        accessService.getConditionbyName("escrowReward").getParameterByName("_amount").value = "10";
+        accessService.getConditionbyName("accessSecretStore").getParameterByName("_documentId").value =
+                "0x2c22d7f7a5b74b8ab00e2b3eb3e4ec0b2a3a2f1c9f4aa8f2e1b2c3d4e5f60718";
+
+        if (!hexConcatenation().equals(abiPacker()))
+            throw new IllegalStateException("The agreement hashes are different");
+    }
+
+    @Benchmark
+    public String abiPacker() throws IOException {
+        return accessService.generateServiceAgreementHash(AGREEMENT_ID, CONSUMER, PUBLISHER,
+                LOCK_REWARD_ADDRESS, ACCESS_SECRET_STORE_ADDRESS, ESCROW_REWARD_ADDRESS);
+    }
+
+    @Benchmark
+    public String hexConcatenation() throws IOException {
+
+        String lockRewardId = conditionId(LOCK_REWARD_ADDRESS, parameters("lockReward", ESCROW_REWARD_ADDRESS,
+                accessService.getConditionbyName("lockReward").getParameterByName("_amount").value.toString()));
+        String accessSecretStoreId = conditionId(ACCESS_SECRET_STORE_ADDRESS, parameters("accessSecretStore",
+                accessService.getConditionbyName("accessSecretStore").getParameterByName("_documentId").value, CONSUMER));
+        String escrowRewardId = conditionId(ESCROW_REWARD_ADDRESS, parameters("escrowReward",
+                accessService.getConditionbyName("escrowReward").getParameterByName("_amount").value.toString(),
+                PUBLISHER, CONSUMER, lockRewardId, accessSecretStoreId));
+
+        String timelocks = "";
+        String timeouts = "";
+        for (Condition condition : accessService.serviceAgreementTemplate.conditions) {
+            timelocks = timelocks + EthereumHelper.remove0x(EncodingHelper.hexEncodeAbiType("uint256", condition.timelock));
+            timeouts = timeouts + EthereumHelper.remove0x(EncodingHelper.hexEncodeAbiType("uint256", condition.timeout));
+        }
+
+        String params = EthereumHelper.remove0x(accessService.templateId + accessSecretStoreId + lockRewardId
+                + escrowRewardId + timelocks + timeouts + AGREEMENT_ID);
+        return Hash.sha3(EthereumHelper.add0x(params));
+    }
+
+    private String parameters(String conditionName, Object... values) throws IOException {
+
+        Condition condition = accessService.getConditionbyName(conditionName);
+        String params = "";
+        for (int i = 0; i < values.length; i++)
+            params = params + EthereumHelper.encodeParameterValue(condition.parameters.get(i).type, values[i]);
+        return Hash.sha3(EthereumHelper.add0x(params));
+    }
+
+    private static String conditionId(String conditionAddress, String valuesHash) throws IOException {
+        return Hash.sha3(EthereumHelper.add0x(
+                EthereumHelper.encodeParameterValue("bytes32", AGREEMENT_ID)
+                        + EthereumHelper.encodeParameterValue("address", conditionAddress)
+                        + EthereumHelper.encodeParameterValue("bytes32", valuesHash)));
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oceanprotocol.squid.models.AbstractModel;
+import com.oceanprotocol.squid.models.DDO;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing and the serialization of a DDO, with the accessors of the models using reflection or
+ * generated by Afterburner
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DDOParsingBenchmark {
+
+    private static final String DDO_JSON_SAMPLE = "src/test/resources/examples/ddo-example.json";
+
+    @Param({"false", "true"})
+    public boolean generatedAccessors;
+
+    private String json;
+    private DDO ddo;
+
+    @Setup
+    public void setup() throws Exception {
+        AbstractModel.setGeneratedAccessors(generatedAccessors);
+        json = new String(Files.readAllBytes(Paths.get(DDO_JSON_SAMPLE)));
+        ddo = parse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        AbstractModel.setGeneratedAccessors(false);
+    }
+
+    @Benchmark
+    public DDO parse() throws Exception {
+        return DDO.fromJSON(new TypeReference<DDO>() {}, json);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return ddo.toJson();
+    }
+
+}
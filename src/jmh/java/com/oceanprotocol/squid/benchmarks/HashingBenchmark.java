@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.benchmarks;
+
+import com.oceanprotocol.squid.helpers.CryptoHelper;
+import com.oceanprotocol.squid.helpers.Hasher;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.*;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.crypto.Hash;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA3_256;
+
+/**
+ * Compares the thread-local hashers against the DigestUtils and the ByteBuffer concatenation used before
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashingBenchmark {
+
+    private static final String METADATA_FIELDS = "0x52b5c93b82dd9e7ecc3d9fdf4755f7f69a54484941897dc517b4adfe3bbc3377"
+            + "UK Weather information 2011Met Office" + "CC-BY" + "did:op:0bc278fee025464f8012b811d1bce8e22094d0984e4e49139df5d5ff7a028bdf";
+
+    private final Object[] values = {"Ocean".getBytes(), new Address("00a329c0648769A73afAc7F9381E08FB43dBEA72"),
+            BigInteger.valueOf(1234567), 10};
+
+    @Benchmark
+    public String sha3Hasher() {
+        return CryptoHelper.sha3256(METADATA_FIELDS);
+    }
+
+    @Benchmark
+    public String sha3DigestUtils() {
+        return new DigestUtils(SHA3_256).digestAsHex(METADATA_FIELDS);
+    }
+
+    @Benchmark
+    public byte[] soliditySha3Hasher() {
+        return CryptoHelper.soliditySha3(values);
+    }
+
+    @Benchmark
+    public byte[] soliditySha3ByteBuffer() {
+        List<byte[]> arrays = Stream.of(values).map(CryptoHelper::toBytes).collect(Collectors.toList());
+        ByteBuffer buffer = ByteBuffer.allocate(arrays.stream().mapToInt(a -> a.length).sum());
+        for (byte[] a : arrays) {
+            buffer.put(a);
+        }
+        return Hash.sha3(buffer.array());
+    }
+
+    @Benchmark
+    public byte[] keccakHasher() {
+        return Hasher.keccak().update(METADATA_FIELDS).doFinal();
+    }
+
+}
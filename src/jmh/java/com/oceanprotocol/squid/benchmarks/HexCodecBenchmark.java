@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.benchmarks;
+
+import com.oceanprotocol.squid.helpers.HexCodec;
+import org.apache.commons.codec.binary.Hex;
+import org.openjdk.jmh.annotations.*;
+import org.web3j.utils.Numeric;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hex codec against the regular expressions, Numeric and commons-codec Hex used before
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexCodecBenchmark {
+
+    private static final String HASH = "0x0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0";
+
+    private final byte[] bytes = Numeric.hexStringToByteArray(HASH);
+    private final byte[] decoded = new byte[32];
+    private final char[] encoded = new char[64];
+
+    @Benchmark
+    public String removePrefixCodec() {
+        return HexCodec.removeAllPrefixes(HASH);
+    }
+
+    @Benchmark
+    public String removePrefixRegex() {
+        return HASH.replaceAll("0x", "");
+    }
+
+    @Benchmark
+    public boolean isHexCodec() {
+        return HexCodec.isHex(HASH, 2, HASH.length());
+    }
+
+    @Benchmark
+    public boolean isHexRegex() {
+        return HASH.substring(2).matches("-?[0-9a-fA-F]+");
+    }
+
+    @Benchmark
+    public String encodeCodec() {
+        return HexCodec.encode(bytes, true);
+    }
+
+    @Benchmark
+    public char[] encodeCodecIntoBuffer() {
+        HexCodec.encode(bytes, 0, bytes.length, encoded, 0);
+        return encoded;
+    }
+
+    @Benchmark
+    public String encodeNumeric() {
+        return Numeric.toHexString(bytes);
+    }
+
+    @Benchmark
+    public String encodeCommonsHex() {
+        return Hex.encodeHexString(bytes);
+    }
+
+    @Benchmark
+    public byte[] decodeCodec() {
+        return HexCodec.decode(HASH);
+    }
+
+    @Benchmark
+    public byte[] decodeCodecIntoBuffer() {
+        HexCodec.decode(HASH, 0, HASH.length(), decoded, 0);
+        return decoded;
+    }
+
+    @Benchmark
+    public byte[] decodeNumeric() {
+        return Numeric.hexStringToByteArray(HASH);
+    }
+
+}
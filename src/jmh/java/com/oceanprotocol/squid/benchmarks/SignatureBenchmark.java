@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.benchmarks;
+
+import com.oceanprotocol.squid.helpers.EthereumHelper;
+import org.openjdk.jmh.annotations.*;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Keys;
+import org.web3j.utils.Numeric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the verification of a burst of signatures trying the four recovery ids, recovering with the v of the
+ * signature, and recovering in parallel with verifyAll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureBenchmark {
+
+    private static final ECKeyPair KEY_PAIR =
+            ECKeyPair.create(Numeric.toBigInt("a392604efc2fad9c0b3da43b5f698a2e3f270f170d859912be0d54742275c5f6"));
+
+    @Param({"256"})
+    public int signatures;
+
+    private final List<EthereumHelper.SignedMessage> messages = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+
+        String address = "0x" + Keys.getAddress(KEY_PAIR);
+        for (int i = 0; i < signatures; i++) {
+            String message = "Agreement " + i;
+            messages.add(new EthereumHelper.SignedMessage(address, EthereumHelper.signMessage(message, KEY_PAIR),
+                    EthereumHelper.getEthereumMessageHash(message)));
+        }
+    }
+
+    @Benchmark
+    public int allRecoveryIds() {
+        int valid = 0;
+        for (EthereumHelper.SignedMessage message : messages) {
+            if (EthereumHelper.recoverAddressFromSignature(message.getSignatureData(), message.getHashMessage())
+                    .contains(message.getAddress()))
+                valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int recoveryIdOfV() {
+        int valid = 0;
+        for (EthereumHelper.SignedMessage message : messages) {
+            if (EthereumHelper.wasSignedByAddress(message.getAddress(), message.getSignatureData(), message.getHashMessage()))
+                valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public boolean[] verifyAll() {
+        return EthereumHelper.verifyAll(messages);
+    }
+
+}
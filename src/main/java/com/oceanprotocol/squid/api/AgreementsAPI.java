@@ -5,6 +5,8 @@ import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.service.AgreementStatus;
 import org.web3j.tuples.generated.Tuple2;
 
+import java.util.List;
+
 /**
  * Exposes the Public API related with the management of Agreements
  */
@@ -54,4 +56,13 @@ public interface AgreementsAPI {
      * @throws Exception Exception
      */
     public AgreementStatus status(String agreementId) throws Exception;
+
+    /**
+     * Get the status of several service agreements. All the on-chain calls are sent in JSON-RPC batches.
+     *
+     * @param agreementIds ids of the agreements
+     * @return a list with the AgreementStatus of every agreement, in the same order than the ids.
+     * @throws Exception Exception
+     */
+    public List<AgreementStatus> statusAll(List<String> agreementIds) throws Exception;
 }
@@ -10,13 +10,16 @@ import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.aquarius.SearchResult;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
+import com.oceanprotocol.squid.models.asset.OrderRequest;
 import com.oceanprotocol.squid.models.asset.OrderResult;
 import com.oceanprotocol.squid.models.service.ProviderConfig;
 import io.reactivex.Flowable;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Exposes the Public API related with Assets
@@ -54,6 +57,25 @@ public interface AssetsAPI {
      */
     public DDO resolve(DID did) throws EthereumException, DDOException;
 
+    /**
+     * Gets a DDO from a DID without blocking the calling thread.
+     * The returned future completes exceptionally with a DDOException if the DID can not be resolved
+     *
+     * @param did the DID to resolve
+     * @return a CompletableFuture that completes with the DDO represented by the DID
+     */
+    public CompletableFuture<DDO> resolveAsync(DID did);
+
+    /**
+     * Gets the DDOs of several DIDs. The DIDs are looked up on-chain in a single request and
+     * the DDOs are fetched in parallel
+     *
+     * @param dids the DIDs to resolve
+     * @return a Map with the DDOs found, in the same order than the DIDs. The DIDs that can not be resolved are not included
+     * @throws EthereumException EthereumException
+     */
+    public Map<DID, DDO> resolveAll(Collection<DID> dids) throws EthereumException;
+
     /**
      * Gets the list of the files that belongs to a DDO
      * @param did the DID to resolve
@@ -103,6 +125,43 @@ public interface AssetsAPI {
      */
     public SearchResult query(Map<String, Object> params) throws DDOException;
 
+    /**
+     * Gets all the DDO that match the search criteria without blocking the calling thread
+     *
+     * @param text the criteria
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> searchAsync(String text);
+
+    /**
+     * Gets all the DDOs that match the search criteria without blocking the calling thread
+     *
+     * @param text   the criteria
+     * @param offset parameter to paginate
+     * @param page   parameter to paginate
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> searchAsync(String text, int offset, int page);
+
+    /**
+     * Gets all the DDOs that match the parameters of the query without blocking the calling thread
+     *
+     * @param params the criteria
+     * @param offset parameter to paginate
+     * @param page   parameter to paginate
+     * @param sort   parameter to sort
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> queryAsync(Map<String, Object> params, int offset, int page, int sort);
+
+    /**
+     * Gets all the DDOs that match the parameters of the query without blocking the calling thread
+     *
+     * @param params the criteria
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> queryAsync(Map<String, Object> params);
+
     /**
      *  Downloads a single file of an Asset previously ordered through a Service Agreement
      * @param serviceAgreementId the service agreement id of the asset
@@ -217,6 +276,16 @@ public interface AssetsAPI {
      */
     Flowable<OrderResult> order(DID did, String serviceDefinitionId) throws OrderException;
 
+    /**
+     * Purchases several Assets at once. The purchases are executed in parallel, up to the configured order parallelism
+     *
+     * @param orderRequests the did and service definition id of every asset to purchase
+     * @return a Flowable instance over the OrderResult of every order, emitted as they complete. The orders that fail
+     * emit an OrderResult with the error
+     * @throws OrderException OrderException
+     */
+    Flowable<OrderResult> orderAll(List<OrderRequest> orderRequests) throws OrderException;
+
     /**
      * Return the owner of the asset.
      *
@@ -155,11 +155,14 @@ public class OceanAPI {
         oceanAPI = new OceanAPI(oceanConfig);
 
         oceanAPI.mainAccount = new Account(Keys.toChecksumAddress(oceanConfig.getMainAccountAddress()), oceanConfig.getMainAccountPassword());
+        oceanAPI.mainAccount.setSigningMode(oceanConfig.getMainAccountSigningMode());
 
         OceanInitializationHelper oceanInitializationHelper = new OceanInitializationHelper(oceanConfig);
 
         try {
             oceanAPI.oceanConfig = oceanConfig;
+            oceanInitializationHelper.configureHttpConnectionPool();
+            oceanInitializationHelper.configureJsonMapper();
             oceanAPI.aquariusService = oceanInitializationHelper.getAquarius();
             oceanAPI.keeperService = oceanInitializationHelper.getKeeper();
             oceanAPI.secretStoreDto = oceanInitializationHelper.getSecretStoreDto();
@@ -205,7 +208,15 @@ public class OceanAPI {
                     .setConditionStoreManagerContract(oceanAPI.conditionStoreManager)
                     .setMainAccount(oceanAPI.mainAccount)
                     .setEvmDto(oceanAPI.evmDto);
-
+            oceanAPI.oceanManager.setDDOResolutionCache(oceanInitializationHelper.getDDOResolutionCache());
+            oceanAPI.oceanManager.watchDIDRegistry();
+            oceanAPI.oceanManager.setBlockRangeLogScanner(oceanInitializationHelper.getBlockRangeLogScanner(oceanAPI.keeperService));
+            oceanAPI.oceanManager.setDIDEventIndex(oceanInitializationHelper.getDIDEventIndex());
+            oceanAPI.oceanManager.setMaxRequestsPerHost(oceanConfig.getHttpMaxConnectionsPerHost());
+            oceanAPI.oceanManager.setOrderTimeout(oceanConfig.getOrderTimeout());
+            oceanAPI.oceanManager.setApprovalBudget(oceanConfig.getOrderApprovalBudget());
+            oceanAPI.oceanManager.setOrderParallelism(oceanConfig.getOrderParallelism());
+            oceanAPI.oceanManager.setOrderJournal(oceanInitializationHelper.getOrderJournal());
 
             oceanAPI.accountsManager = oceanInitializationHelper.getAccountsManager(oceanAPI.keeperService, oceanAPI.aquariusService);
             oceanAPI.accountsManager.setTokenContract(oceanAPI.tokenContract);
@@ -234,6 +245,12 @@ public class OceanAPI {
             oceanAPI.assetsAPI = new AssetsImpl(oceanAPI.oceanManager, oceanAPI.assetsManager);
             oceanAPI.templatesAPI = new TemplatesImpl(oceanAPI.templatesManager);
 
+            // the orders in flight when the library was stopped are resumed in background
+            oceanAPI.oceanManager.resumeOrders().subscribe(
+                    orderResult -> log.info("Order with ServiceAgreementID " + orderResult.getServiceAgreementId() + " resumed. Access granted: "
+                            + orderResult.isAccessGranted() + ", refunded: " + orderResult.isRefund()),
+                    throwable -> log.error("Error resuming the orders: " + throwable.getMessage()));
+
             return oceanAPI;
         } catch (Exception e) {
             String msg = "Error Initializing Ocean API";
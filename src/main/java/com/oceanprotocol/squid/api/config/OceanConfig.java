@@ -6,6 +6,8 @@
 package com.oceanprotocol.squid.api.config;
 
 
+import com.oceanprotocol.squid.models.Account;
+
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,14 +20,23 @@ public class OceanConfig {
     public static final String KEEPER_URL = "keeper.url";
     public static final String KEEPER_GAS_LIMIT = "keeper.gasLimit";
     public static final String KEEPER_GAS_PRICE = "keeper.gasPrice";
+    public static final String KEEPER_GAS_ESTIMATE = "keeper.gas.estimate";
     public static final String KEEPER_TX_ATTEMPTS = "keeper.tx.attempts";
     public static final String KEEPER_TX_SLEEPDURATION = "keeper.tx.sleepDuration";
+    public static final String KEEPER_BATCH_WINDOW = "keeper.batch.window";
+    public static final String KEEPER_EVENTS_POLLING_INTERVAL = "keeper.events.pollingInterval";
+    public static final String KEEPER_EVENTS_ADAPTIVE_POLLING = "keeper.events.adaptivePolling";
+    public static final String ORDER_TIMEOUT = "order.timeout";
+    public static final String ORDER_APPROVAL_BUDGET = "order.approvalBudget";
+    public static final String ORDER_PARALLELISM = "order.parallelism";
+    public static final String ORDER_JOURNAL_PATH = "order.journal.path";
     public static final String AQUARIUS_URL = "aquarius.url";
     public static final String SECRETSTORE_URL = "secretstore.url";
     public static final String PROVIDER_ADDRESS = "provider.address";
     public static final String MAIN_ACCOUNT_ADDRESS = "account.main.address";
     public static final String MAIN_ACCOUNT_PASSWORD = "account.main.password";
     public static final String MAIN_ACCOUNT_CREDENTIALS_FILE = "account.main.credentialsFile";
+    public static final String MAIN_ACCOUNT_SIGNING_MODE = "account.main.signingMode";
     public static final String DID_REGISTRY_ADDRESS = "contract.DIDRegistry.address";
     public static final String AGREEMENT_STORE_MANAGER_ADDRESS = "contract.AgreementStoreManager.address";
     public static final String CONDITION_STORE_MANAGER_ADDRESS = "contract.ConditionStoreManager.address";
@@ -37,19 +48,40 @@ public class OceanConfig {
     public static final String TOKEN_ADDRESS = "contract.OceanToken.address";
     public static final String DISPENSER_ADDRESS = "contract.Dispenser.address";
     public static final String CONSUME_BASE_PATH = "consume.basePath";
+    public static final String HTTP_MAX_CONNECTIONS_PER_HOST = "http.maxConnectionsPerHost";
+    public static final String HTTP_MAX_TOTAL_CONNECTIONS = "http.maxTotalConnections";
+    public static final String HTTP_CONNECTION_TIMEOUT = "http.connectionTimeout";
+    public static final String HTTP_SOCKET_TIMEOUT = "http.socketTimeout";
+    public static final String HTTP_IDLE_CONNECTION_TIMEOUT = "http.idleConnectionTimeout";
+    public static final String DID_CACHE_MAX_SIZE = "did.cache.maxSize";
+    public static final String DID_CACHE_TTL = "did.cache.ttl";
+    public static final String DID_INDEX_PATH = "did.index.path";
+    public static final String DID_INDEX_FROM_BLOCK = "did.index.fromBlock";
+    public static final String KEEPER_LOGS_BLOCK_RANGE = "keeper.logs.blockRange";
+    public static final String KEEPER_LOGS_PARALLELISM = "keeper.logs.parallelism";
+    public static final String JSON_AFTERBURNER = "json.afterburner";
 
 
     private String keeperUrl;
     private BigInteger keeperGasLimit;
     private BigInteger keeperGasPrice;
+    private boolean keeperGasEstimate;
     private int keeperTxAttempts;
     private long keeperTxSleepDuration;
+    private long keeperBatchWindow;
+    private long keeperEventsPollingInterval;
+    private boolean keeperEventsAdaptivePolling;
+    private long orderTimeout;
+    private BigInteger orderApprovalBudget;
+    private int orderParallelism;
+    private String orderJournalPath;
     private String aquariusUrl;
     private String secretStoreUrl;
     private String providerAddress;
     private String mainAccountAddress;
     private String mainAccountPassword;
     private String mainAccountCredentialsFile;
+    private Account.SigningMode mainAccountSigningMode;
     private String didRegistryAddress;
     private String agreementStoreManagerAddress;
     private String conditionStoreManagerAddress;
@@ -61,6 +93,18 @@ public class OceanConfig {
     private String templateStoreManagerAddress;
     private String dispenserAddress;
     private String consumeBasePath;
+    private int httpMaxConnectionsPerHost;
+    private int httpMaxTotalConnections;
+    private int httpConnectionTimeout;
+    private int httpSocketTimeout;
+    private long httpIdleConnectionTimeout;
+    private int didCacheMaxSize;
+    private long didCacheTtl;
+    private String didIndexPath;
+    private BigInteger didIndexFromBlock;
+    private long keeperLogsBlockRange;
+    private int keeperLogsParallelism;
+    private boolean jsonAfterburner;
 
     /**
      * Class to hold the result of a Configuration's validation
@@ -205,6 +249,78 @@ public class OceanConfig {
         return this;
     }
 
+    public boolean isKeeperGasEstimate() {
+        return keeperGasEstimate;
+    }
+
+    public OceanConfig setKeeperGasEstimate(boolean keeperGasEstimate) {
+        this.keeperGasEstimate = keeperGasEstimate;
+        return this;
+    }
+
+    public long getKeeperBatchWindow() {
+        return keeperBatchWindow;
+    }
+
+    public OceanConfig setKeeperBatchWindow(long keeperBatchWindow) {
+        this.keeperBatchWindow = keeperBatchWindow;
+        return this;
+    }
+
+    public long getKeeperEventsPollingInterval() {
+        return keeperEventsPollingInterval;
+    }
+
+    public OceanConfig setKeeperEventsPollingInterval(long keeperEventsPollingInterval) {
+        this.keeperEventsPollingInterval = keeperEventsPollingInterval;
+        return this;
+    }
+
+    public boolean isKeeperEventsAdaptivePolling() {
+        return keeperEventsAdaptivePolling;
+    }
+
+    public OceanConfig setKeeperEventsAdaptivePolling(boolean keeperEventsAdaptivePolling) {
+        this.keeperEventsAdaptivePolling = keeperEventsAdaptivePolling;
+        return this;
+    }
+
+    public long getOrderTimeout() {
+        return orderTimeout;
+    }
+
+    public OceanConfig setOrderTimeout(long orderTimeout) {
+        this.orderTimeout = orderTimeout;
+        return this;
+    }
+
+    public BigInteger getOrderApprovalBudget() {
+        return orderApprovalBudget;
+    }
+
+    public OceanConfig setOrderApprovalBudget(BigInteger orderApprovalBudget) {
+        this.orderApprovalBudget = orderApprovalBudget;
+        return this;
+    }
+
+    public int getOrderParallelism() {
+        return orderParallelism;
+    }
+
+    public OceanConfig setOrderParallelism(int orderParallelism) {
+        this.orderParallelism = orderParallelism;
+        return this;
+    }
+
+    public String getOrderJournalPath() {
+        return orderJournalPath;
+    }
+
+    public OceanConfig setOrderJournalPath(String orderJournalPath) {
+        this.orderJournalPath = orderJournalPath;
+        return this;
+    }
+
     public int getKeeperTxAttempts() {
         return keeperTxAttempts;
     }
@@ -331,6 +447,15 @@ public class OceanConfig {
         return this;
     }
 
+    public Account.SigningMode getMainAccountSigningMode() {
+        return mainAccountSigningMode;
+    }
+
+    public OceanConfig setMainAccountSigningMode(Account.SigningMode mainAccountSigningMode) {
+        this.mainAccountSigningMode = mainAccountSigningMode;
+        return this;
+    }
+
     public String getTokenAddress() {
         return tokenAddress;
     }
@@ -374,4 +499,112 @@ public class OceanConfig {
     public void setProviderAddress(String providerAddress) {
         this.providerAddress = providerAddress;
     }
+
+    public int getHttpMaxConnectionsPerHost() {
+        return httpMaxConnectionsPerHost;
+    }
+
+    public OceanConfig setHttpMaxConnectionsPerHost(int httpMaxConnectionsPerHost) {
+        this.httpMaxConnectionsPerHost = httpMaxConnectionsPerHost;
+        return this;
+    }
+
+    public int getHttpMaxTotalConnections() {
+        return httpMaxTotalConnections;
+    }
+
+    public OceanConfig setHttpMaxTotalConnections(int httpMaxTotalConnections) {
+        this.httpMaxTotalConnections = httpMaxTotalConnections;
+        return this;
+    }
+
+    public int getHttpConnectionTimeout() {
+        return httpConnectionTimeout;
+    }
+
+    public OceanConfig setHttpConnectionTimeout(int httpConnectionTimeout) {
+        this.httpConnectionTimeout = httpConnectionTimeout;
+        return this;
+    }
+
+    public int getHttpSocketTimeout() {
+        return httpSocketTimeout;
+    }
+
+    public OceanConfig setHttpSocketTimeout(int httpSocketTimeout) {
+        this.httpSocketTimeout = httpSocketTimeout;
+        return this;
+    }
+
+    public long getHttpIdleConnectionTimeout() {
+        return httpIdleConnectionTimeout;
+    }
+
+    public OceanConfig setHttpIdleConnectionTimeout(long httpIdleConnectionTimeout) {
+        this.httpIdleConnectionTimeout = httpIdleConnectionTimeout;
+        return this;
+    }
+
+    public int getDidCacheMaxSize() {
+        return didCacheMaxSize;
+    }
+
+    public OceanConfig setDidCacheMaxSize(int didCacheMaxSize) {
+        this.didCacheMaxSize = didCacheMaxSize;
+        return this;
+    }
+
+    public long getDidCacheTtl() {
+        return didCacheTtl;
+    }
+
+    public OceanConfig setDidCacheTtl(long didCacheTtl) {
+        this.didCacheTtl = didCacheTtl;
+        return this;
+    }
+
+    public String getDidIndexPath() {
+        return didIndexPath;
+    }
+
+    public OceanConfig setDidIndexPath(String didIndexPath) {
+        this.didIndexPath = didIndexPath;
+        return this;
+    }
+
+    public BigInteger getDidIndexFromBlock() {
+        return didIndexFromBlock;
+    }
+
+    public OceanConfig setDidIndexFromBlock(BigInteger didIndexFromBlock) {
+        this.didIndexFromBlock = didIndexFromBlock;
+        return this;
+    }
+
+    public long getKeeperLogsBlockRange() {
+        return keeperLogsBlockRange;
+    }
+
+    public OceanConfig setKeeperLogsBlockRange(long keeperLogsBlockRange) {
+        this.keeperLogsBlockRange = keeperLogsBlockRange;
+        return this;
+    }
+
+    public int getKeeperLogsParallelism() {
+        return keeperLogsParallelism;
+    }
+
+    public OceanConfig setKeeperLogsParallelism(int keeperLogsParallelism) {
+        this.keeperLogsParallelism = keeperLogsParallelism;
+        return this;
+    }
+
+    public boolean isJsonAfterburner() {
+        return jsonAfterburner;
+    }
+
+    public OceanConfig setJsonAfterburner(boolean jsonAfterburner) {
+        this.jsonAfterburner = jsonAfterburner;
+        return this;
+    }
 }
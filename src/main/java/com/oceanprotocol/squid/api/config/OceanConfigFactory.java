@@ -6,6 +6,12 @@
 package com.oceanprotocol.squid.api.config;
 
 
+import com.oceanprotocol.squid.core.cache.DDOResolutionCache;
+import com.oceanprotocol.squid.core.logs.BlockRangeLogScanner;
+import com.oceanprotocol.squid.helpers.HttpHelper;
+import com.oceanprotocol.squid.manager.OceanManager;
+import com.oceanprotocol.squid.models.Account;
+import org.web3j.protocol.core.JsonRpc2_0Web3j;
 import org.web3j.tx.TransactionManager;
 
 import java.math.BigInteger;
@@ -41,6 +47,7 @@ public class OceanConfigFactory {
         oceanConfig.setKeeperUrl((String) properties.getOrDefault(OceanConfig.KEEPER_URL, DEFAULT_KEEPER_URL));
         oceanConfig.setKeeperGasLimit(new BigInteger((String) properties.getOrDefault(OceanConfig.KEEPER_GAS_LIMIT, DEFAULT_KEEPER_GAS_LIMIT.toString())));
         oceanConfig.setKeeperGasPrice(new BigInteger((String) properties.getOrDefault(OceanConfig.KEEPER_GAS_PRICE, DEFAULT_KEEPER_GAS_PRICE.toString())));
+        oceanConfig.setKeeperGasEstimate(Boolean.parseBoolean((String) properties.getOrDefault(OceanConfig.KEEPER_GAS_ESTIMATE, "false")));
         oceanConfig.setKeeperTxAttempts(Integer.parseInt(
                 (String) properties.getOrDefault(
                         OceanConfig.KEEPER_TX_ATTEMPTS, String.valueOf(TransactionManager.DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH))
@@ -49,6 +56,16 @@ public class OceanConfigFactory {
                 Long.parseLong(
                         (String) properties.getOrDefault(OceanConfig.KEEPER_TX_SLEEPDURATION, String.valueOf(TransactionManager.DEFAULT_POLLING_FREQUENCY))
                 ));
+        oceanConfig.setKeeperBatchWindow(Long.parseLong((String) properties.getOrDefault(OceanConfig.KEEPER_BATCH_WINDOW, "0")));
+        oceanConfig.setKeeperEventsPollingInterval(Long.parseLong(
+                (String) properties.getOrDefault(OceanConfig.KEEPER_EVENTS_POLLING_INTERVAL, String.valueOf(JsonRpc2_0Web3j.DEFAULT_BLOCK_TIME))));
+        oceanConfig.setKeeperEventsAdaptivePolling(Boolean.parseBoolean((String) properties.getOrDefault(OceanConfig.KEEPER_EVENTS_ADAPTIVE_POLLING, "false")));
+        oceanConfig.setOrderTimeout(Long.parseLong(
+                (String) properties.getOrDefault(OceanConfig.ORDER_TIMEOUT, String.valueOf(OceanManager.DEFAULT_ORDER_TIMEOUT))));
+        oceanConfig.setOrderApprovalBudget(new BigInteger((String) properties.getOrDefault(OceanConfig.ORDER_APPROVAL_BUDGET, "0")));
+        oceanConfig.setOrderParallelism(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.ORDER_PARALLELISM, String.valueOf(OceanManager.DEFAULT_ORDER_PARALLELISM))));
+        oceanConfig.setOrderJournalPath((String) properties.getOrDefault(OceanConfig.ORDER_JOURNAL_PATH, ""));
 
         oceanConfig.setAquariusUrl((String) properties.getOrDefault(OceanConfig.AQUARIUS_URL, DEFAULT_AQUARIUS_URL));
         oceanConfig.setSecretStoreUrl((String) properties.getOrDefault(OceanConfig.SECRETSTORE_URL, DEFAULT_SECRET_STORE_URL));
@@ -67,6 +84,30 @@ public class OceanConfigFactory {
         oceanConfig.setMainAccountAddress((String) properties.getOrDefault(OceanConfig.MAIN_ACCOUNT_ADDRESS, ""));
         oceanConfig.setMainAccountPassword((String) properties.getOrDefault(OceanConfig.MAIN_ACCOUNT_PASSWORD, ""));
         oceanConfig.setMainAccountCredentialsFile((String) properties.getOrDefault(OceanConfig.MAIN_ACCOUNT_CREDENTIALS_FILE, ""));
+        oceanConfig.setMainAccountSigningMode(Account.SigningMode.valueOf(
+                ((String) properties.getOrDefault(OceanConfig.MAIN_ACCOUNT_SIGNING_MODE, Account.SigningMode.PERSONAL_SIGN.name())).toUpperCase()));
+
+        oceanConfig.setHttpMaxConnectionsPerHost(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.HTTP_MAX_CONNECTIONS_PER_HOST, String.valueOf(HttpHelper.ConnectionPoolConfig.DEFAULT_MAX_CONNECTIONS_PER_HOST))));
+        oceanConfig.setHttpMaxTotalConnections(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.HTTP_MAX_TOTAL_CONNECTIONS, String.valueOf(HttpHelper.ConnectionPoolConfig.DEFAULT_MAX_TOTAL_CONNECTIONS))));
+        oceanConfig.setHttpConnectionTimeout(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.HTTP_CONNECTION_TIMEOUT, String.valueOf(HttpHelper.ConnectionPoolConfig.DEFAULT_CONNECTION_TIMEOUT))));
+        oceanConfig.setHttpSocketTimeout(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.HTTP_SOCKET_TIMEOUT, String.valueOf(HttpHelper.ConnectionPoolConfig.DEFAULT_SOCKET_TIMEOUT))));
+        oceanConfig.setHttpIdleConnectionTimeout(Long.parseLong(
+                (String) properties.getOrDefault(OceanConfig.HTTP_IDLE_CONNECTION_TIMEOUT, String.valueOf(HttpHelper.ConnectionPoolConfig.DEFAULT_IDLE_CONNECTION_TIMEOUT))));
+        oceanConfig.setDidCacheMaxSize(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.DID_CACHE_MAX_SIZE, String.valueOf(DDOResolutionCache.DEFAULT_MAX_SIZE))));
+        oceanConfig.setDidCacheTtl(Long.parseLong(
+                (String) properties.getOrDefault(OceanConfig.DID_CACHE_TTL, String.valueOf(DDOResolutionCache.DEFAULT_TTL))));
+        oceanConfig.setDidIndexPath((String) properties.getOrDefault(OceanConfig.DID_INDEX_PATH, ""));
+        oceanConfig.setDidIndexFromBlock(new BigInteger((String) properties.getOrDefault(OceanConfig.DID_INDEX_FROM_BLOCK, "0")));
+        oceanConfig.setKeeperLogsBlockRange(Long.parseLong(
+                (String) properties.getOrDefault(OceanConfig.KEEPER_LOGS_BLOCK_RANGE, String.valueOf(BlockRangeLogScanner.DEFAULT_BLOCK_RANGE))));
+        oceanConfig.setKeeperLogsParallelism(Integer.parseInt(
+                (String) properties.getOrDefault(OceanConfig.KEEPER_LOGS_PARALLELISM, String.valueOf(BlockRangeLogScanner.DEFAULT_PARALLELISM))));
+        oceanConfig.setJsonAfterburner(Boolean.parseBoolean((String) properties.getOrDefault(OceanConfig.JSON_AFTERBURNER, "false")));
 
         return oceanConfig;
 
@@ -9,12 +9,19 @@ import com.oceanprotocol.keeper.contracts.*;
 import com.oceanprotocol.secretstore.core.EvmDto;
 import com.oceanprotocol.secretstore.core.SecretStoreDto;
 import com.oceanprotocol.squid.api.config.OceanConfig;
+import com.oceanprotocol.squid.core.cache.DDOResolutionCache;
+import com.oceanprotocol.squid.core.index.DIDEventIndex;
+import com.oceanprotocol.squid.core.sla.OrderJournal;
+import com.oceanprotocol.squid.core.logs.BlockRangeLogScanner;
 import com.oceanprotocol.squid.external.AquariusService;
 import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.helpers.HttpHelper;
 import com.oceanprotocol.squid.manager.*;
+import com.oceanprotocol.squid.models.AbstractModel;
 import org.web3j.crypto.CipherException;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Helper to initialize all the managers, services and contracts needed for the API
@@ -32,6 +39,83 @@ public class OceanInitializationHelper {
         this.oceanConfig = oceanConfig;
     }
 
+    /**
+     * Configures the pool of HTTP connections shared by the HTTP clients
+     */
+    public void configureHttpConnectionPool() {
+
+        HttpHelper.configureConnectionPool(new HttpHelper.ConnectionPoolConfig()
+                .setMaxConnectionsPerHost(oceanConfig.getHttpMaxConnectionsPerHost())
+                .setMaxTotalConnections(oceanConfig.getHttpMaxTotalConnections())
+                .setConnectionTimeout(oceanConfig.getHttpConnectionTimeout())
+                .setSocketTimeout(oceanConfig.getHttpSocketTimeout())
+                .setIdleConnectionTimeout(oceanConfig.getHttpIdleConnectionTimeout())
+        );
+    }
+
+    /**
+     * Configures the JSON mapper of the models
+     */
+    public void configureJsonMapper() {
+        AbstractModel.setGeneratedAccessors(oceanConfig.isJsonAfterburner());
+    }
+
+    /**
+     * Initialize the cache of resolved DDOs
+     *
+     * @return an initialized DDOResolutionCache object, or null if the cache is disabled
+     */
+    public DDOResolutionCache getDDOResolutionCache() {
+
+        if (oceanConfig.getDidCacheMaxSize() <= 0 || oceanConfig.getDidCacheTtl() <= 0)
+            return null;
+
+        return new DDOResolutionCache(oceanConfig.getDidCacheMaxSize(), oceanConfig.getDidCacheTtl());
+    }
+
+    /**
+     * Opens the local index of DIDRegistry events
+     *
+     * @return an opened DIDEventIndex object, or null if the index is disabled
+     * @throws IOException if the index can not be opened
+     */
+    public DIDEventIndex getDIDEventIndex() throws IOException {
+
+        if (oceanConfig.getDidIndexPath() == null || oceanConfig.getDidIndexPath().isEmpty())
+            return null;
+
+        return DIDEventIndex.open(
+                Paths.get(oceanConfig.getDidIndexPath()),
+                oceanConfig.getDidIndexFromBlock());
+    }
+
+    /**
+     * Opens the local journal of the orders
+     *
+     * @return an opened OrderJournal object, or null if the journal is disabled
+     * @throws IOException if the journal can not be opened
+     */
+    public OrderJournal getOrderJournal() throws IOException {
+
+        if (oceanConfig.getOrderJournalPath() == null || oceanConfig.getOrderJournalPath().isEmpty())
+            return null;
+
+        return OrderJournal.open(Paths.get(oceanConfig.getOrderJournalPath()));
+    }
+
+    /**
+     * Initialize the scanner used to retrieve the logs of a range of blocks
+     *
+     * @param keeperService the keeperService
+     * @return an initialized BlockRangeLogScanner object
+     */
+    public BlockRangeLogScanner getBlockRangeLogScanner(KeeperService keeperService) {
+        return new BlockRangeLogScanner(
+                keeperService.getWeb3(),
+                oceanConfig.getKeeperLogsBlockRange(),
+                oceanConfig.getKeeperLogsParallelism());
+    }
+
     /**
      * Initialize an instance of KeeperService
      *
@@ -47,11 +131,14 @@ public class OceanInitializationHelper {
                 oceanConfig.getMainAccountPassword(),
                 oceanConfig.getMainAccountCredentialsFile(),
                 oceanConfig.getKeeperTxAttempts(),
-                oceanConfig.getKeeperTxSleepDuration()
+                oceanConfig.getKeeperTxSleepDuration(),
+                oceanConfig.getKeeperBatchWindow()
         );
 
         keeper.setGasLimit(oceanConfig.getKeeperGasLimit())
-                .setGasPrice(oceanConfig.getKeeperGasPrice());
+                .setGasPrice(oceanConfig.getKeeperGasPrice())
+                .setEstimateGas(oceanConfig.isKeeperGasEstimate())
+                .setEventPolling(oceanConfig.getKeeperEventsPollingInterval(), oceanConfig.isKeeperEventsAdaptivePolling());
 
         return keeper;
     }
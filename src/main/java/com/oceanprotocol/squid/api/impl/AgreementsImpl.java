@@ -13,6 +13,8 @@ import com.oceanprotocol.squid.models.service.AgreementStatus;
 import org.web3j.crypto.Keys;
 import org.web3j.tuples.generated.Tuple2;
 
+import java.util.List;
+
 import static com.oceanprotocol.squid.core.sla.ServiceAgreementHandler.generateSlaId;
 
 public class AgreementsImpl implements AgreementsAPI {
@@ -70,11 +72,18 @@ public class AgreementsImpl implements AgreementsAPI {
         return agreementsManager.getStatus(agreementId);
     }
 
+    @Override
+    public List<AgreementStatus> statusAll(List<String> agreementIds) throws Exception {
+        return agreementsManager.getStatus(agreementIds);
+    }
+
     public String sign(String agreementId, DID did, String serviceDefinitionId, Account consumerAccount) throws Exception {
         DDO ddo = oceanManager.resolveDID(did);
         AccessService accessService = ddo.getAccessService(serviceDefinitionId);
         String hash = accessService.generateServiceAgreementHash(agreementId, consumerAccount.address, ddo.proof.creator, this.agreementsManager.getLockRewardCondition().getContractAddress(),
                 this.agreementsManager.getAccessSecretStoreCondition().getContractAddress(), this.agreementsManager.getEscrowReward().getContractAddress());
+        if (consumerAccount.signingMode == Account.SigningMode.LOCAL)
+            return accessService.generateServiceAgreementSignatureFromHash(this.agreementsManager.getKeeperService().getCredentials(), hash);
         return accessService.generateServiceAgreementSignatureFromHash(this.agreementsManager.getKeeperService().getWeb3(), this.agreementsManager.getKeeperService().getAddress(), consumerAccount.password, hash);
     }
 }
@@ -13,13 +13,16 @@ import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.aquarius.SearchResult;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
+import com.oceanprotocol.squid.models.asset.OrderRequest;
 import com.oceanprotocol.squid.models.asset.OrderResult;
 import com.oceanprotocol.squid.models.service.ProviderConfig;
 import io.reactivex.Flowable;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Implementation of AssetsAPI
@@ -60,6 +63,16 @@ public class AssetsImpl implements AssetsAPI {
         return oceanManager.resolveDID(did);
     }
 
+    @Override
+    public CompletableFuture<DDO> resolveAsync(DID did) {
+        return oceanManager.resolveDIDAsync(did);
+    }
+
+    @Override
+    public Map<DID, DDO> resolveAll(Collection<DID> dids) throws EthereumException {
+        return oceanManager.resolveDIDs(dids);
+    }
+
     @Override
     public List<AssetMetadata.File> getMetadataFiles(DID did) throws DDOException {
 
@@ -94,6 +107,26 @@ public class AssetsImpl implements AssetsAPI {
         return this.query(params, DEFAULT_OFFSET, DEFAULT_PAGE, 1);
     }
 
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(String text) {
+        return this.searchAsync(text, DEFAULT_OFFSET, DEFAULT_PAGE);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchAsync(String text, int offset, int page) {
+        return assetsManager.searchAssetsAsync(text, offset, page);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> queryAsync(Map<String, Object> params, int offset, int page, int sort) {
+        return assetsManager.searchAssetsAsync(params, offset, page, sort);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> queryAsync(Map<String, Object> params) {
+        return this.queryAsync(params, DEFAULT_OFFSET, DEFAULT_PAGE, 1);
+    }
+
 
     @Override
     public Boolean consume(String serviceAgreementId, DID did, String serviceDefinitionId, String basePath, int threshold) throws ConsumeServiceException {
@@ -141,9 +174,16 @@ public class AssetsImpl implements AssetsAPI {
         return oceanManager.purchaseAsset(did, serviceDefinitionId);
     }
 
+    @Override
+    public Flowable<OrderResult> orderAll(List<OrderRequest> orderRequests) throws OrderException {
+        return oceanManager.purchaseAssets(orderRequests);
+    }
+
     @Override
     public Boolean retire(DID did) throws DDOException {
-        return assetsManager.deleteAsset(did);
+        Boolean retired = assetsManager.deleteAsset(did);
+        oceanManager.evictResolvedDDO(did);
+        return retired;
     }
 
     @Override
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.cache;
+
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.DID;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the DDOs resolved from a DID.
+ * The least recently used entries are evicted when the cache is full, and the entries expire after a TTL.
+ * Every entry keeps the block of the DIDAttributeRegistered event used to resolve it, so an entry is
+ * invalidated when a newer event for the same DID is seen. The blocks of the last events seen are kept apart,
+ * for a TTL, so they don't take the place of the DDOs
+ */
+public class DDOResolutionCache {
+
+    private static final Logger log = LogManager.getLogger(DDOResolutionCache.class);
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+    public static final long DEFAULT_TTL = 300000l;
+
+    private final int maxSize;
+    private final long ttl;
+    private final LongSupplier clock;
+    private final Map<String, CacheEntry> entries;
+    // last DIDAttributeRegistered events seen, in the order they were seen
+    private final Map<String, CacheEntry> registrations = new LinkedHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Entry of the cache. An entry without DDO records the block of the last event seen for a DID,
+     * so a resolution started before that event can't populate the cache with a stale DDO until it expires
+     */
+    private static class CacheEntry {
+
+        private final DDO ddo;
+        private final BigInteger blockNumber;
+        private final long expiresAt;
+
+        private CacheEntry(DDO ddo, BigInteger blockNumber, long expiresAt) {
+            this.ddo = ddo;
+            this.blockNumber = blockNumber;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxSize the maximum number of entries
+     * @param ttl     time to live of the entries in milliseconds
+     */
+    public DDOResolutionCache(int maxSize, long ttl) {
+        this(maxSize, ttl, System::currentTimeMillis);
+    }
+
+    DDOResolutionCache(int maxSize, long ttl, LongSupplier clock) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > DDOResolutionCache.this.maxSize;
+            }
+        };
+    }
+
+    private static String getKey(DID did) {
+        return did.getHash().toLowerCase();
+    }
+
+    /**
+     * Gets the DDO cached for a DID
+     *
+     * @param did the did
+     * @return the DDO, or null if it's not cached or the entry expired
+     */
+    public synchronized DDO get(DID did) {
+
+        String key = getKey(did);
+        CacheEntry entry = entries.get(key);
+
+        if (entry == null || entry.ddo == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        if (clock.getAsLong() >= entry.expiresAt) {
+            entries.remove(key);
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return entry.ddo;
+    }
+
+    /**
+     * Caches the DDO of a DID
+     *
+     * @param did         the did
+     * @param ddo         the DDO resolved
+     * @param blockNumber the block of the DIDAttributeRegistered event used to resolve the DDO
+     */
+    public synchronized void put(DID did, DDO ddo, BigInteger blockNumber) {
+
+        String key = getKey(did);
+        long now = clock.getAsLong();
+        expireRegistrations(now);
+
+        if (isNewer(entries.get(key), blockNumber) || isNewer(registrations.get(key), blockNumber)) {
+            log.debug("Not caching DDO of " + did.toString() + " resolved at block " + blockNumber
+                    + ". There is a newer registration");
+            return;
+        }
+
+        entries.put(key, new CacheEntry(ddo, blockNumber, now + ttl));
+    }
+
+    private static boolean isNewer(CacheEntry entry, BigInteger blockNumber) {
+        return entry != null && entry.blockNumber != null && blockNumber != null
+                && entry.blockNumber.compareTo(blockNumber) > 0;
+    }
+
+    // the registrations are kept in the order they were seen, so the expired ones are at the head
+    private void expireRegistrations(long now) {
+        Iterator<CacheEntry> iterator = registrations.values().iterator();
+        while (iterator.hasNext() && now >= iterator.next().expiresAt)
+            iterator.remove();
+    }
+
+    /**
+     * Removes the DDO cached for a DID
+     *
+     * @param did the did
+     */
+    public synchronized void invalidate(DID did) {
+        if (entries.remove(getKey(did)) != null)
+            invalidations.incrementAndGet();
+    }
+
+    /**
+     * Notifies that a DIDAttributeRegistered event was emitted for a DID.
+     * The DDO cached is removed if it was resolved from an older event
+     *
+     * @param did         the did
+     * @param blockNumber the block of the event
+     */
+    public synchronized void onDIDAttributeRegistered(DID did, BigInteger blockNumber) {
+
+        String key = getKey(did);
+        long now = clock.getAsLong();
+
+        CacheEntry current = entries.get(key);
+        if (current != null && (current.blockNumber == null || current.blockNumber.compareTo(blockNumber) < 0)) {
+            log.debug("Invalidating DDO of " + did.toString() + " registered again at block " + blockNumber);
+            entries.remove(key);
+            invalidations.incrementAndGet();
+        }
+
+        expireRegistrations(now);
+        CacheEntry last = registrations.get(key);
+        if (last == null || last.blockNumber.compareTo(blockNumber) < 0) {
+            registrations.remove(key);
+            registrations.put(key, new CacheEntry(null, blockNumber, now + ttl));
+        }
+    }
+
+    /**
+     * Removes all the entries
+     */
+    public synchronized void clear() {
+        entries.clear();
+        registrations.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DDOResolutionCache{" +
+                "size=" + size() +
+                ", maxSize=" + maxSize +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                ", invalidations=" + getInvalidations() +
+                '}';
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.index;
+
+import com.oceanprotocol.keeper.contracts.AccessSecretStoreCondition;
+import com.oceanprotocol.keeper.contracts.DIDRegistry;
+import com.oceanprotocol.squid.core.logs.BlockRangeLogScanner;
+import com.oceanprotocol.squid.helpers.HexCodec;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local index of the DIDAttributeRegistered and Fulfilled (AccessSecretStoreCondition) events.
+ * The events are persisted in an append-only file of compact binary records, and a sidecar file keeps the
+ * last block indexed (checkpoint). When the index is opened the file is read through a memory-mapped buffer
+ * to rebuild the hash indexes by DID, owner and consumer, so every lookup is a local read.
+ * The blocks mined after the checkpoint are indexed by a catch-up scan that runs in its own thread, shared by all
+ * the callers that ask for it while it's in progress. The lookups never wait for it
+ */
+public class DIDEventIndex {
+
+    private static final Logger log = LogManager.getLogger(DIDEventIndex.class);
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+    private static final byte REGISTERED_RECORD = 1;
+    private static final byte FULFILLED_RECORD = 2;
+    // type + block + 2 topics + length of the url
+    private static final int RECORD_HEADER_SIZE = 1 + 8 + 32 + 32 + 4;
+
+    private static final String REGISTERED_EVENT_TOPIC = EventEncoder.encode(DIDRegistry.DIDATTRIBUTEREGISTERED_EVENT);
+    private static final String FULFILLED_EVENT_TOPIC = EventEncoder.encode(AccessSecretStoreCondition.FULFILLED_EVENT);
+
+    private final Path path;
+    private final Path checkpointPath;
+    private FileChannel channel;
+    private volatile BigInteger checkpoint;
+
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> ownerIndex = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> consumerIndex = new ConcurrentHashMap<>();
+
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "did-event-index-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object syncLock = new Object();
+    // catch-up scan in progress, or the last one
+    private CompletableFuture<Void> catchUp;
+
+    /**
+     * Last registration of a DID
+     */
+    public static class Registration {
+
+        private final String didHash;
+        private final String owner;
+        private final String url;
+        private final BigInteger blockNumber;
+
+        public Registration(String didHash, String owner, String url, BigInteger blockNumber) {
+            this.didHash = didHash;
+            this.owner = owner;
+            this.url = url;
+            this.blockNumber = blockNumber;
+        }
+
+        public String getDidHash() {
+            return didHash;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public BigInteger getBlockNumber() {
+            return blockNumber;
+        }
+    }
+
+    private DIDEventIndex(Path path, BigInteger fromBlock) {
+        this.path = path;
+        this.checkpointPath = Paths.get(path.toString() + CHECKPOINT_SUFFIX);
+        this.checkpoint = fromBlock.subtract(BigInteger.ONE);
+    }
+
+    /**
+     * Opens (or creates) the index stored in a file
+     *
+     * @param path      the path of the file of the index
+     * @param fromBlock the first block to index when the index is empty
+     * @return an opened DIDEventIndex
+     * @throws IOException if the index can not be read
+     */
+    public static DIDEventIndex open(Path path, BigInteger fromBlock) throws IOException {
+
+        DIDEventIndex index = new DIDEventIndex(path, fromBlock);
+        index.load();
+        return index;
+    }
+
+    private void load() throws IOException {
+
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        if (Files.exists(checkpointPath))
+            checkpoint = new BigInteger(new String(Files.readAllBytes(checkpointPath), StandardCharsets.UTF_8).trim());
+
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        long validSize = 0;
+
+        if (size > 0) {
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+
+                int start = buffer.position();
+                byte type = buffer.get();
+                long block = buffer.getLong();
+                byte[] topicA = new byte[32];
+                byte[] topicB = new byte[32];
+                buffer.get(topicA);
+                buffer.get(topicB);
+                int urlLength = buffer.getInt();
+
+                if ((type != REGISTERED_RECORD && type != FULFILLED_RECORD) || urlLength < 0 || buffer.remaining() < urlLength
+                        || BigInteger.valueOf(block).compareTo(checkpoint) > 0) {
+                    buffer.position(start);
+                    break;
+                }
+
+                byte[] url = new byte[urlLength];
+                buffer.get(url);
+
+                index(type, BigInteger.valueOf(block), topicA, topicB, new String(url, StandardCharsets.UTF_8));
+                validSize = buffer.position();
+            }
+        }
+
+        if (validSize < size) {
+            // records written after the last checkpoint, they will be indexed again
+            log.debug("Truncating DID event index " + path + " from " + size + " to " + validSize + " bytes");
+            channel.truncate(validSize);
+        }
+
+        channel.position(validSize);
+        log.debug("DID event index " + path + " loaded. Checkpoint: " + checkpoint + ", DIDs: " + registrations.size());
+    }
+
+    private void index(byte type, BigInteger block, byte[] topicA, byte[] topicB, String url) {
+
+        String key = HexCodec.encode(topicA, false);
+        String address = toAddressKey(HexCodec.encode(topicB, false));
+
+        if (type == REGISTERED_RECORD) {
+            Registration previous = registrations.put(key, new Registration(key, address, url, block));
+            // the DID is moved when it's registered again by other owner
+            if (previous != null && !previous.getOwner().equals(address)) {
+                Set<String> previousOwnerDIDs = ownerIndex.get(previous.getOwner());
+                if (previousOwnerDIDs != null)
+                    previousOwnerDIDs.remove(key);
+            }
+            ownerIndex.computeIfAbsent(address, k -> Collections.synchronizedSet(new LinkedHashSet<>())).add(key);
+        } else {
+            consumerIndex.computeIfAbsent(address, k -> new CopyOnWriteArrayList<>()).add(key);
+        }
+    }
+
+    private static String toAddressKey(String address) {
+        String clean = HexCodec.cleanPrefixLowerCase(address);
+        return clean.length() > 40 ? clean.substring(clean.length() - 40) : clean;
+    }
+
+    private static byte[] toTopicBytes(String topic) {
+        return Numeric.toBytesPadded(Numeric.toBigInt(topic), 32);
+    }
+
+    /**
+     * Event found in the logs, indexed once it's persisted
+     */
+    private static class Record {
+
+        private final byte type;
+        private final BigInteger block;
+        private final byte[] topicA;
+        private final byte[] topicB;
+        private final String url;
+
+        private Record(byte type, BigInteger block, byte[] topicA, byte[] topicB, String url) {
+            this.type = type;
+            this.block = block;
+            this.topicA = topicA;
+            this.topicB = topicB;
+            this.url = url;
+        }
+
+        private ByteBuffer toBuffer() {
+            byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + urlBytes.length);
+            buffer.put(type)
+                    .putLong(block.longValueExact())
+                    .put(topicA)
+                    .put(topicB)
+                    .putInt(urlBytes.length)
+                    .put(urlBytes);
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * Appends the DIDAttributeRegistered and Fulfilled events found in a list of logs, and moves the checkpoint
+     * to the block given. The logs must be sorted by block. The events are indexed once they and the checkpoint
+     * are persisted, so the lookups never see events that would be lost
+     *
+     * @param logs       the logs
+     * @param checkpoint the last block included in the logs
+     * @throws IOException if the events can not be persisted
+     */
+    public synchronized void append(List<EthLog.LogResult> logs, BigInteger checkpoint) throws IOException {
+
+        List<Record> records = new ArrayList<>();
+
+        for (EthLog.LogResult logResult : logs) {
+
+            EthLog.LogObject logObject = (EthLog.LogObject) logResult;
+            List<String> topics = logObject.getTopics();
+            if (topics.isEmpty() || logObject.getBlockNumber().compareTo(this.checkpoint) <= 0)
+                continue;
+
+            byte type;
+            byte[] topicA;
+            byte[] topicB;
+            String url = "";
+
+            if (REGISTERED_EVENT_TOPIC.equalsIgnoreCase(topics.get(0)) && topics.size() > 2) {
+                type = REGISTERED_RECORD;
+                topicA = toTopicBytes(topics.get(1));
+                topicB = toTopicBytes(topics.get(2));
+                List<Type> nonIndexed = FunctionReturnDecoder.decode(logObject.getData(), DIDRegistry.DIDATTRIBUTEREGISTERED_EVENT.getNonIndexedParameters());
+                url = nonIndexed.get(0).getValue().toString();
+            } else if (FULFILLED_EVENT_TOPIC.equalsIgnoreCase(topics.get(0)) && topics.size() > 3) {
+                type = FULFILLED_RECORD;
+                topicA = toTopicBytes(topics.get(2));
+                topicB = toTopicBytes(topics.get(3));
+            } else
+                continue;
+
+            records.add(new Record(type, logObject.getBlockNumber(), topicA, topicB, url));
+        }
+
+        long position = channel.position();
+        try {
+            for (Record record : records) {
+                ByteBuffer buffer = record.toBuffer();
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            channel.force(false);
+
+            writeCheckpoint(checkpoint);
+        } catch (IOException e) {
+            // the records written are discarded, they will be appended again by the next catch-up
+            channel.truncate(position);
+            channel.position(position);
+            throw e;
+        }
+
+        for (Record record : records)
+            index(record.type, record.block, record.topicA, record.topicB, record.url);
+    }
+
+    private void writeCheckpoint(BigInteger block) throws IOException {
+        Path tmp = Paths.get(checkpointPath.toString() + ".tmp");
+        Files.write(tmp, block.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.checkpoint = block;
+    }
+
+    /**
+     * Indexes the events emitted between the checkpoint and the latest block, waiting for it.
+     * If a catch-up scan is in progress it's awaited instead of starting another one
+     *
+     * @param web3j                             the web3j client
+     * @param scanner                           the scanner used to retrieve the logs
+     * @param didRegistryAddress                address of the DIDRegistry contract
+     * @param accessSecretStoreConditionAddress address of the AccessSecretStoreCondition contract
+     * @throws IOException if the events can not be retrieved or persisted
+     */
+    public void sync(Web3j web3j, BlockRangeLogScanner scanner, String didRegistryAddress, String accessSecretStoreConditionAddress) throws IOException {
+
+        try {
+            syncAsync(web3j, scanner, didRegistryAddress, accessSecretStoreConditionAddress).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Starts indexing the events emitted between the checkpoint and the latest block, without waiting for it.
+     * If a catch-up scan is in progress no other one is started
+     *
+     * @param web3j                             the web3j client
+     * @param scanner                           the scanner used to retrieve the logs
+     * @param didRegistryAddress                address of the DIDRegistry contract
+     * @param accessSecretStoreConditionAddress address of the AccessSecretStoreCondition contract
+     * @return a CompletableFuture that completes when the catch-up scan in progress finishes
+     */
+    public CompletableFuture<Void> syncAsync(Web3j web3j, BlockRangeLogScanner scanner, String didRegistryAddress, String accessSecretStoreConditionAddress) {
+
+        synchronized (syncLock) {
+            if (catchUp == null || catchUp.isDone())
+                catchUp = CompletableFuture.runAsync(() -> {
+                    try {
+                        catchUp(web3j, scanner, didRegistryAddress, accessSecretStoreConditionAddress);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, syncExecutor);
+            return catchUp;
+        }
+    }
+
+    /**
+     * Indexes the events emitted between the checkpoint and the latest block.
+     * The checkpoint is moved after every batch of windows scanned in parallel
+     */
+    private void catchUp(Web3j web3j, BlockRangeLogScanner scanner, String didRegistryAddress, String accessSecretStoreConditionAddress) throws IOException {
+
+        BigInteger latest = web3j.ethBlockNumber().send().getBlockNumber();
+        BigInteger step = BigInteger.valueOf(scanner.getBlockRange()).multiply(BigInteger.valueOf(scanner.getParallelism()));
+
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameterName.EARLIEST,
+                DefaultBlockParameterName.LATEST,
+                Arrays.asList(didRegistryAddress, accessSecretStoreConditionAddress));
+        filter.addOptionalTopics(REGISTERED_EVENT_TOPIC, FULFILLED_EVENT_TOPIC);
+
+        while (checkpoint.compareTo(latest) < 0) {
+
+            BigInteger from = checkpoint.add(BigInteger.ONE);
+            BigInteger to = from.add(step).subtract(BigInteger.ONE).min(latest);
+
+            append(scanner.getLogs(filter, from, to), to);
+        }
+    }
+
+    /**
+     * Gets the last registration of a DID
+     *
+     * @param didHash the hash of the did
+     * @return the registration or null if the DID was not registered
+     */
+    public Registration getRegistration(String didHash) {
+        return registrations.get(HexCodec.cleanPrefixLowerCase(didHash));
+    }
+
+    /**
+     * Gets the DIDs whose last registration was made by an owner, in the order they were first registered
+     *
+     * @param owner the address of the owner
+     * @return the list of the hashes of the DIDs
+     */
+    public List<String> getOwnerDIDs(String owner) {
+        Set<String> dids = ownerIndex.get(toAddressKey(owner));
+        if (dids == null)
+            return new ArrayList<>();
+        synchronized (dids) {
+            return new ArrayList<>(dids);
+        }
+    }
+
+    /**
+     * Gets the DIDs consumed by a consumer, one per Fulfilled event
+     *
+     * @param consumer the address of the consumer
+     * @return the list of the hashes of the DIDs
+     */
+    public List<String> getConsumedDIDs(String consumer) {
+        return new ArrayList<>(consumerIndex.getOrDefault(toAddressKey(consumer), Collections.emptyList()));
+    }
+
+    public BigInteger getCheckpoint() {
+        return checkpoint;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Closes the file of the index
+     *
+     * @throws IOException IOException
+     */
+    public synchronized void close() throws IOException {
+        syncExecutor.shutdownNow();
+        channel.close();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.logs;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Retrieves the logs of a block range splitting it in windows of blocks that are requested in parallel.
+ * The windows are taken one after another by at most parallelism workers, so a scan never has more windows in
+ * flight. When the node rejects a window because it returns too many results, or the request times out,
+ * the range of the windows is halved, and the range reduced is kept for the next windows of all the scans.
+ * The logs are returned in block order
+ */
+public class BlockRangeLogScanner {
+
+    private static final Logger log = LogManager.getLogger(BlockRangeLogScanner.class);
+
+    public static final long DEFAULT_BLOCK_RANGE = 100000l;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    // Error code returned by Infura and other providers when the query exceeds the limit of results
+    private static final int LIMIT_EXCEEDED_CODE = -32005;
+    private static final Pattern RANGE_ERROR_PATTERN =
+            Pattern.compile(".*(too many|more than|limit|exceed|timeout|timed out|response size).*", Pattern.CASE_INSENSITIVE);
+
+    private final Web3j web3j;
+    private final long blockRange;
+    private final int parallelism;
+    private final ExecutorService executor;
+    // range of the next windows, reduced when the node rejects a window
+    private final AtomicLong windowRange;
+
+    /**
+     * Rejection of a window that can be retrieved with a smaller range
+     */
+    private static class RangeException extends IOException {
+
+        private RangeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Windows of a block range that are taken by the workers of a scan
+     */
+    private class Scan {
+
+        private final EthFilter filter;
+        private final BigInteger toBlock;
+        private final Map<BigInteger, List<EthLog.LogResult>> windows = new ConcurrentSkipListMap<>();
+        private BigInteger nextBlock;
+        private volatile boolean failed;
+
+        private Scan(EthFilter filter, BigInteger fromBlock, BigInteger toBlock) {
+            this.filter = filter;
+            this.nextBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        /**
+         * Takes the next window of the range
+         *
+         * @return the first and last block of the window, or null if there are no windows left
+         */
+        private synchronized BigInteger[] next() {
+
+            if (failed || nextBlock.compareTo(toBlock) > 0)
+                return null;
+
+            BigInteger start = nextBlock;
+            BigInteger end = start.add(BigInteger.valueOf(windowRange.get() - 1)).min(toBlock);
+            nextBlock = end.add(BigInteger.ONE);
+            return new BigInteger[]{start, end};
+        }
+
+        private void run() {
+
+            try {
+                BigInteger[] window;
+                while ((window = next()) != null)
+                    scan(window[0], window[1]);
+            } catch (IOException e) {
+                failed = true;
+                throw new CompletionException(e);
+            }
+        }
+
+        /**
+         * Retrieves the logs of a window, in smaller windows while the node rejects them
+         */
+        private void scan(BigInteger fromBlock, BigInteger toBlock) throws IOException {
+
+            BigInteger start = fromBlock;
+            while (start.compareTo(toBlock) <= 0 && !failed) {
+
+                BigInteger end = start.add(BigInteger.valueOf(windowRange.get() - 1)).min(toBlock);
+                try {
+                    windows.put(start, getWindowLogs(filter, start, end));
+                    start = end.add(BigInteger.ONE);
+                } catch (RangeException e) {
+                    if (start.equals(end))
+                        throw new IOException("Unable to retrieve logs of block " + start + ": " + e.getMessage());
+
+                    long reduced = Math.max(1l, end.subtract(start).add(BigInteger.ONE).longValue() / 2);
+                    windowRange.accumulateAndGet(reduced, Math::min);
+                    log.debug("Reducing the range of the logs requests to " + reduced + " blocks at block " + start + ": " + e.getMessage());
+                }
+            }
+        }
+
+        private List<EthLog.LogResult> getLogs() {
+            List<EthLog.LogResult> logs = new ArrayList<>();
+            for (List<EthLog.LogResult> window : windows.values())
+                logs.addAll(window);
+            return logs;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3j the web3j client
+     */
+    public BlockRangeLogScanner(Web3j web3j) {
+        this(web3j, DEFAULT_BLOCK_RANGE, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3j       the web3j client
+     * @param blockRange  the maximum number of blocks requested in every eth_getLogs call
+     * @param parallelism the maximum number of eth_getLogs calls in flight
+     */
+    public BlockRangeLogScanner(Web3j web3j, long blockRange, int parallelism) {
+        this.web3j = web3j;
+        this.blockRange = Math.max(1l, blockRange);
+        this.parallelism = Math.max(1, parallelism);
+        this.windowRange = new AtomicLong(this.blockRange);
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "block-range-log-scanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the logs matching a filter. The blocks of the filter are resolved to numbers, and the range is
+     * requested in windows of blocks
+     *
+     * @param filter the filter
+     * @return the logs found, in block order
+     * @throws IOException if the logs can not be retrieved
+     */
+    public List<EthLog.LogResult> getLogs(EthFilter filter) throws IOException {
+        return join(getLogsAsync(filter));
+    }
+
+    /**
+     * Gets the logs matching a filter between two blocks. The block range of the filter is ignored
+     *
+     * @param filter    the filter with the addresses and topics to match
+     * @param fromBlock the first block
+     * @param toBlock   the last block
+     * @return the logs found, in block order
+     * @throws IOException if the logs can not be retrieved
+     */
+    public List<EthLog.LogResult> getLogs(EthFilter filter, BigInteger fromBlock, BigInteger toBlock) throws IOException {
+        return join(getLogsAsync(filter, fromBlock, toBlock));
+    }
+
+    /**
+     * Gets the logs matching a filter without blocking the caller
+     *
+     * @param filter the filter
+     * @return a CompletableFuture with the logs found, in block order
+     */
+    public CompletableFuture<List<EthLog.LogResult>> getLogsAsync(EthFilter filter) {
+
+        BigInteger fromBlock = toBlockNumber(filter.getFromBlock());
+        BigInteger toBlock = toBlockNumber(filter.getToBlock());
+
+        if (fromBlock != null && toBlock != null)
+            return getLogsAsync(filter, fromBlock, toBlock);
+
+        return web3j.ethBlockNumber().sendAsync()
+                .thenCompose(latest -> getLogsAsync(
+                        filter,
+                        fromBlock != null ? fromBlock : latest.getBlockNumber(),
+                        toBlock != null ? toBlock : latest.getBlockNumber()));
+    }
+
+    /**
+     * Gets the logs matching a filter between two blocks without blocking the caller.
+     * The block range of the filter is ignored
+     *
+     * @param filter    the filter with the addresses and topics to match
+     * @param fromBlock the first block
+     * @param toBlock   the last block
+     * @return a CompletableFuture with the logs found, in block order
+     */
+    public CompletableFuture<List<EthLog.LogResult>> getLogsAsync(EthFilter filter, BigInteger fromBlock, BigInteger toBlock) {
+
+        if (fromBlock.compareTo(toBlock) > 0)
+            return CompletableFuture.completedFuture(new ArrayList<>());
+
+        Scan scan = new Scan(filter, fromBlock, toBlock);
+        BigInteger blocks = toBlock.subtract(fromBlock).add(BigInteger.ONE);
+        int workers = blocks.subtract(BigInteger.ONE).divide(BigInteger.valueOf(windowRange.get())).add(BigInteger.ONE)
+                .min(BigInteger.valueOf(parallelism)).intValue();
+
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        for (int i = 0; i < workers; i++)
+            running.add(CompletableFuture.runAsync(scan::run, executor));
+
+        return CompletableFuture.allOf(running.toArray(new CompletableFuture[0]))
+                .thenApply(v -> scan.getLogs());
+    }
+
+    private List<EthLog.LogResult> getWindowLogs(EthFilter filter, BigInteger fromBlock, BigInteger toBlock) throws IOException {
+
+        EthFilter windowFilter = new EthFilter(
+                new DefaultBlockParameterNumber(fromBlock),
+                new DefaultBlockParameterNumber(toBlock),
+                filter.getAddress());
+        windowFilter.getTopics().addAll(filter.getTopics());
+
+        try {
+
+            EthLog ethLog = web3j.ethGetLogs(windowFilter).send();
+            if (!ethLog.hasError())
+                return ethLog.getLogs() != null ? ethLog.getLogs() : new ArrayList<>();
+
+            if (!isRangeError(ethLog.getError()))
+                throw new IOException("Error retrieving logs from block " + fromBlock + " to " + toBlock + ": " + ethLog.getError().getMessage());
+
+            throw new RangeException(ethLog.getError().getMessage());
+
+        } catch (InterruptedIOException e) {
+            throw new RangeException("timeout");
+        }
+    }
+
+    private static boolean isRangeError(Response.Error error) {
+        return error.getCode() == LIMIT_EXCEEDED_CODE
+                || (error.getMessage() != null && RANGE_ERROR_PATTERN.matcher(error.getMessage()).matches());
+    }
+
+    private static BigInteger toBlockNumber(DefaultBlockParameter blockParameter) {
+
+        if (blockParameter instanceof DefaultBlockParameterNumber)
+            return ((DefaultBlockParameterNumber) blockParameter).getBlockNumber();
+        if (blockParameter == DefaultBlockParameterName.EARLIEST)
+            return BigInteger.ZERO;
+        return null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Stops the threads used to request the windows of blocks
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public long getBlockRange() {
+        return blockRange;
+    }
+
+    public long getWindowRange() {
+        return windowRange.get();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for the confirmation of an agreement without blocking any thread.
+ * The agreement is confirmed as soon as its AgreementCreated event is received or the transaction that creates it
+ * is mined successfully. If the transaction fails, or nothing is received before the deadline, the agreement
+ * is checked on-chain once. The check and the deadline run in a pool of threads of this class, so they never block
+ * the threads that deliver the events and the receipts
+ */
+public class AgreementConfirmation {
+
+    private static final Logger log = LogManager.getLogger(AgreementConfirmation.class);
+
+    private static final int CHECK_THREADS = 4;
+    private static final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(CHECK_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "agreement-confirmation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // the deadlines of the agreements confirmed are removed as soon as they are cancelled
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    private AgreementConfirmation() {
+    }
+
+    /**
+     * Waits for the confirmation of an agreement
+     *
+     * @param events      the AgreementCreated events of the agreement
+     * @param transaction the result of the transaction that creates the agreement, or null if the agreement is not created by us
+     * @param check       checks on-chain if the agreement exists
+     * @param timeout     time in milliseconds to wait for the event or the transaction
+     * @return a CompletableFuture that completes with true if the agreement was created
+     */
+    public static CompletableFuture<Boolean> confirm(Flowable<?> events, CompletableFuture<Boolean> transaction,
+                                                     Callable<Boolean> check, long timeout) {
+
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+
+        Disposable subscription = events.firstElement().subscribe(
+                event -> confirmation.complete(true),
+                error -> log.warn("Error listening the AgreementCreated event: " + error.getMessage()));
+        confirmation.whenComplete((confirmed, error) -> subscription.dispose());
+
+        if (transaction != null) {
+            transaction.whenCompleteAsync((statusOk, error) -> {
+                if (error != null)
+                    log.warn("Error creating the agreement: " + error.getMessage());
+
+                if (statusOk != null && statusOk)
+                    confirmation.complete(true);
+                else
+                    completeWithCheck(confirmation, check);
+            }, executor);
+        }
+
+        ScheduledFuture<?> deadline = executor.schedule(() -> completeWithCheck(confirmation, check), timeout, TimeUnit.MILLISECONDS);
+        confirmation.whenComplete((confirmed, error) -> deadline.cancel(false));
+
+        return confirmation;
+    }
+
+    private static void completeWithCheck(CompletableFuture<Boolean> confirmation, Callable<Boolean> check) {
+
+        if (confirmation.isDone())
+            return;
+
+        try {
+            confirmation.complete(check.call());
+        } catch (Exception e) {
+            confirmation.completeExceptionally(e);
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import com.oceanprotocol.squid.helpers.HexCodec;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.processors.ReplayProcessor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Listens an event of a contract with a single filter and routes every event to the subscribers of its agreement.
+ * The events received before an agreement has subscribers are replayed when they subscribe
+ *
+ * @param <E> the type of the event responses
+ */
+public class AgreementEventMultiplexer<E> {
+
+    private static final Logger log = LogManager.getLogger(AgreementEventMultiplexer.class);
+
+    public static final long DEFAULT_RETENTION = 600000l;
+
+    private final String contractAddress;
+    private final String eventSignature;
+    private final Function<EthFilter, Flowable<E>> source;
+    private final Function<E, byte[]> agreementIdOf;
+    private final Function<E, Log> logOf;
+    private final long retention;
+
+    private final Map<String, Channel<E>> channels = new ConcurrentHashMap<>();
+    private Disposable subscription;
+    private BigInteger fromBlock;
+    private BigInteger lastBlock;
+
+    /**
+     * Events of an agreement
+     */
+    private static class Channel<E> {
+
+        private final ReplayProcessor<E> processor = ReplayProcessor.create();
+        private final Set<String> logs = ConcurrentHashMap.newKeySet();
+        private final long createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param contractAddress the address of the contract
+     * @param event           the event listened
+     * @param source          function that creates the Flowable of events of a filter
+     * @param agreementIdOf   function that gets the agreement id of an event
+     * @param logOf           function that gets the log of an event
+     * @param retention       time in milliseconds to keep the events of an agreement without subscribers
+     */
+    public AgreementEventMultiplexer(String contractAddress, Event event, Function<EthFilter, Flowable<E>> source,
+                                     Function<E, byte[]> agreementIdOf, Function<E, Log> logOf, long retention) {
+        this.contractAddress = contractAddress;
+        this.eventSignature = EventEncoder.encode(event);
+        this.source = source;
+        this.agreementIdOf = agreementIdOf;
+        this.logOf = logOf;
+        this.retention = retention;
+    }
+
+    /**
+     * Listens the events of an agreement
+     *
+     * @param agreementId the agreement id
+     * @param fromBlock   first block where the events of the agreement can be. If the filter was started after this block
+     *                    it's restarted from it
+     * @return a Flowable over the events of the agreement, including the events received before this call
+     */
+    public Flowable<E> listen(String agreementId, BigInteger fromBlock) {
+
+        Channel<E> channel = channels.computeIfAbsent(normalize(agreementId), id -> new Channel<>());
+        start(fromBlock);
+        return channel.processor;
+    }
+
+    /**
+     * Stops the filter and removes all the events received
+     */
+    public synchronized void stop() {
+
+        if (subscription != null)
+            subscription.dispose();
+        subscription = null;
+        fromBlock = null;
+        channels.clear();
+    }
+
+    public boolean isStarted() {
+        return subscription != null;
+    }
+
+    public int getChannels() {
+        return channels.size();
+    }
+
+    private synchronized void start(BigInteger block) {
+
+        if (subscription != null && !subscription.isDisposed() && fromBlock.compareTo(block) <= 0)
+            return;
+
+        if (subscription != null)
+            subscription.dispose();
+
+        fromBlock = block;
+        subscribe(block);
+    }
+
+    private void subscribe(BigInteger block) {
+
+        log.debug("Listening events " + eventSignature + " of " + contractAddress + " from block " + block);
+
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameter.valueOf(block),
+                DefaultBlockParameterName.LATEST,
+                contractAddress
+        );
+        filter.addSingleTopic(eventSignature);
+
+        subscription = source.apply(filter).subscribe(this::dispatch, this::onError);
+    }
+
+    private synchronized void onError(Throwable throwable) {
+
+        log.warn("Error listening events of " + contractAddress + ": " + throwable.getMessage());
+        evict();
+        if (channels.isEmpty()) {
+            subscription = null;
+            fromBlock = null;
+            return;
+        }
+
+        // the filter is restarted from the last block seen, the events repeated are discarded by the channels
+        subscribe(lastBlock != null ? lastBlock : fromBlock);
+    }
+
+    private void dispatch(E event) {
+
+        Log eventLog = logOf.apply(event);
+        if (eventLog != null && eventLog.getBlockNumber() != null)
+            lastBlock = eventLog.getBlockNumber();
+
+        String agreementId = HexCodec.encode(agreementIdOf.apply(event), false);
+        Channel<E> channel = channels.computeIfAbsent(agreementId, id -> new Channel<>());
+
+        String logId = eventLog != null ? eventLog.getTransactionHash() + ":" + eventLog.getLogIndexRaw() : null;
+        if (logId == null || channel.logs.add(logId))
+            channel.processor.onNext(event);
+
+        evict();
+    }
+
+    private void evict() {
+
+        long now = System.currentTimeMillis();
+        channels.entrySet().removeIf(entry -> !entry.getValue().processor.hasSubscribers()
+                && now - entry.getValue().createdAt >= retention);
+    }
+
+    private static String normalize(String agreementId) {
+        return HexCodec.cleanPrefixLowerCase(agreementId);
+    }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local journal of the progress of the orders.
+ * Every change of state of an order is appended to a file as a line with the whole state of the order, so the
+ * last line of every order is enough to resume it. When the journal is opened the file is rewritten with the
+ * orders still in flight, and an incomplete last line (written during a crash) is discarded
+ */
+public class OrderJournal {
+
+    private static final Logger log = LogManager.getLogger(OrderJournal.class);
+
+    private static final String SEPARATOR = "\t";
+    private static final String NO_BLOCK = "-";
+
+    private final Path path;
+    private FileChannel channel;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * States of an order
+     */
+    public enum State {
+        // the createAgreement transaction is going to be sent
+        CREATED,
+        AGREEMENT_ON_CHAIN,
+        REWARD_LOCKED,
+        ACCESS_GRANTED,
+        REFUNDED,
+        // the agreement was not created
+        FAILED;
+
+        public boolean isFinal() {
+            return this == ACCESS_GRANTED || this == REFUNDED || this == FAILED;
+        }
+    }
+
+    /**
+     * Last state of an order
+     */
+    public static class Entry {
+
+        private final String agreementId;
+        private final String did;
+        private final String serviceDefinitionId;
+        private final State state;
+        private final BigInteger fromBlock;
+        private final long updatedAt;
+
+        public Entry(String agreementId, String did, String serviceDefinitionId, State state, BigInteger fromBlock, long updatedAt) {
+            this.agreementId = agreementId;
+            this.did = did;
+            this.serviceDefinitionId = serviceDefinitionId;
+            this.state = state;
+            this.fromBlock = fromBlock;
+            this.updatedAt = updatedAt;
+        }
+
+        public String getAgreementId() {
+            return agreementId;
+        }
+
+        public String getDid() {
+            return did;
+        }
+
+        public String getServiceDefinitionId() {
+            return serviceDefinitionId;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Gets the first block where the next event expected for the order can be
+         *
+         * @return the block, or null if it's not known
+         */
+        public BigInteger getFromBlock() {
+            return fromBlock;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+
+        private String toLine() {
+            return String.join(SEPARATOR,
+                    state.name(),
+                    agreementId,
+                    did,
+                    serviceDefinitionId,
+                    fromBlock != null ? fromBlock.toString() : NO_BLOCK,
+                    String.valueOf(updatedAt)) + "\n";
+        }
+
+        private static Entry fromLine(String line) {
+
+            String[] fields = line.split(SEPARATOR, -1);
+            if (fields.length != 6)
+                throw new IllegalArgumentException("Invalid number of fields: " + fields.length);
+
+            return new Entry(fields[1], fields[2], fields[3], State.valueOf(fields[0]),
+                    NO_BLOCK.equals(fields[4]) ? null : new BigInteger(fields[4]),
+                    Long.parseLong(fields[5]));
+        }
+    }
+
+    private OrderJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Opens (or creates) the journal stored in a file
+     *
+     * @param path the path of the file of the journal
+     * @return an opened OrderJournal
+     * @throws IOException if the journal can not be read
+     */
+    public static OrderJournal open(Path path) throws IOException {
+
+        OrderJournal journal = new OrderJournal(path);
+        journal.load();
+        return journal;
+    }
+
+    private void load() throws IOException {
+
+        if (path.getParent() != null)
+            Files.createDirectories(path.getParent());
+
+        if (Files.exists(path)) {
+
+            String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            // the last line is incomplete if it doesn't end with a new line
+            int end = content.lastIndexOf('\n') + 1;
+            if (end < content.length())
+                log.debug("Discarding incomplete record at the end of the order journal " + path);
+
+            for (String line : content.substring(0, end).split("\n")) {
+                if (line.isEmpty())
+                    continue;
+                try {
+                    Entry entry = Entry.fromLine(line);
+                    entries.put(entry.agreementId, entry);
+                } catch (IllegalArgumentException e) {
+                    log.warn("Ignoring invalid record of the order journal " + path + ": " + e.getMessage());
+                }
+            }
+        }
+
+        entries.values().removeIf(entry -> entry.state.isFinal());
+        compact();
+
+        log.debug("Order journal " + path + " loaded. Orders in flight: " + entries.size());
+    }
+
+    /**
+     * Rewrites the file of the journal with the orders in flight
+     */
+    private void compact() throws IOException {
+
+        Path tmp = Paths.get(path.toString() + ".tmp");
+        try (FileChannel tmpChannel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Entry entry : entries.values())
+                write(tmpChannel, entry);
+            tmpChannel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void write(FileChannel channel, Entry entry) throws IOException {
+
+        ByteBuffer buffer = ByteBuffer.wrap(entry.toLine().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Records a new order
+     *
+     * @param agreementId         the id of the agreement of the order
+     * @param did                 the did of the asset
+     * @param serviceDefinitionId the service definition id
+     * @param fromBlock           first block where the AgreementCreated event can be
+     * @throws IOException if the order can not be persisted
+     */
+    public synchronized void create(String agreementId, String did, String serviceDefinitionId, BigInteger fromBlock) throws IOException {
+        append(new Entry(agreementId, did, serviceDefinitionId, State.CREATED, fromBlock, System.currentTimeMillis()));
+    }
+
+    /**
+     * Records a change of state of an order
+     *
+     * @param agreementId the id of the agreement of the order
+     * @param state       the new state
+     * @param fromBlock   first block where the next event expected can be, or null to keep the previous one
+     * @throws IOException if the state can not be persisted
+     */
+    public synchronized void record(String agreementId, State state, BigInteger fromBlock) throws IOException {
+
+        Entry entry = entries.get(agreementId);
+        if (entry == null) {
+            log.warn("Order with agreement " + agreementId + " not found in the order journal");
+            return;
+        }
+
+        append(new Entry(agreementId, entry.did, entry.serviceDefinitionId, state,
+                fromBlock != null ? fromBlock : entry.fromBlock, System.currentTimeMillis()));
+    }
+
+    private void append(Entry entry) throws IOException {
+
+        write(channel, entry);
+        channel.force(false);
+
+        if (entry.state.isFinal())
+            entries.remove(entry.agreementId);
+        else
+            entries.put(entry.agreementId, entry);
+    }
+
+    /**
+     * Gets the orders that haven't reached a final state
+     *
+     * @return the last state of every order in flight
+     */
+    public synchronized List<Entry> getInFlightOrders() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Gets the last state of an order in flight
+     *
+     * @param agreementId the id of the agreement of the order
+     * @return the entry of the order, or null if the order is not in flight
+     */
+    public synchronized Entry getOrder(String agreementId) {
+        return entries.get(agreementId);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Closes the file of the journal
+     *
+     * @throws IOException IOException
+     */
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
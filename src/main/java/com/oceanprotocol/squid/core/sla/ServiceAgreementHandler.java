@@ -18,14 +18,11 @@ import io.reactivex.Flowable;
 import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.web3j.abi.EventEncoder;
-import org.web3j.abi.datatypes.Event;
-import org.web3j.protocol.core.DefaultBlockParameterName;
-import org.web3j.protocol.core.methods.request.EthFilter;
 import org.web3j.tuples.generated.Tuple2;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -33,6 +30,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 
 /**
@@ -61,54 +61,37 @@ public class ServiceAgreementHandler {
     }
 
     /**
-     * Define and execute a Filter over the Service Agreement Contract to listen for an AgreementInitialized event
+     * Creates a multiplexer that listens the AgreementCreated events of the template with a single filter
      *
-     * @param slaContract        the address of the service agreement contract
-     * @param serviceAgreementId the service agreement Id
-     * @return a Flowable over the Event to handle it in an asynchronous fashion
+     * @param slaContract the service agreement contract
+     * @return an AgreementEventMultiplexer over the AgreementCreated events
      */
-    public static Flowable<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> listenExecuteAgreement(EscrowAccessSecretStoreTemplate slaContract, String serviceAgreementId) {
-        EthFilter slaFilter = new EthFilter(
-                DefaultBlockParameterName.EARLIEST,
-                DefaultBlockParameterName.LATEST,
-                slaContract.getContractAddress()
-        );
-
-        final Event event = slaContract.AGREEMENTCREATED_EVENT;
-        final String eventSignature = EventEncoder.encode(event);
-        String slaTopic = "0x" + serviceAgreementId;
-        slaFilter.addSingleTopic(eventSignature);
-        slaFilter.addOptionalTopics(slaTopic);
-
-        return slaContract.agreementCreatedEventFlowable(slaFilter);
+    public static AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> agreementCreatedMultiplexer(EscrowAccessSecretStoreTemplate slaContract) {
+
+        return new AgreementEventMultiplexer<>(
+                slaContract.getContractAddress(),
+                EscrowAccessSecretStoreTemplate.AGREEMENTCREATED_EVENT,
+                slaContract::agreementCreatedEventFlowable,
+                event -> event._agreementId,
+                event -> event.log,
+                AgreementEventMultiplexer.DEFAULT_RETENTION);
     }
 
-
     /**
-     * Define and execute a Filter over the AccessSecretStoreCondition Contract to listen for an Fulfilled event
+     * Creates a multiplexer that listens the Fulfilled events of the AccessSecretStoreCondition with a single filter
      *
-     * @param accessCondition    the address of the AccessSecretStoreCondition contract
-     * @param serviceAgreementId the serviceAgreement Id
-     * @return a Flowable over the Event to handle it in an asynchronous fashion
+     * @param accessCondition the AccessSecretStoreCondition contract
+     * @return an AgreementEventMultiplexer over the Fulfilled events
      */
-    public static Flowable<AccessSecretStoreCondition.FulfilledEventResponse> listenForFulfilledEvent(AccessSecretStoreCondition accessCondition,
-                                                                                                      String serviceAgreementId) {
-
-        EthFilter grantedFilter = new EthFilter(
-                DefaultBlockParameterName.EARLIEST,
-                DefaultBlockParameterName.LATEST,
-                accessCondition.getContractAddress()
-        );
-
-        final Event event = AccessSecretStoreCondition.FULFILLED_EVENT;
-        final String eventSignature = EventEncoder.encode(event);
-        String slaTopic = "0x" + serviceAgreementId;
-
-        grantedFilter.addSingleTopic(eventSignature);
-        grantedFilter.addOptionalTopics(slaTopic);
-
-
-        return accessCondition.fulfilledEventFlowable(grantedFilter);
+    public static AgreementEventMultiplexer<AccessSecretStoreCondition.FulfilledEventResponse> fulfilledMultiplexer(AccessSecretStoreCondition accessCondition) {
+
+        return new AgreementEventMultiplexer<>(
+                accessCondition.getContractAddress(),
+                AccessSecretStoreCondition.FULFILLED_EVENT,
+                accessCondition::fulfilledEventFlowable,
+                event -> event._agreementId,
+                event -> event.log,
+                AgreementEventMultiplexer.DEFAULT_RETENTION);
     }
 
 
@@ -118,29 +101,51 @@ public class ServiceAgreementHandler {
     }
 
 
-    public static Boolean checkAgreementStatus(String agreementId, String consumerAddress, EscrowAccessSecretStoreTemplate escrowAccessSecretStoreTemplate, Integer retries, Integer waitInMill)
+    /**
+     * Checks if an agreement exists on-chain for a consumer. If it doesn't exist yet, it waits for its
+     * AgreementCreated event up to retries * waitInMill milliseconds. The event is listened through the multiplexer
+     * of the template, so no filter is created per agreement
+     *
+     * @param agreementId                     the agreement id
+     * @param consumerAddress                 the address of the consumer
+     * @param escrowAccessSecretStoreTemplate the service agreement contract
+     * @param multiplexer                     the multiplexer of the AgreementCreated events of the template
+     * @param fromBlock                       the latest block before checking the agreement
+     * @param retries                         number of periods of waitInMill milliseconds to wait
+     * @param waitInMill                      milliseconds of every period
+     * @return true if the agreement exists
+     * @throws Exception Exception
+     */
+    public static Boolean checkAgreementStatus(String agreementId, String consumerAddress, EscrowAccessSecretStoreTemplate escrowAccessSecretStoreTemplate,
+                                               AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> multiplexer,
+                                               BigInteger fromBlock, Integer retries, Integer waitInMill)
             throws Exception {
 
-        Tuple2<String, String> data;
-
-        for (int i = 0; i < retries + 1; i++) {
-
+        Callable<Boolean> check = () -> {
             log.debug("Searching SA " + agreementId + " on-chain");
+            return getAgreementData(agreementId, escrowAccessSecretStoreTemplate).getValue1().equalsIgnoreCase(consumerAddress);
+        };
 
-            data = getAgreementData(agreementId, escrowAccessSecretStoreTemplate);
-            if (data.getValue1().equalsIgnoreCase(consumerAddress))
-                return true;
+        // the events are listened from the latest block before checking the agreement, so the event can't be missed
+        Flowable<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> events = multiplexer
+                .listen(agreementId, fromBlock)
+                .filter(event -> event._accessConsumer.equalsIgnoreCase(consumerAddress));
 
-            log.debug("SA " + agreementId + " not found on-chain");
-
-            if (i < retries) {
-                log.debug("Sleeping for " + waitInMill);
-                Thread.sleep(waitInMill);
-            }
+        CompletableFuture<Boolean> confirmation = AgreementConfirmation.confirm(events, null, check, (long) retries * waitInMill);
 
+        if (check.call()) {
+            confirmation.complete(true);
+            return true;
         }
 
-        return false;
+        log.debug("SA " + agreementId + " not found on-chain, waiting for it");
+        try {
+            return confirmation.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            throw e;
+        }
     }
 
 
@@ -175,10 +180,8 @@ public class ServiceAgreementHandler {
                     conditionsTemplate = conditionsTemplate.replaceAll("\\{" + _name + "\\}", _func.toString());
             });
 
-            return AbstractModel
-                    .getMapperInstance()
-                    .readValue(conditionsTemplate, new TypeReference<List<Condition>>() {
-                    });
+            return AbstractModel.fromJSON(new TypeReference<List<Condition>>() {
+            }, conditionsTemplate);
         } catch (Exception e) {
             String msg = "Error initializing conditions for template";
             log.error(msg);
@@ -7,14 +7,26 @@ package com.oceanprotocol.squid.core.sla.functions;
 
 import com.oceanprotocol.keeper.contracts.EscrowReward;
 import com.oceanprotocol.squid.exceptions.EscrowRewardException;
+import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.external.web3.TransactionReceiptWatcher;
 import com.oceanprotocol.squid.helpers.EncodingHelper;
 import com.oceanprotocol.squid.models.asset.BasicAssetInfo;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.crypto.Keys;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class FulfillEscrowReward {
 
@@ -82,4 +94,83 @@ public class FulfillEscrowReward {
         }
 
     }
+
+    /**
+     * Sends the transaction of a fulfill function of a EscrowReward Condition without waiting for its receipt,
+     * so several fulfills can be sent one after another
+     *
+     * @param keeperService      the keeper service used to send the transaction and watch its receipt
+     * @param escrowReward       the EscrowReward contract
+     * @param serviceAgreementId the service agreement id
+     * @param lockRewardAddress  the address of the lockReward contract
+     * @param assetInfo          basic info of the asset
+     * @param consumerAddress    the Address of the consumer
+     * @param lockConditionId    the id of the lock condition
+     * @param releaseConditionId the id of the release condition
+     * @return a CompletableFuture that completes with true when the transaction is mined successfully, or exceptionally
+     * with an EscrowRewardException
+     */
+    public static CompletableFuture<Boolean> executeFulfillAsync(KeeperService keeperService,
+                                                                 EscrowReward escrowReward,
+                                                                 String serviceAgreementId,
+                                                                 String lockRewardAddress,
+                                                                 BasicAssetInfo assetInfo,
+                                                                 String consumerAddress,
+                                                                 String lockConditionId,
+                                                                 String releaseConditionId) {
+
+        TransactionReceiptWatcher receiptWatcher = keeperService.getReceiptWatcher();
+        if (receiptWatcher == null) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return executeFulfill(escrowReward, serviceAgreementId, lockRewardAddress, assetInfo,
+                            consumerAddress, lockConditionId, releaseConditionId);
+                } catch (EscrowRewardException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+
+        String msg = "Error executing EscrowReward.Fulfill for serviceAgreement " + serviceAgreementId;
+
+        try {
+
+            Function function = new Function(EscrowReward.FUNC_FULFILL,
+                    Arrays.asList(
+                            new Bytes32(EncodingHelper.hexStringToBytes(serviceAgreementId)),
+                            new Uint256(new BigInteger(assetInfo.getPrice())),
+                            new Address(Keys.toChecksumAddress(lockRewardAddress)),
+                            new Address(consumerAddress),
+                            new Bytes32(EncodingHelper.hexStringToBytes(lockConditionId)),
+                            new Bytes32(EncodingHelper.hexStringToBytes(releaseConditionId))),
+                    Collections.emptyList());
+
+            EthSendTransaction transaction = keeperService.getTxManager().sendTransaction(
+                    keeperService.getContractGasProvider().getGasPrice(function.getName()),
+                    keeperService.getContractGasProvider().getGasLimit(function.getName()),
+                    escrowReward.getContractAddress(),
+                    FunctionEncoder.encode(function),
+                    BigInteger.ZERO);
+
+            if (transaction.hasError())
+                throw new EscrowRewardException(msg + ": " + transaction.getError().getMessage());
+
+            return receiptWatcher.watch(transaction.getTransactionHash())
+                    .thenApply(receipt -> {
+                        if (!receipt.isStatusOK()) {
+                            String error = "The Status received is not valid executing EscrowReward.Fulfill: " + receipt.getStatus() + " for serviceAgreement " + serviceAgreementId;
+                            log.error(error);
+                            throw new CompletionException(new EscrowRewardException(error));
+                        }
+                        log.debug("EscrowReward.Fulfill transactionReceipt OK for serviceAgreement " + serviceAgreementId);
+                        return true;
+                    });
+
+        } catch (Exception e) {
+            log.error(msg + ": " + e.getMessage());
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            future.completeExceptionally(e instanceof EscrowRewardException ? e : new EscrowRewardException(msg, e));
+            return future;
+        }
+    }
 }
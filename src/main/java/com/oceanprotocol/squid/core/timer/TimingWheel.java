@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.timer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel that keeps any number of deadlines with a single timer.
+ * Every level of the wheel has a fixed number of slots; a slot of the first level covers a tick, and a slot
+ * of the next levels covers a whole turn of the level below. The deadlines are added to the lowest level that can
+ * hold them, and moved down as the time advances. All the deadlines expired in a tick are handled together
+ *
+ * @param <T> the type of the tasks scheduled
+ */
+public class TimingWheel<T> {
+
+    private static final Logger log = LogManager.getLogger(TimingWheel.class);
+
+    public static final long DEFAULT_TICK = 1000l;
+    public static final int DEFAULT_WHEEL_SIZE = 64;
+
+    private final long tick;
+    private final int wheelSize;
+    private final Consumer<List<T>> handler;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final List<List<List<Timeout<T>>>> levels = new ArrayList<>();
+    private final Map<String, Timeout<T>> timeouts = new ConcurrentHashMap<>();
+    private List<Timeout<T>> expired = new ArrayList<>();
+    private long currentTime;
+    private ScheduledFuture<?> tickTask;
+
+    /**
+     * Task waiting for its deadline
+     */
+    private static class Timeout<T> {
+
+        private final String key;
+        private final T task;
+        private final long deadline;
+
+        private Timeout(String key, T task, long deadline) {
+            this.key = key;
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param tick      time in milliseconds covered by a slot of the first level
+     * @param wheelSize number of slots of every level
+     * @param handler   function called with all the tasks expired in a tick
+     */
+    public TimingWheel(long tick, int wheelSize, Consumer<List<T>> handler) {
+        this(tick, wheelSize, handler, System::currentTimeMillis, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    TimingWheel(long tick, int wheelSize, Consumer<List<T>> handler, LongSupplier clock, ScheduledExecutorService scheduler) {
+        this.tick = tick;
+        this.wheelSize = wheelSize;
+        this.handler = handler;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.currentTime = clock.getAsLong() - clock.getAsLong() % tick;
+    }
+
+    /**
+     * Schedules a task. If there is already a task with the same key it's replaced
+     *
+     * @param key      the key of the task
+     * @param task     the task
+     * @param deadline time in milliseconds (epoch) when the task expires
+     */
+    public void schedule(String key, T task, long deadline) {
+
+        Timeout<T> timeout = new Timeout<>(key, task, deadline);
+        synchronized (this) {
+            if (timeouts.isEmpty()) {
+                // the wheel is idle, so it's moved to the current time instead of advancing tick by tick
+                levels.clear();
+                expired = new ArrayList<>();
+                currentTime = clock.getAsLong() - clock.getAsLong() % tick;
+            }
+            timeouts.put(key, timeout);
+            add(timeout);
+        }
+        start();
+    }
+
+    /**
+     * Cancels a task
+     *
+     * @param key the key of the task
+     * @return true if the task was scheduled and not expired yet
+     */
+    public boolean cancel(String key) {
+        return timeouts.remove(key) != null;
+    }
+
+    /**
+     * Gets the number of tasks scheduled
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return timeouts.size();
+    }
+
+    private void add(Timeout<T> timeout) {
+
+        long delay = timeout.deadline - currentTime;
+        if (delay <= 0) {
+            expired.add(timeout);
+            return;
+        }
+
+        // the first level expires the tasks at the end of their tick, the next ones move them down at the start of their slot
+        if (delay <= tick * wheelSize) {
+            long expiration = (timeout.deadline + tick - 1) / tick;
+            slot(0, expiration).add(timeout);
+            return;
+        }
+
+        int level = 1;
+        long levelTick = tick * wheelSize;
+        while (delay >= levelTick * wheelSize && levelTick <= Long.MAX_VALUE / wheelSize / wheelSize) {
+            level++;
+            levelTick *= wheelSize;
+        }
+        slot(level, timeout.deadline / levelTick).add(timeout);
+    }
+
+    private List<Timeout<T>> slot(int level, long ticks) {
+
+        while (levels.size() <= level) {
+            List<List<Timeout<T>>> slots = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++)
+                slots.add(new ArrayList<>());
+            levels.add(slots);
+        }
+        return levels.get(level).get((int) (ticks % wheelSize));
+    }
+
+    private List<Timeout<T>> drain(int level, long ticks) {
+
+        List<List<Timeout<T>>> slots = levels.get(level);
+        int index = (int) (ticks % wheelSize);
+        List<Timeout<T>> drained = slots.get(index);
+        slots.set(index, new ArrayList<>());
+        return drained;
+    }
+
+    /**
+     * Advances the wheel up to a time, and calls the handler with the tasks expired
+     *
+     * @param now the time in milliseconds (epoch)
+     */
+    void advance(long now) {
+
+        List<T> tasks = new ArrayList<>();
+
+        synchronized (this) {
+
+            while (currentTime + tick <= now) {
+                currentTime += tick;
+
+                // the slots reached of the upper levels are moved down, from the top
+                long levelTick = tick;
+                for (int level = 1; level < levels.size(); level++)
+                    levelTick *= wheelSize;
+                for (int level = levels.size() - 1; level > 0; level--) {
+                    if (currentTime % levelTick == 0) {
+                        for (Timeout<T> timeout : drain(level, currentTime / levelTick))
+                            add(timeout);
+                    }
+                    levelTick /= wheelSize;
+                }
+
+                if (!levels.isEmpty()) {
+                    for (Timeout<T> timeout : drain(0, currentTime / tick))
+                        add(timeout);
+                }
+            }
+
+            for (Timeout<T> timeout : expired) {
+                // the cancelled and replaced tasks are discarded
+                if (timeouts.remove(timeout.key, timeout))
+                    tasks.add(timeout.task);
+            }
+            expired = new ArrayList<>();
+        }
+
+        if (!tasks.isEmpty()) {
+            try {
+                handler.accept(tasks);
+            } catch (Exception e) {
+                log.error("Error handling " + tasks.size() + " expired tasks: " + e.getMessage());
+            }
+        }
+
+        stopIfIdle();
+    }
+
+    private synchronized void start() {
+        if (tickTask == null && scheduler != null)
+            tickTask = scheduler.scheduleAtFixedRate(() -> advance(clock.getAsLong()), tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopIfIdle() {
+        if (tickTask != null && timeouts.isEmpty()) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Stops the wheel. The tasks scheduled are discarded
+     */
+    public synchronized void stop() {
+        if (tickTask != null)
+            tickTask.cancel(false);
+        tickTask = null;
+        timeouts.clear();
+        levels.clear();
+        expired = new ArrayList<>();
+    }
+
+    public long getTick() {
+        return tick;
+    }
+}
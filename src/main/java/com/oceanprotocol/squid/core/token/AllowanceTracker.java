@@ -0,0 +1,267 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.token;
+
+import com.oceanprotocol.keeper.contracts.OceanToken;
+import com.oceanprotocol.squid.exceptions.TokenApproveException;
+import com.oceanprotocol.squid.external.KeeperService;
+import io.reactivex.disposables.Disposable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.abi.EventEncoder;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the allowance that an owner gave to a spender of Ocean Tokens, so an approve transaction is only sent
+ * when the allowance doesn't cover the amounts to spend.
+ * The allowance is read once and updated with the Approval events of the owner and spender that were not
+ * originated by the tracker itself. A Transfer from the owner that was not made by the spender forces to read it
+ * again. The amounts reserved by the orders in progress are discounted from it, and the amounts spent are
+ * discounted from the allowance as soon as they are spent
+ */
+public class AllowanceTracker {
+
+    private static final Logger log = LogManager.getLogger(AllowanceTracker.class);
+
+    private static final int MAX_KNOWN_VALUES = 64;
+
+    private final KeeperService keeperService;
+    private final OceanToken tokenContract;
+    private final String owner;
+    private final String spender;
+    private final Set<String> spenderRecipients = new HashSet<>();
+
+    // null when it must be read from the token contract
+    private BigInteger allowance;
+    private BigInteger reserved = BigInteger.ZERO;
+    // the approve transaction in progress, that the reservations not covered wait for
+    private CompletableFuture<Void> pendingApproval;
+    // amounts spent while the approve transaction is in progress
+    private BigInteger spentWhileApproving = BigInteger.ZERO;
+    // the allowances set by the tracker, whose Approval events are ignored when they are received
+    private final Deque<BigInteger> knownValues = new ArrayDeque<>();
+    private Disposable approvals;
+    private Disposable transfers;
+
+    /**
+     * Constructor
+     *
+     * @param keeperService the keeperService used to send the approve transactions
+     * @param tokenContract the OceanToken contract
+     * @param owner         the address of the owner of the tokens
+     * @param spender       the address of the spender
+     */
+    public AllowanceTracker(KeeperService keeperService, OceanToken tokenContract, String owner, String spender) {
+        this(keeperService, tokenContract, owner, spender, Collections.emptyList());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param keeperService     the keeperService used to send the approve transactions
+     * @param tokenContract     the OceanToken contract
+     * @param owner             the address of the owner of the tokens
+     * @param spender           the address of the spender
+     * @param spenderRecipients the addresses the spender transfers the tokens to, whose Transfers are already
+     *                          discounted with spend
+     */
+    public AllowanceTracker(KeeperService keeperService, OceanToken tokenContract, String owner, String spender,
+                            Collection<String> spenderRecipients) {
+        this.keeperService = keeperService;
+        this.tokenContract = tokenContract;
+        this.owner = owner;
+        this.spender = spender;
+        this.spenderRecipients.add(spender.toLowerCase());
+        for (String recipient : spenderRecipients)
+            this.spenderRecipients.add(recipient.toLowerCase());
+    }
+
+    /**
+     * Gets the allowance of the spender
+     *
+     * @return the allowance
+     * @throws Exception if the allowance can not be read
+     */
+    public synchronized BigInteger getAllowance() throws Exception {
+
+        BigInteger current = allowance;
+        if (current == null) {
+            watch();
+            current = tokenContract.allowance(owner, spender).send();
+            allowance = current;
+        }
+        return current;
+    }
+
+    /**
+     * Reserves an amount of the allowance, approving the spender before if the allowance not reserved doesn't cover it.
+     * The approve transaction is sent without holding the tracker, the reservations that are not covered meanwhile
+     * wait for it and check again the allowance
+     *
+     * @param amount the amount to reserve
+     * @param budget minimum amount to approve when an approve transaction is needed, so the next amounts are covered
+     * @return true if an approve transaction was sent
+     * @throws TokenApproveException if the allowance can not be read or the approve transaction fails
+     */
+    public boolean reserve(BigInteger amount, BigInteger budget) throws TokenApproveException {
+
+        CompletableFuture<Void> approval;
+        BigInteger value;
+
+        while (true) {
+            synchronized (this) {
+                if (pendingApproval == null) {
+                    BigInteger available;
+                    try {
+                        available = getAllowance().subtract(reserved);
+                    } catch (Exception e) {
+                        throw new TokenApproveException("Error reading the allowance of " + spender, e);
+                    }
+
+                    reserved = reserved.add(amount);
+                    if (available.compareTo(amount) >= 0)
+                        return false;
+
+                    value = reserved.subtract(amount).add(amount.max(budget));
+                    log.debug("Allowance of " + spender + " is " + available + ", approving " + value);
+                    pendingApproval = new CompletableFuture<>();
+                    spentWhileApproving = BigInteger.ZERO;
+                    approval = pendingApproval;
+                    break;
+                }
+                approval = pendingApproval;
+            }
+            approval.join();
+        }
+
+        boolean approved = false;
+        try {
+            keeperService.tokenApprove(tokenContract, spender, value.toString());
+            approved = true;
+        } finally {
+            synchronized (this) {
+                if (approved) {
+                    // the amounts spent meanwhile could have been transferred after the approve
+                    allowance = value.subtract(spentWhileApproving).max(BigInteger.ZERO);
+                    remember(value);
+                } else
+                    release(amount);
+                pendingApproval = null;
+            }
+            approval.complete(null);
+        }
+        return true;
+    }
+
+    /**
+     * Releases an amount reserved that is not going to be spent
+     *
+     * @param amount the amount reserved
+     */
+    public synchronized void release(BigInteger amount) {
+        reserved = reserved.subtract(amount).max(BigInteger.ZERO);
+    }
+
+    /**
+     * Releases an amount reserved that was spent by the spender, discounting it from the allowance without waiting
+     * for the events of the token
+     *
+     * @param amount the amount reserved and spent
+     */
+    public synchronized void spend(BigInteger amount) {
+        if (pendingApproval != null)
+            spentWhileApproving = spentWhileApproving.add(amount);
+        if (allowance != null) {
+            allowance = allowance.subtract(amount).max(BigInteger.ZERO);
+            remember(allowance);
+        }
+        release(amount);
+    }
+
+    /**
+     * Forces to read the allowance from the token contract the next time it's needed
+     */
+    public synchronized void invalidate() {
+        allowance = null;
+    }
+
+    private synchronized void onApproval(OceanToken.ApprovalEventResponse event) {
+        // the allowances set by the tracker were already applied, and their events can arrive after the next spend
+        if (knownValues.remove(event.value))
+            return;
+        allowance = event.value;
+    }
+
+    private synchronized void onTransfer(OceanToken.TransferEventResponse event) {
+        // the transfers of the spender are discounted with spend
+        if (event.to != null && spenderRecipients.contains(event.to.toLowerCase()))
+            return;
+        invalidate();
+    }
+
+    private void remember(BigInteger value) {
+        knownValues.addLast(value);
+        while (knownValues.size() > MAX_KNOWN_VALUES)
+            knownValues.removeFirst();
+    }
+
+    /**
+     * Stops listening the events of the token
+     */
+    public synchronized void stop() {
+        if (approvals != null)
+            approvals.dispose();
+        if (transfers != null)
+            transfers.dispose();
+        approvals = null;
+        transfers = null;
+    }
+
+    private void watch() {
+
+        if (approvals != null && !approvals.isDisposed() && transfers != null && !transfers.isDisposed())
+            return;
+        stop();
+
+        String ownerTopic = toTopic(owner);
+
+        EthFilter approvalFilter = new EthFilter(DefaultBlockParameterName.LATEST, DefaultBlockParameterName.LATEST, tokenContract.getContractAddress());
+        approvalFilter.addSingleTopic(EventEncoder.encode(OceanToken.APPROVAL_EVENT));
+        approvalFilter.addSingleTopic(ownerTopic);
+        approvalFilter.addSingleTopic(toTopic(spender));
+
+        EthFilter transferFilter = new EthFilter(DefaultBlockParameterName.LATEST, DefaultBlockParameterName.LATEST, tokenContract.getContractAddress());
+        transferFilter.addSingleTopic(EventEncoder.encode(OceanToken.TRANSFER_EVENT));
+        transferFilter.addSingleTopic(ownerTopic);
+
+        approvals = tokenContract.approvalEventFlowable(approvalFilter).subscribe(
+                this::onApproval,
+                error -> onError(error));
+        transfers = tokenContract.transferEventFlowable(transferFilter).subscribe(
+                this::onTransfer,
+                error -> onError(error));
+    }
+
+    private void onError(Throwable error) {
+        log.warn("Error listening the events of the token: " + error.getMessage());
+        // without events the allowance can't be trusted
+        invalidate();
+    }
+
+    private static String toTopic(String address) {
+        return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(address), 64);
+    }
+
+    public String getSpender() {
+        return spender;
+    }
+}
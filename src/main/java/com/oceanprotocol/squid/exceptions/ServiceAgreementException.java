@@ -26,4 +26,8 @@ public class ServiceAgreementException extends OceanException {
         this.serviceAgreementId = serviceAgreementId;
 
     }
+
+    public String getServiceAgreementId() {
+        return serviceAgreementId;
+    }
 }
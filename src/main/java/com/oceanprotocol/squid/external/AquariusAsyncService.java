@@ -0,0 +1,269 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external;
+
+import com.oceanprotocol.squid.exceptions.DDOException;
+import com.oceanprotocol.squid.helpers.HttpHelper;
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.aquarius.SearchQuery;
+import com.oceanprotocol.squid.models.aquarius.SearchResult;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking Service for Aquarius's Integration.
+ * All the requests are sent through a single JDK HttpClient, so the calling threads are not blocked
+ * while the requests are in flight
+ */
+public class AquariusAsyncService {
+
+    private static final Logger log = LogManager.getLogger(AquariusAsyncService.class);
+
+    private static final String DDO_URI = "/api/v1/aquarius/assets/ddo";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static volatile HttpClient httpClient;
+
+    private String ddoEndpoint;
+
+    /**
+     * Builds an instance of AquariusAsyncService
+     *
+     * @param url url of aquarius
+     * @return AquariusAsyncService instance
+     */
+    public static AquariusAsyncService getInstance(String url) {
+        log.debug("Getting Aquarius async instance: " + url);
+        return new AquariusAsyncService(url);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param url the url of aquarius
+     */
+    private AquariusAsyncService(String url) {
+        String url1 = url.replaceAll("/$", "");
+        this.ddoEndpoint = url1 + DDO_URI;
+    }
+
+    /**
+     * Gets the JDK HttpClient shared by all the instances of this service
+     *
+     * @return HttpClient
+     */
+    public static HttpClient getHttpClient() {
+        if (httpClient == null) {
+            synchronized (AquariusAsyncService.class) {
+                if (httpClient == null) {
+                    httpClient = HttpClient.newBuilder()
+                            .connectTimeout(Duration.ofMillis(HttpHelper.ConnectionPoolConfig.DEFAULT_CONNECTION_TIMEOUT))
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                }
+            }
+        }
+        return httpClient;
+    }
+
+    public String getDdoEndpoint() {
+        return ddoEndpoint;
+    }
+
+    /**
+     * Registers a new DDO in Aquarius
+     *
+     * @param ddo the ddo
+     * @return a CompletableFuture that completes with the created DDO
+     */
+    public CompletableFuture<DDO> createDDO(DDO ddo) {
+
+        log.debug("Creating DDO: " + ddo.id);
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(this.ddoEndpoint))
+                    .header("Content-Type", JSON_CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofString(DDO.cleanFileUrls(ddo).toJson()))
+                    .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new DDOException("Error building DDO from JSON", e));
+        }
+
+        return send(request)
+                .thenApply(response -> readResponse(DDO.class, 201, response, "Unable to create DDO"));
+    }
+
+    /**
+     * Gets a DDO from an URL
+     *
+     * @param url the url
+     * @return a CompletableFuture that completes with the DDO
+     */
+    public CompletableFuture<DDO> getDDO(String url) {
+
+        log.debug("Getting DDO: " + url);
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new DDOException("Unable to get DDO", e));
+        }
+
+        return send(request)
+                .thenApply(response -> readResponse(DDO.class, 200, response, "Unable to get DDO"));
+    }
+
+    /**
+     * Gets a DDO from the DID
+     *
+     * @param id the DID
+     * @return a CompletableFuture that completes with the DDO
+     */
+    public CompletableFuture<DDO> getDDOUsingId(String id) {
+        return getDDO(this.ddoEndpoint + "/" + id);
+    }
+
+    /**
+     * Updates the metadata of a DDO
+     *
+     * @param id  the did
+     * @param ddo the DDO
+     * @return a CompletableFuture that completes with a flag that indicates if the update operation was executed correctly
+     */
+    public CompletableFuture<Boolean> updateDDO(String id, DDO ddo) {
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(this.ddoEndpoint + "/" + id))
+                    .header("Content-Type", JSON_CONTENT_TYPE)
+                    .PUT(HttpRequest.BodyPublishers.ofString(ddo.toJson()))
+                    .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new DDOException("Unable to update DDO", e));
+        }
+
+        return send(request)
+                .thenApply(response -> {
+                    discard(response);
+                    if (response.statusCode() == 200 || response.statusCode() == 201)
+                        return true;
+                    throw new CompletionException(new DDOException("Unable to update DDO. Status code: " + response.statusCode()));
+                });
+    }
+
+    /**
+     * Search all the DDOs that match the text passed as a parameter
+     *
+     * @param param  the criteria
+     * @param offset parameter to paginate
+     * @param page   parameter to paginate
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> searchDDO(String param, int offset, int page) {
+
+        String url = this.ddoEndpoint + "/query?text=" + URLEncoder.encode(param, StandardCharsets.UTF_8)
+                + "&page=" + page + "&offset=" + offset;
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new DDOException("Unable to search for DDO's", e));
+        }
+
+        return send(request)
+                .thenApply(response -> readResponse(SearchResult.class, 200, response, "Unable to search for DDO's"));
+    }
+
+    /**
+     * Search all the DDOs that match the query passed as a parameter
+     *
+     * @param searchQuery the query
+     * @return a CompletableFuture that completes with all the DDOs found
+     */
+    public CompletableFuture<SearchResult> searchDDO(SearchQuery searchQuery) {
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(this.ddoEndpoint + "/query"))
+                    .header("Content-Type", JSON_CONTENT_TYPE)
+                    .POST(HttpRequest.BodyPublishers.ofString(searchQuery.toJson()))
+                    .build();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new DDOException("Unable to search for DDO's", e));
+        }
+
+        return send(request)
+                .thenApply(response -> readResponse(SearchResult.class, 200, response, "Unable to search for DDO's"));
+    }
+
+    /**
+     * Retire the asset ddo from Aquarius.
+     *
+     * @param id the did
+     * @return a CompletableFuture that completes with a flag that indicates if the retire operation was executed correctly
+     */
+    public CompletableFuture<Boolean> retireAssetDDO(String id) {
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(this.ddoEndpoint + "/" + id)).DELETE().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(new DDOException("Unable to retire DDO with DID: " + id, e));
+        }
+
+        return send(request)
+                .thenApply(response -> {
+                    discard(response);
+                    if (response.statusCode() == 200 || response.statusCode() == 201)
+                        return true;
+                    throw new CompletionException(new DDOException("Unable to retire DDO with DID: " + id));
+                });
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> send(HttpRequest request) {
+        return getHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .exceptionally(e -> {
+                    log.error("Error in HTTP request " + e.getMessage());
+                    throw new CompletionException(new DDOException("Error in HTTP request to " + request.uri(), e));
+                });
+    }
+
+    private static <T> T readResponse(Class<T> clazz, int expectedStatus, HttpResponse<InputStream> response, String errorMessage) {
+        try (InputStream body = response.body()) {
+            return AquariusService.readResponse(clazz, expectedStatus, response.statusCode(), body, errorMessage);
+        } catch (DDOException e) {
+            throw new CompletionException(e);
+        } catch (IOException e) {
+            throw new CompletionException(new DDOException(errorMessage, e));
+        }
+    }
+
+    private static void discard(HttpResponse<InputStream> response) {
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            log.debug("Error reading HTTP response " + e.getMessage());
+        }
+    }
+
+}
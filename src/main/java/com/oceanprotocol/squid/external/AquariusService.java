@@ -5,7 +5,6 @@
 
 package com.oceanprotocol.squid.external;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.oceanprotocol.squid.exceptions.DDOException;
 import com.oceanprotocol.squid.helpers.HttpHelper;
 import com.oceanprotocol.squid.models.AbstractModel;
@@ -15,10 +14,14 @@ import com.oceanprotocol.squid.models.aquarius.SearchQuery;
 import com.oceanprotocol.squid.models.aquarius.SearchResult;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
 import org.apache.commons.httpclient.HttpException;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.io.IOUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 /**
@@ -30,6 +33,7 @@ public class AquariusService {
 
     private static final String DDO_URI = "/api/v1/aquarius/assets/ddo";
     private String ddoEndpoint;
+    private AquariusAsyncService asyncService;
 
     /**
      * Builds an instance of AquariusService
@@ -50,12 +54,22 @@ public class AquariusService {
     private AquariusService(String url) {
         String url1 = url.replaceAll("/$", "");
         this.ddoEndpoint = url1 + DDO_URI;
+        this.asyncService = AquariusAsyncService.getInstance(url1);
     }
 
     public String getDdoEndpoint() {
         return ddoEndpoint;
     }
 
+    /**
+     * Gets the non-blocking variant of this service, pointing to the same Aquarius instance
+     *
+     * @return AquariusAsyncService instance
+     */
+    public AquariusAsyncService getAsyncService() {
+        return asyncService;
+    }
+
     /**
      * Registers a new DDO in Aquarius
      *
@@ -69,16 +83,12 @@ public class AquariusService {
 
         try {
 
-            HttpResponse response = HttpHelper.httpClientPost(
-                    this.ddoEndpoint, new ArrayList<>(), DDO.cleanFileUrls(ddo).toJson());
-
-            if (response.getStatusCode() != 201) {
-                throw new DDOException("Unable to create DDO: " + response.toString());
-            }
-
-            return DDO.fromJSON(new TypeReference<DDO>() {
-            }, response.getBody());
+            return HttpHelper.httpClientGenericMethod(
+                    new PostMethod(this.ddoEndpoint), new ArrayList<>(), DDO.cleanFileUrls(ddo).toJson(),
+                    (statusCode, body) -> readResponse(DDO.class, 201, statusCode, body, "Unable to create DDO"));
 
+        } catch (DDOException e) {
+            throw e;
         } catch (Exception e) {
             throw new DDOException("Error building DDO from JSON", e);
         }
@@ -95,23 +105,13 @@ public class AquariusService {
     public DDO getDDO(String url) throws DDOException {
 
         log.debug("Getting DDO: " + url);
-        HttpResponse response;
 
         try {
-            response = HttpHelper.httpClientGet(url);
+            return HttpHelper.httpClientGet(url,
+                    (statusCode, body) -> readResponse(DDO.class, 200, statusCode, body, "Unable to get DDO"));
         } catch (HttpException e) {
             throw new DDOException("Unable to get DDO", e);
         }
-
-        if (response.getStatusCode() != 200) {
-            throw new DDOException("Unable to get DDO: " + response.toString());
-        }
-        try {
-            return DDO.fromJSON(new TypeReference<DDO>() {
-            }, response.getBody());
-        } catch (Exception e) {
-            throw new DDOException("Error building DDO from JSON", e);
-        }
     }
 
     /**
@@ -157,27 +157,14 @@ public class AquariusService {
     public SearchResult searchDDO(String param, int offset, int page) throws DDOException {
 
         String url = this.ddoEndpoint + "/query?text=" + param + "&page=" + page + "&offset=" + offset;
-        HttpResponse response;
 
         try {
-            response = HttpHelper.httpClientGet(url);
+            return HttpHelper.httpClientGet(url,
+                    (statusCode, body) -> readResponse(SearchResult.class, 200, statusCode, body, "Unable to search for DDO's"));
         } catch (HttpException e) {
             throw new DDOException("Unable to get DDO: ", e);
         }
 
-        if (response.getStatusCode() != 200) {
-            throw new DDOException("Unable to search for DDO's: " + response.toString());
-        }
-
-        try {
-            return AbstractModel
-                    .getMapperInstance()
-                    .readValue(response.getBody(), new TypeReference<SearchResult>() {
-                    });
-        } catch (IOException e) {
-            throw new DDOException("Unable to search for DDO's: ", e);
-        }
-
     }
 
     /**
@@ -189,28 +176,16 @@ public class AquariusService {
      */
     public SearchResult searchDDO(SearchQuery searchQuery) throws DDOException {
 
-        HttpResponse response;
-
         try {
-            response = HttpHelper.httpClientPost(
-                    this.ddoEndpoint + "/query", new ArrayList<>(), searchQuery.toJson());
+            return HttpHelper.httpClientGenericMethod(
+                    new PostMethod(this.ddoEndpoint + "/query"), new ArrayList<>(), searchQuery.toJson(),
+                    (statusCode, body) -> readResponse(SearchResult.class, 200, statusCode, body, "Unable to search for DDO's"));
+        } catch (DDOException e) {
+            throw e;
         } catch (Exception e) {
             throw new DDOException("Unable to get DDO", e);
         }
 
-        if (response.getStatusCode() != 200) {
-            throw new DDOException("Unable to search for DDO's: " + response.toString());
-        }
-
-        try {
-            return AbstractModel
-                    .getMapperInstance()
-                    .readValue(response.getBody(), new TypeReference<SearchResult>() {
-                    });
-        } catch (IOException e) {
-            throw new DDOException("Unable to search for DDO's", e);
-        }
-
     }
 
     /**
@@ -251,4 +226,30 @@ public class AquariusService {
         }
         return response.getBody().contains("true");
     }
+
+    /**
+     * Decodes the body of an Aquarius response directly from the stream
+     *
+     * @param clazz          the class of the object to decode
+     * @param expectedStatus the expected HTTP status code
+     * @param statusCode     the HTTP status code received
+     * @param body           the stream with the body of the response
+     * @param errorMessage   the message of the exception thrown if the response is not valid
+     * @param <T>            the type of the object to decode
+     * @return the decoded object
+     * @throws DDOException if the status code is not the expected or the body can not be decoded
+     */
+    static <T> T readResponse(Class<T> clazz, int expectedStatus, int statusCode, InputStream body, String errorMessage) throws DDOException {
+
+        try {
+            if (statusCode != expectedStatus) {
+                throw new DDOException(errorMessage + ": " + new HttpResponse(statusCode, IOUtils.toString(body, StandardCharsets.UTF_8), null, 0).toString());
+            }
+
+            return AbstractModel.fromJSON(clazz, body);
+
+        } catch (IOException e) {
+            throw new DDOException(errorMessage, e);
+        }
+    }
 }
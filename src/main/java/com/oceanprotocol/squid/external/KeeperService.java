@@ -8,7 +8,15 @@ package com.oceanprotocol.squid.external;
 import com.oceanprotocol.keeper.contracts.OceanToken;
 import com.oceanprotocol.squid.exceptions.TokenApproveException;
 import com.oceanprotocol.squid.external.parity.JsonRpcSquidAdmin;
+import com.oceanprotocol.squid.external.parity.SquidTransactionReceiptProcessor;
+import com.oceanprotocol.squid.external.web3.BatchHttpService;
+import com.oceanprotocol.squid.external.web3.ChainHeadTracker;
+import com.oceanprotocol.squid.external.web3.JsonRpcBatch;
+import com.oceanprotocol.squid.external.web3.LogPoller;
+import com.oceanprotocol.squid.external.web3.MicroBatchingWeb3jService;
+import com.oceanprotocol.squid.external.web3.NonceManager;
 import com.oceanprotocol.squid.external.web3.PersonalTransactionManager;
+import com.oceanprotocol.squid.external.web3.TransactionReceiptWatcher;
 import com.oceanprotocol.squid.models.Account;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -19,8 +27,8 @@ import org.web3j.crypto.WalletUtils;
 import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.admin.Admin;
 import org.web3j.protocol.admin.methods.response.PersonalUnlockAccount;
+import org.web3j.protocol.core.JsonRpc2_0Web3j;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.protocol.http.HttpService;
 import org.web3j.tx.TransactionManager;
 import org.web3j.tx.gas.ContractGasProvider;
 import org.web3j.tx.gas.StaticGasProvider;
@@ -39,6 +47,9 @@ public class KeeperService {
     private String credentialsFile;
 
     private TransactionManager txManager;
+    private TransactionReceiptWatcher receiptWatcher;
+    private ChainHeadTracker chainHeadTracker;
+    private JsonRpcBatch jsonRpcBatch;
     private ContractGasProvider gasProvider;
 
     private BigInteger gasPrice;
@@ -65,18 +76,60 @@ public class KeeperService {
     public static KeeperService getInstance(String url, String address, String password, String credentialsFile, int txAttempts, long txSleepDuration)
             throws IOException, CipherException {
 
-        return new KeeperService(url, address, password, credentialsFile, txAttempts, txSleepDuration);
+        return new KeeperService(url, address, password, credentialsFile, txAttempts, txSleepDuration, 0l);
     }
 
+    /**
+     * Initializes the KeeperService object given a Keeper url, user and password, grouping the read requests
+     * sent in a short window in JSON-RPC batches
+     *
+     * @param url             Parity Keeper url (ie. http://localhost:8545)
+     * @param address         User ethereum address
+     * @param password        User password
+     * @param credentialsFile Path to the file with the local credentials
+     * @param txAttempts      attempts to get the transaction receipt
+     * @param txSleepDuration time in milliseconds between each attempt
+     * @param batchWindow     time in milliseconds to wait for more read requests before sending a batch. 0 disables the micro-batching
+     * @return KeeperService
+     * @throws IOException     IOException
+     * @throws CipherException CipherException
+     */
+    public static KeeperService getInstance(String url, String address, String password, String credentialsFile, int txAttempts, long txSleepDuration, long batchWindow)
+            throws IOException, CipherException {
+
+        return new KeeperService(url, address, password, credentialsFile, txAttempts, txSleepDuration, batchWindow);
+    }
+
+    /**
+     * Initializes the KeeperService object over a Web3jService, watching the receipts with the default attempts
+     * and sleep duration of web3j
+     *
+     * @param web3jService the Web3jService used to send the requests
+     * @return KeeperService
+     */
     public static KeeperService getInstance(Web3jService web3jService) {
-        return new KeeperService(web3jService);
+        return getInstance(web3jService, TransactionManager.DEFAULT_POLLING_ATTEMPTS_PER_TX_HASH, TransactionManager.DEFAULT_POLLING_FREQUENCY);
     }
 
-    private KeeperService(Web3jService web3jService) {
+    /**
+     * Initializes the KeeperService object over a Web3jService
+     *
+     * @param web3jService    the Web3jService used to send the requests
+     * @param txAttempts      attempts to get the transaction receipt
+     * @param txSleepDuration time in milliseconds between each attempt
+     * @return KeeperService
+     */
+    public static KeeperService getInstance(Web3jService web3jService, int txAttempts, long txSleepDuration) {
+        return new KeeperService(web3jService, txAttempts, txSleepDuration);
+    }
+
+    private KeeperService(Web3jService web3jService, int txAttempts, long txSleepDuration) {
         this.web3 = Admin.build(web3jService);
+        this.jsonRpcBatch = new JsonRpcBatch(web3jService);
+        initWatchers(web3jService, txAttempts, txSleepDuration);
     }
 
-    private KeeperService(String url, String address, String password, String credentialsFile, int txAttempts, long txSleepDuration) throws IOException, CipherException {
+    private KeeperService(String url, String address, String password, String credentialsFile, int txAttempts, long txSleepDuration, long batchWindow) throws IOException, CipherException {
 
         log.debug("Initializing KeeperService: " + url);
         this.address = address;
@@ -86,7 +139,13 @@ public class KeeperService {
         this.gasLimit = DEFAULT_GAS_LIMIT;
         String keeperUrl = url;
 
-        this.web3 = new JsonRpcSquidAdmin(new HttpService(keeperUrl));
+        BatchHttpService web3jService = new BatchHttpService(keeperUrl);
+        if (batchWindow > 0)
+            this.web3 = new JsonRpcSquidAdmin(new MicroBatchingWeb3jService(web3jService, batchWindow));
+        else
+            this.web3 = new JsonRpcSquidAdmin(web3jService);
+        this.jsonRpcBatch = new JsonRpcBatch(web3jService);
+        initWatchers(web3jService, txAttempts, txSleepDuration);
 
         // TODO: Web3j only supports a ChainId in byte formUrl, so any ChainId of a
         // private network is not supported. By the time being we can't specify that
@@ -96,11 +155,18 @@ public class KeeperService {
 
 
         //this.txManager= new RawTransactionManager(this.web3, getCredentials());
-        this.txManager = new PersonalTransactionManager(this.web3, getCredentials(), password, txAttempts, txSleepDuration);
+        this.txManager = new PersonalTransactionManager(this.web3, getCredentials(), password,
+                new SquidTransactionReceiptProcessor(this.web3, receiptWatcher), new NonceManager(this.web3), chainHeadTracker);
         this.gasProvider = new StaticGasProvider(this.gasPrice, this.gasLimit);
 
     }
 
+    private void initWatchers(Web3jService web3jService, int txAttempts, long txSleepDuration) {
+        this.chainHeadTracker = new ChainHeadTracker(this.web3, ChainHeadTracker.DEFAULT_REFRESH_INTERVAL);
+        this.receiptWatcher = new TransactionReceiptWatcher(this.web3, web3jService, txSleepDuration, txSleepDuration * txAttempts)
+                .setChainHeadTracker(chainHeadTracker);
+    }
+
     /**
      * Get the Web3j instance
      *
@@ -129,6 +195,70 @@ public class KeeperService {
         return txManager;
     }
 
+    /**
+     * Get the watcher of the receipts of the transactions sent
+     *
+     * @return TransactionReceiptWatcher
+     */
+    public TransactionReceiptWatcher getReceiptWatcher() {
+        return receiptWatcher;
+    }
+
+    /**
+     * Get the JsonRpcBatch used to send several requests to the keeper at once
+     *
+     * @return JsonRpcBatch
+     */
+    public JsonRpcBatch getJsonRpcBatch() {
+        return jsonRpcBatch;
+    }
+
+    /**
+     * Get the tracker of the latest block of the chain
+     *
+     * @return ChainHeadTracker
+     */
+    public ChainHeadTracker getChainHeadTracker() {
+        return chainHeadTracker;
+    }
+
+    /**
+     * It sets if the gas of the transactions is estimated with eth_estimateGas instead of using the block gas limit
+     *
+     * @param estimateGas true to estimate the gas
+     * @return this
+     */
+    public KeeperService setEstimateGas(boolean estimateGas) {
+        if (txManager instanceof PersonalTransactionManager)
+            ((PersonalTransactionManager) txManager).setEstimateGas(estimateGas);
+        return this;
+    }
+
+    /**
+     * It sets how the logs of the events listened are polled
+     *
+     * @param pollingInterval time in milliseconds between each poll, or maximum time between polls in adaptive mode
+     * @param adaptive        true to poll just after a new block is expected, backing off while no blocks are seen
+     * @return this
+     */
+    public KeeperService setEventPolling(long pollingInterval, boolean adaptive) {
+        if (web3 instanceof JsonRpcSquidAdmin)
+            ((JsonRpcSquidAdmin) web3).setLogPoller(new LogPoller(web3, pollingInterval, adaptive));
+        return this;
+    }
+
+    /**
+     * Get the time between blocks, estimated while the events are polled
+     *
+     * @return the time in milliseconds
+     */
+    public long getBlockTime() {
+        if (web3 instanceof JsonRpcSquidAdmin && ((JsonRpcSquidAdmin) web3).getLogPoller() != null
+                && ((JsonRpcSquidAdmin) web3).getLogPoller().getBlockTime() > 0)
+            return ((JsonRpcSquidAdmin) web3).getLogPoller().getBlockTime();
+        return JsonRpc2_0Web3j.DEFAULT_BLOCK_TIME;
+    }
+
     public ContractGasProvider getContractGasProvider() {
         return gasProvider;
     }
@@ -1,18 +1,46 @@
 package com.oceanprotocol.squid.external.parity;
 
 import com.oceanprotocol.squid.external.parity.methods.response.ParitySquidPersonalSign;
+import com.oceanprotocol.squid.external.web3.LogPoller;
+import io.reactivex.Flowable;
 import org.web3j.protocol.Web3jService;
 import org.web3j.protocol.admin.JsonRpc2_0Admin;
 import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.Log;
 
 import java.util.Arrays;
 
 public class JsonRpcSquidAdmin extends JsonRpc2_0Admin {
 
+    private LogPoller logPoller;
+
     public JsonRpcSquidAdmin(Web3jService web3jService) {
         super(web3jService);
     }
 
+    /**
+     * It sets the poller used to listen the logs of the filters, instead of the web3j filters
+     *
+     * @param logPoller the poller, or null to use the web3j filters
+     * @return this instance of JsonRpcSquidAdmin
+     */
+    public JsonRpcSquidAdmin setLogPoller(LogPoller logPoller) {
+        this.logPoller = logPoller;
+        return this;
+    }
+
+    public LogPoller getLogPoller() {
+        return logPoller;
+    }
+
+    @Override
+    public Flowable<Log> ethLogFlowable(EthFilter ethFilter) {
+        if (logPoller != null)
+            return logPoller.flowable(ethFilter);
+        return super.ethLogFlowable(ethFilter);
+    }
+
     /**
      * Invoke the personal sign method
      *
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HttpService able to send several JSON-RPC requests in a single HTTP request (JSON-RPC batch)
+ */
+public class BatchHttpService extends HttpService {
+
+    public BatchHttpService(String url) {
+        super(url);
+    }
+
+    /**
+     * Sends a list of requests in a single JSON-RPC batch
+     *
+     * @param requests     the requests
+     * @param responseType the class of the responses
+     * @param <T>          the type of the responses
+     * @return the responses, in the same order than the requests. The response of a request is null if the
+     * node didn't return it
+     * @throws IOException if the batch can not be sent or the node doesn't support batches
+     */
+    public <T extends Response> List<T> sendBatch(List<? extends Request<?, T>> requests, Class<T> responseType) throws IOException {
+
+        List<Class<? extends Response>> responseTypes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            responseTypes.add(responseType);
+        }
+
+        List<T> responses = new ArrayList<>();
+        for (Response response : sendBatch(requests, responseTypes)) {
+            responses.add(responseType.cast(response));
+        }
+        return responses;
+    }
+
+    /**
+     * Sends a list of requests of different types in a single JSON-RPC batch
+     *
+     * @param requests      the requests
+     * @param responseTypes the class of the response of every request
+     * @return the responses, in the same order than the requests. The response of a request is null if the
+     * node didn't return it
+     * @throws IOException if the batch can not be sent or the node doesn't support batches
+     */
+    public List<Response> sendBatch(List<? extends Request<?, ?>> requests, List<Class<? extends Response>> responseTypes) throws IOException {
+
+        List<Response> responses = new ArrayList<>();
+        if (requests.isEmpty())
+            return responses;
+
+        Map<Long, Class<? extends Response>> typesById = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            typesById.put(requests.get(i).getId(), responseTypes.get(i));
+        }
+
+        String payload = objectMapper.writeValueAsString(requests);
+
+        Map<Long, Response> responsesById = new HashMap<>();
+        try (InputStream result = performIO(payload)) {
+
+            JsonNode root = result != null ? objectMapper.readTree(result) : null;
+            if (root == null || !root.isArray())
+                throw new IOException("JSON-RPC batch not supported by the node");
+
+            for (JsonNode node : root) {
+                Class<? extends Response> responseType = node.hasNonNull("id") ? typesById.get(node.get("id").asLong()) : null;
+                if (responseType == null)
+                    continue;
+                Response response = objectMapper.treeToValue(node, responseType);
+                responsesById.put(response.getId(), response);
+            }
+        }
+
+        for (Request<?, ?> request : requests) {
+            responses.add(responsesById.get(request.getId()));
+        }
+        return responses;
+    }
+}
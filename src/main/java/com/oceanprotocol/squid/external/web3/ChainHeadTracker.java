@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the header of the latest block of the chain, so the components that need data of the chain head
+ * (the block gas limit, the latest block number) don't request the latest block every time.
+ * The header is refreshed when it's older than the refresh interval, or when a newer block is notified
+ */
+public class ChainHeadTracker {
+
+    private static final Logger log = LogManager.getLogger(ChainHeadTracker.class);
+
+    public static final long DEFAULT_REFRESH_INTERVAL = 1000l;
+
+    private final Web3j web3j;
+    private final long refreshInterval;
+    private final LongSupplier clock;
+
+    private EthBlock.Block latestBlock;
+    private long refreshedAt;
+
+    /**
+     * Constructor
+     *
+     * @param web3j           the web3j client
+     * @param refreshInterval maximum age in milliseconds of the header cached
+     */
+    public ChainHeadTracker(Web3j web3j, long refreshInterval) {
+        this(web3j, refreshInterval, System::currentTimeMillis);
+    }
+
+    ChainHeadTracker(Web3j web3j, long refreshInterval, LongSupplier clock) {
+        this.web3j = web3j;
+        this.refreshInterval = refreshInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the header of the latest block. The transactions of the block are not included
+     *
+     * @return the latest block
+     * @throws IOException if the block can not be retrieved
+     */
+    public synchronized EthBlock.Block getLatestBlock() throws IOException {
+
+        if (latestBlock == null || clock.getAsLong() - refreshedAt >= refreshInterval)
+            refresh();
+
+        return latestBlock;
+    }
+
+    /**
+     * Gets the gas limit of the latest block
+     *
+     * @return the gas limit
+     * @throws IOException if the block can not be retrieved
+     */
+    public BigInteger getBlockGasLimit() throws IOException {
+        return getLatestBlock().getGasLimit();
+    }
+
+    /**
+     * Gets the number of the latest block
+     *
+     * @return the block number
+     * @throws IOException if the block can not be retrieved
+     */
+    public BigInteger getBlockNumber() throws IOException {
+        return getLatestBlock().getNumber();
+    }
+
+    /**
+     * Notifies that a new block was seen, so the header cached is refreshed in the next request if it's older
+     *
+     * @param blockNumber the number of the block
+     */
+    public synchronized void onNewBlock(BigInteger blockNumber) {
+        if (latestBlock != null && latestBlock.getNumber().compareTo(blockNumber) < 0)
+            latestBlock = null;
+    }
+
+    private void refresh() throws IOException {
+
+        EthBlock ethBlock = web3j.ethGetBlockByNumber(DefaultBlockParameterName.LATEST, false).send();
+        if (ethBlock.hasError() || ethBlock.getBlock() == null)
+            throw new IOException("Error getting the latest block: " + (ethBlock.hasError() ? ethBlock.getError().getMessage() : "not found"));
+
+        latestBlock = ethBlock.getBlock();
+        refreshedAt = clock.getAsLong();
+        log.debug("Latest block: " + latestBlock.getNumber());
+    }
+
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends lists of JSON-RPC requests to a node. The requests are sent in a single batch when the service is a
+ * BatchHttpService and the node supports batches, otherwise they are sent one by one
+ */
+public class JsonRpcBatch {
+
+    private static final Logger log = LogManager.getLogger(JsonRpcBatch.class);
+
+    private final Web3jService web3jService;
+    private volatile boolean batchSupported;
+
+    /**
+     * Constructor
+     *
+     * @param web3jService the service used to send the requests
+     */
+    public JsonRpcBatch(Web3jService web3jService) {
+        // explicit batches don't need to wait for the micro-batching window
+        if (web3jService instanceof MicroBatchingWeb3jService)
+            web3jService = ((MicroBatchingWeb3jService) web3jService).getWeb3jService();
+        this.web3jService = web3jService;
+        this.batchSupported = web3jService instanceof BatchHttpService;
+    }
+
+    /**
+     * Sends a list of requests
+     *
+     * @param requests     the requests
+     * @param responseType the class of the responses
+     * @param <T>          the type of the responses
+     * @return the responses, in the same order than the requests
+     * @throws IOException if the requests can not be sent
+     */
+    public <T extends Response> List<T> send(List<? extends Request<?, T>> requests, Class<T> responseType) throws IOException {
+
+        boolean batchFailed = false;
+        if (batchSupported && requests.size() > 1) {
+            try {
+                return ((BatchHttpService) web3jService).sendBatch(requests, responseType);
+            } catch (IOException e) {
+                log.warn("Unable to send JSON-RPC batch, sending the requests one by one: " + e.getMessage());
+                batchFailed = true;
+            }
+        }
+
+        List<T> responses = new ArrayList<>();
+        for (Request<?, T> request : requests) {
+            responses.add(request.send());
+        }
+
+        // the node answers single requests but not batches
+        if (batchFailed)
+            batchSupported = false;
+
+        return responses;
+    }
+
+    public boolean isBatchSupported() {
+        return batchSupported;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Polls the logs of a filter with eth_getLogs.
+ * With a fixed interval the logs are requested every polling interval. In adaptive mode the time between blocks is
+ * estimated and the logs are requested just after the next block is expected, backing off up to the polling
+ * interval while no new blocks are seen.
+ * The latest block is read once per poll cycle and shared by all the filters polled in it. The errors of the node
+ * don't end the Flowables, the filters are polled again backing off while the errors continue
+ */
+public class LogPoller {
+
+    private static final Logger log = LogManager.getLogger(LogPoller.class);
+
+    public static final long MIN_INTERVAL = 100l;
+    public static final long MAX_ERROR_DELAY = 60000l;
+
+    // weight of the last time between blocks observed in the estimation
+    private static final double BLOCK_TIME_WEIGHT = 0.3;
+
+    private final Web3j web3j;
+    private final long pollingInterval;
+    private final boolean adaptive;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private BigInteger lastBlock;
+    private long lastBlockSeenAt;
+    private double blockTime;
+
+    // latest block read in the current poll cycle
+    private BigInteger head;
+    private long headReadAt;
+
+    /**
+     * State of the polling of a filter
+     */
+    private static class Polling {
+
+        private final EthFilter filter;
+        private final FlowableEmitter<Log> emitter;
+        private BigInteger nextBlock;
+        private int idlePolls;
+        private int errors;
+        private ScheduledFuture<?> task;
+
+        private Polling(EthFilter filter, FlowableEmitter<Log> emitter) {
+            this.filter = filter;
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3j           the web3j client
+     * @param pollingInterval time in milliseconds between each poll, or maximum time between polls in adaptive mode
+     * @param adaptive        true to poll when a new block is expected
+     */
+    public LogPoller(Web3j web3j, long pollingInterval, boolean adaptive) {
+        this(web3j, pollingInterval, adaptive, System::currentTimeMillis);
+    }
+
+    LogPoller(Web3j web3j, long pollingInterval, boolean adaptive, LongSupplier clock) {
+        this.web3j = web3j;
+        this.pollingInterval = pollingInterval;
+        this.adaptive = adaptive;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a Flowable over the logs of a filter. The logs are polled while the Flowable has subscribers
+     *
+     * @param filter the filter
+     * @return a Flowable over the logs
+     */
+    public Flowable<Log> flowable(EthFilter filter) {
+
+        return Flowable.create(emitter -> {
+            Polling polling = new Polling(filter, emitter);
+            emitter.setCancellable(() -> {
+                synchronized (polling) {
+                    if (polling.task != null)
+                        polling.task.cancel(false);
+                }
+            });
+            schedule(polling, 0);
+        }, BackpressureStrategy.BUFFER);
+    }
+
+    private void schedule(Polling polling, long delay) {
+
+        synchronized (polling) {
+            if (!polling.emitter.isCancelled())
+                polling.task = scheduler.schedule(() -> poll(polling), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void poll(Polling polling) {
+
+        if (polling.emitter.isCancelled())
+            return;
+
+        try {
+
+            BigInteger latest = getHead();
+
+            if (polling.nextBlock == null)
+                polling.nextBlock = toBlockNumber(polling.filter.getFromBlock(), latest);
+
+            BigInteger toBlock = toBlockNumber(polling.filter.getToBlock(), latest).min(latest);
+            if (polling.nextBlock.compareTo(toBlock) <= 0) {
+                emitLogs(polling, toBlock);
+                polling.nextBlock = toBlock.add(BigInteger.ONE);
+                polling.idlePolls = 0;
+            } else
+                polling.idlePolls++;
+            polling.errors = 0;
+
+            // the filter has a fixed last block, already polled
+            if (polling.filter.getToBlock() instanceof DefaultBlockParameterNumber
+                    && polling.nextBlock.compareTo(((DefaultBlockParameterNumber) polling.filter.getToBlock()).getBlockNumber()) > 0) {
+                polling.emitter.onComplete();
+                return;
+            }
+
+        } catch (IOException e) {
+            polling.errors++;
+            long delay = errorDelay(polling.errors);
+            log.warn("Error polling logs, polling again in " + delay + " ms: " + e.getMessage());
+            schedule(polling, delay);
+            return;
+        } catch (Exception e) {
+            log.warn("Error polling logs: " + e.getMessage());
+            polling.emitter.onError(e);
+            return;
+        }
+
+        schedule(polling, nextDelay(polling.idlePolls));
+    }
+
+    /**
+     * Gets the latest block, reading it only once for all the filters polled in the same cycle
+     *
+     * @return the latest block
+     * @throws IOException if the latest block can not be read
+     */
+    private BigInteger getHead() throws IOException {
+
+        synchronized (this) {
+            if (head != null && clock.getAsLong() - headReadAt < MIN_INTERVAL)
+                return head;
+        }
+
+        EthBlockNumber blockNumber = web3j.ethBlockNumber().send();
+        if (blockNumber.hasError())
+            throw new IOException("Error getting the latest block: " + blockNumber.getError().getMessage());
+
+        BigInteger latest = blockNumber.getBlockNumber();
+        onBlock(latest);
+        synchronized (this) {
+            head = latest;
+            headReadAt = clock.getAsLong();
+        }
+        return latest;
+    }
+
+    private void emitLogs(Polling polling, BigInteger toBlock) throws IOException {
+
+        EthFilter filter = new EthFilter(
+                DefaultBlockParameter.valueOf(polling.nextBlock),
+                DefaultBlockParameter.valueOf(toBlock),
+                polling.filter.getAddress());
+        filter.getTopics().addAll(polling.filter.getTopics());
+
+        EthLog ethLog = web3j.ethGetLogs(filter).send();
+        if (ethLog.hasError())
+            throw new IOException("Error getting logs: " + ethLog.getError().getMessage());
+
+        for (EthLog.LogResult logResult : ethLog.getLogs()) {
+            if (logResult instanceof EthLog.LogObject)
+                polling.emitter.onNext(((EthLog.LogObject) logResult).get());
+        }
+    }
+
+    private static BigInteger toBlockNumber(DefaultBlockParameter parameter, BigInteger latest) {
+
+        if (parameter instanceof DefaultBlockParameterNumber)
+            return ((DefaultBlockParameterNumber) parameter).getBlockNumber();
+        if (parameter == DefaultBlockParameterName.EARLIEST)
+            return BigInteger.ZERO;
+        return latest;
+    }
+
+    synchronized void onBlock(BigInteger block) {
+
+        long now = clock.getAsLong();
+        if (lastBlock != null && block.compareTo(lastBlock) > 0) {
+            double observed = (double) (now - lastBlockSeenAt) / block.subtract(lastBlock).longValue();
+            blockTime = blockTime == 0 ? observed : (1 - BLOCK_TIME_WEIGHT) * blockTime + BLOCK_TIME_WEIGHT * observed;
+        }
+
+        if (lastBlock == null || block.compareTo(lastBlock) > 0) {
+            lastBlock = block;
+            lastBlockSeenAt = now;
+        }
+    }
+
+    /**
+     * Gets the time to wait until the next poll
+     *
+     * @param idlePolls consecutive polls without new blocks
+     * @return the time in milliseconds
+     */
+    synchronized long nextDelay(int idlePolls) {
+
+        if (!adaptive)
+            return pollingInterval;
+
+        long delay;
+        long margin = Math.max(MIN_INTERVAL, (long) (blockTime / 10));
+        if (blockTime == 0 || idlePolls > 0)
+            // the block is late, or the block time is not known yet
+            delay = margin << Math.min(idlePolls, 20);
+        else
+            delay = (long) blockTime - (clock.getAsLong() - lastBlockSeenAt) + margin;
+
+        return Math.max(MIN_INTERVAL, Math.min(pollingInterval, delay));
+    }
+
+    /**
+     * Gets the time to wait until the next poll after consecutive errors
+     *
+     * @param errors consecutive errors
+     * @return the time in milliseconds
+     */
+    long errorDelay(int errors) {
+        long delay = Math.max(MIN_INTERVAL, pollingInterval) << Math.min(Math.max(errors - 1, 0), 10);
+        return Math.min(MAX_ERROR_DELAY, delay);
+    }
+
+    /**
+     * Gets the estimated time between blocks
+     *
+     * @return the time in milliseconds, or 0 if it's not known yet
+     */
+    public synchronized long getBlockTime() {
+        return (long) blockTime;
+    }
+
+    public long getPollingInterval() {
+        return pollingInterval;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+}
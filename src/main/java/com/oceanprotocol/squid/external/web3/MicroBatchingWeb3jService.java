@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import io.reactivex.Flowable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.websocket.events.Notification;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Web3jService that collects the read requests sent from any thread during a short window and sends them to the
+ * node in a single JSON-RPC batch, routing every response back to its caller.
+ * A single thread decides when the batches are sent, and the batches are sent from a pool of threads, so a slow
+ * batch doesn't delay the next ones.
+ * The rest of the requests (transactions, log queries, subscriptions...) are sent directly to the underlying service
+ */
+public class MicroBatchingWeb3jService implements Web3jService {
+
+    private static final Logger log = LogManager.getLogger(MicroBatchingWeb3jService.class);
+
+    public static final long DEFAULT_WINDOW = 2l;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private static final Set<String> BATCHABLE_METHODS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "eth_call",
+            "eth_getTransactionReceipt",
+            "eth_getBalance"
+    )));
+
+    private final BatchHttpService web3jService;
+    private final long window;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService sender;
+
+    private List<PendingRequest> queue = new ArrayList<>();
+    private ScheduledFuture<?> flushTask;
+    private volatile boolean batchSupported = true;
+
+    /**
+     * Request waiting to be sent in the next batch
+     */
+    private static class PendingRequest {
+
+        private final Request<?, ?> request;
+        private final Class<? extends Response> responseType;
+        private final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        private PendingRequest(Request<?, ?> request, Class<? extends Response> responseType) {
+            this.request = request;
+            this.responseType = responseType;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3jService the service used to send the batches
+     * @param window       time in milliseconds to wait for more requests before sending a batch
+     * @param maxBatchSize maximum number of requests in a batch. A batch is sent as soon as it's full
+     */
+    public MicroBatchingWeb3jService(BatchHttpService web3jService, long window, int maxBatchSize) {
+        this.web3jService = web3jService;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "json-rpc-micro-batching");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "json-rpc-batch-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3jService the service used to send the batches
+     * @param window       time in milliseconds to wait for more requests before sending a batch
+     */
+    public MicroBatchingWeb3jService(BatchHttpService web3jService, long window) {
+        this(web3jService, window, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    @Override
+    public <T extends Response> T send(Request request, Class<T> responseType) throws IOException {
+
+        if (!isBatchable(request))
+            return web3jService.send(request, responseType);
+
+        try {
+            return enqueue(request, responseType).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for the response of " + request.getMethod(), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public <T extends Response> CompletableFuture<T> sendAsync(Request request, Class<T> responseType) {
+
+        if (!isBatchable(request))
+            return web3jService.sendAsync(request, responseType);
+
+        return enqueue(request, responseType);
+    }
+
+    @Override
+    public <T extends Notification<?>> Flowable<T> subscribe(Request request, String unsubscribeMethod, Class<T> responseType) {
+        return web3jService.subscribe(request, unsubscribeMethod, responseType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        scheduler.shutdown();
+        sender.shutdown();
+        web3jService.close();
+    }
+
+    private boolean isBatchable(Request<?, ?> request) {
+        return batchSupported && BATCHABLE_METHODS.contains(request.getMethod());
+    }
+
+    private <T extends Response> CompletableFuture<T> enqueue(Request<?, ?> request, Class<T> responseType) {
+
+        PendingRequest pendingRequest = new PendingRequest(request, responseType);
+
+        synchronized (this) {
+            queue.add(pendingRequest);
+            if (queue.size() >= maxBatchSize) {
+                if (flushTask != null)
+                    flushTask.cancel(false);
+                flushTask = scheduler.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+            } else if (flushTask == null)
+                flushTask = scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+        }
+
+        return pendingRequest.future.thenApply(responseType::cast);
+    }
+
+    private List<PendingRequest> drain() {
+
+        synchronized (this) {
+            List<PendingRequest> requests = queue;
+            queue = new ArrayList<>();
+            flushTask = null;
+            return requests;
+        }
+    }
+
+    private void flush() {
+
+        List<PendingRequest> requests = drain();
+        if (requests.isEmpty())
+            return;
+
+        try {
+            sender.execute(() -> sendRequests(requests));
+        } catch (RejectedExecutionException e) {
+            for (PendingRequest pendingRequest : requests)
+                pendingRequest.future.completeExceptionally(new IOException("The service is closed", e));
+        }
+    }
+
+    private void sendRequests(List<PendingRequest> requests) {
+
+        boolean batchFailed = false;
+        if (requests.size() > 1 && batchSupported) {
+
+            List<Request<?, ?>> batch = new ArrayList<>();
+            List<Class<? extends Response>> responseTypes = new ArrayList<>();
+            for (PendingRequest pendingRequest : requests) {
+                batch.add(pendingRequest.request);
+                responseTypes.add(pendingRequest.responseType);
+            }
+
+            try {
+                List<Response> responses = web3jService.sendBatch(batch, responseTypes);
+                for (int i = 0; i < requests.size(); i++) {
+                    if (responses.get(i) != null)
+                        requests.get(i).future.complete(responses.get(i));
+                    else
+                        requests.get(i).future.completeExceptionally(
+                                new IOException("No response received for " + requests.get(i).request.getMethod()));
+                }
+                return;
+            } catch (IOException e) {
+                log.warn("Unable to send JSON-RPC batch, sending the requests one by one: " + e.getMessage());
+                batchFailed = true;
+            }
+        }
+
+        boolean singleSucceeded = false;
+        for (PendingRequest pendingRequest : requests) {
+            try {
+                pendingRequest.future.complete(web3jService.send(pendingRequest.request, pendingRequest.responseType));
+                singleSucceeded = true;
+            } catch (IOException e) {
+                pendingRequest.future.completeExceptionally(e);
+            }
+        }
+
+        // the node answers single requests but not batches
+        if (batchFailed && singleSucceeded)
+            batchSupported = false;
+    }
+
+    /**
+     * Get the service used to send the requests to the node
+     *
+     * @return BatchHttpService
+     */
+    public BatchHttpService getWeb3jService() {
+        return web3jService;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public boolean isBatchSupported() {
+        return batchSupported;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Allocates the nonces of the transactions sent from an account, so several transactions can be sent
+ * concurrently without waiting for the receipt of the previous one.
+ * The next nonce of every account is kept in memory and initialized from the pending transaction count of the node.
+ * The nonces of the transactions that were not accepted by the node are released and handed out again,
+ * so no gaps are left, and the account is resynchronized with the node when it rejects a nonce
+ */
+public class NonceManager {
+
+    private static final Logger log = LogManager.getLogger(NonceManager.class);
+
+    private static final Pattern NONCE_ERROR_PATTERN = Pattern.compile(
+            ".*(nonce too low|nonce is too low|nonce too high|known transaction|already known|already imported|replacement transaction).*",
+            Pattern.CASE_INSENSITIVE);
+
+    private final Web3j web3j;
+    private final Map<String, AccountNonces> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Nonces of an account
+     */
+    private static class AccountNonces {
+
+        // null until the account is synchronized with the node
+        private BigInteger next;
+        private final TreeSet<BigInteger> released = new TreeSet<>();
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3j the web3j client
+     */
+    public NonceManager(Web3j web3j) {
+        this.web3j = web3j;
+    }
+
+    private AccountNonces getAccount(String address) {
+        return accounts.computeIfAbsent(address.toLowerCase(), k -> new AccountNonces());
+    }
+
+    /**
+     * Gets the nonce of the next transaction of an account. Every call returns a different nonce,
+     * until the nonce is released or the account is resynchronized
+     *
+     * @param address the address of the account
+     * @return the nonce
+     * @throws IOException if the transaction count can not be retrieved from the node
+     */
+    public BigInteger acquire(String address) throws IOException {
+
+        AccountNonces account = getAccount(address);
+        synchronized (account) {
+
+            if (account.next == null)
+                account.next = getTransactionCount(address);
+
+            if (!account.released.isEmpty())
+                return account.released.pollFirst();
+
+            BigInteger nonce = account.next;
+            account.next = nonce.add(BigInteger.ONE);
+            return nonce;
+        }
+    }
+
+    /**
+     * Releases the nonce of a transaction that was not accepted by the node, so it can be used by the next transaction
+     *
+     * @param address the address of the account
+     * @param nonce   the nonce
+     */
+    public void release(String address, BigInteger nonce) {
+
+        AccountNonces account = getAccount(address);
+        synchronized (account) {
+
+            if (account.next == null || nonce.compareTo(account.next) >= 0)
+                return;
+
+            account.released.add(nonce);
+            // the last nonces handed out are given back, so there are no gaps at the end
+            while (!account.released.isEmpty() && account.released.last().equals(account.next.subtract(BigInteger.ONE))) {
+                account.next = account.released.pollLast();
+            }
+        }
+    }
+
+    /**
+     * Discards the nonces kept for an account, so the next nonce is retrieved again from the node
+     *
+     * @param address the address of the account
+     */
+    public void resync(String address) {
+
+        AccountNonces account = getAccount(address);
+        synchronized (account) {
+            log.debug("Resynchronizing the nonce of " + address);
+            account.next = null;
+            account.released.clear();
+        }
+    }
+
+    /**
+     * Updates the nonces of an account after the node rejected or failed to receive a transaction.
+     * If the error is related with the nonce the account is resynchronized, otherwise the nonce is released
+     *
+     * @param address      the address of the account
+     * @param nonce        the nonce of the transaction
+     * @param errorMessage the error returned by the node
+     */
+    public void onError(String address, BigInteger nonce, String errorMessage) {
+
+        if (errorMessage != null && NONCE_ERROR_PATTERN.matcher(errorMessage).matches())
+            resync(address);
+        else
+            release(address, nonce);
+    }
+
+    private BigInteger getTransactionCount(String address) throws IOException {
+
+        EthGetTransactionCount ethGetTransactionCount = web3j.ethGetTransactionCount(
+                address, DefaultBlockParameterName.PENDING).send();
+
+        if (ethGetTransactionCount.hasError())
+            throw new IOException("Error getting the transaction count of " + address + ": " + ethGetTransactionCount.getError().getMessage());
+
+        return ethGetTransactionCount.getTransactionCount();
+    }
+}
@@ -6,6 +6,7 @@
 package com.oceanprotocol.squid.external.web3;
 
 import com.oceanprotocol.squid.external.parity.SquidTransactionReceiptProcessor;
+import com.oceanprotocol.squid.helpers.HexCodec;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.web3j.crypto.Credentials;
@@ -13,16 +14,18 @@ import org.web3j.crypto.Hash;
 import org.web3j.crypto.RawTransaction;
 import org.web3j.crypto.TransactionEncoder;
 import org.web3j.protocol.admin.Admin;
-import org.web3j.protocol.core.DefaultBlockParameterName;
-import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthEstimateGas;
 import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.tx.TransactionManager;
 import org.web3j.tx.exceptions.TxHashMismatchException;
-import org.web3j.utils.Numeric;
+import org.web3j.tx.response.TransactionReceiptProcessor;
 import org.web3j.utils.TxHashVerifier;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PersonalTransactionManager extends TransactionManager {
 
@@ -31,15 +34,31 @@ public class PersonalTransactionManager extends TransactionManager {
     private final Admin web3j;
     private final Credentials credentials;
     private final String password;
+    private final NonceManager nonceManager;
+    private final ChainHeadTracker chainHeadTracker;
+
+    // Extra gas added to the estimations, in percentage
+    private static final int GAS_ESTIMATE_MARGIN = 20;
+    private boolean estimateGas = false;
+    private final Map<String, BigInteger> gasEstimates = new ConcurrentHashMap<>();
 
     protected TxHashVerifier txHashVerifier = new TxHashVerifier();
 
-    public PersonalTransactionManager(Admin web3j, Credentials credentials, String password, int attempts, long sleepDuration) {
+    public PersonalTransactionManager(Admin web3j, Credentials credentials, String password,
+                                      TransactionReceiptProcessor receiptProcessor, NonceManager nonceManager,
+                                      ChainHeadTracker chainHeadTracker) {
 
-        super(new SquidTransactionReceiptProcessor(web3j, sleepDuration, attempts), credentials.getAddress());
+        super(receiptProcessor, credentials.getAddress());
         this.web3j = web3j;
         this.credentials = credentials;
         this.password = password;
+        this.nonceManager = nonceManager;
+        this.chainHeadTracker = chainHeadTracker;
+    }
+
+    public PersonalTransactionManager(Admin web3j, Credentials credentials, String password, int attempts, long sleepDuration) {
+        this(web3j, credentials, password, new SquidTransactionReceiptProcessor(web3j, sleepDuration, attempts), new NonceManager(web3j),
+                new ChainHeadTracker(web3j, ChainHeadTracker.DEFAULT_REFRESH_INTERVAL));
     }
 
     public PersonalTransactionManager(Admin web3j, Credentials credentials, String password) {
@@ -48,18 +67,58 @@ public class PersonalTransactionManager extends TransactionManager {
 
 
     protected BigInteger getNonce() throws IOException {
-        EthGetTransactionCount ethGetTransactionCount = web3j.ethGetTransactionCount(
-                credentials.getAddress(), DefaultBlockParameterName.PENDING).send();
+        return nonceManager.acquire(credentials.getAddress());
+    }
+
+    public NonceManager getNonceManager() {
+        return nonceManager;
+    }
+
+    public ChainHeadTracker getChainHeadTracker() {
+        return chainHeadTracker;
+    }
+
+    /**
+     * It sets if the gas of the transactions is estimated with eth_estimateGas instead of using the block gas limit.
+     * The estimations are cached by contract and function
+     *
+     * @param estimateGas true to estimate the gas
+     * @return this instance of PersonalTransactionManager
+     */
+    public PersonalTransactionManager setEstimateGas(boolean estimateGas) {
+        this.estimateGas = estimateGas;
+        return this;
+    }
 
-        return ethGetTransactionCount.getTransactionCount();
+    public boolean isEstimateGas() {
+        return estimateGas;
     }
 
     protected BigInteger getEstimatedGas(String to, String data) throws IOException {
-        // Transaction tx= Transaction.createEthCallTransaction( getFromAddress(), to, data);
-        // EthEstimateGas estimateGas= web3j.ethEstimateGas(tx).send();
-        //return estimateGas.getAmountUsed();
 
-        BigInteger gas = web3j.ethGetBlockByNumber(DefaultBlockParameterName.LATEST, false).send().getBlock().getGasLimit();
+        if (!estimateGas)
+            return chainHeadTracker.getBlockGasLimit();
+
+        // the key is the contract and the function selector
+        String key = (to + ":" + (data != null && data.length() >= 10 ? data.substring(0, 10) : data)).toLowerCase();
+        BigInteger cachedGas = gasEstimates.get(key);
+        if (cachedGas != null)
+            return cachedGas;
+
+        BigInteger blockGasLimit = chainHeadTracker.getBlockGasLimit();
+        EthEstimateGas ethEstimateGas = web3j.ethEstimateGas(
+                Transaction.createEthCallTransaction(getFromAddress(), to, data)).send();
+
+        if (ethEstimateGas.hasError()) {
+            log.warn("Unable to estimate the gas of the transaction, using the block gas limit: " + ethEstimateGas.getError().getMessage());
+            return blockGasLimit;
+        }
+
+        BigInteger gas = ethEstimateGas.getAmountUsed()
+                .multiply(BigInteger.valueOf(100 + GAS_ESTIMATE_MARGIN))
+                .divide(BigInteger.valueOf(100))
+                .min(blockGasLimit);
+        gasEstimates.put(key, gas);
         return gas;
     }
 
@@ -68,17 +127,45 @@ public class PersonalTransactionManager extends TransactionManager {
             BigInteger gasPrice, BigInteger gasLimit, String to,
             String data, BigInteger value) throws IOException {
 
+        BigInteger estimatedGas = getEstimatedGas(to, data);
         BigInteger nonce = getNonce();
 
-        RawTransaction rawTransaction = RawTransaction.createTransaction(
-                nonce,
-                getEstimatedGas(to, data),
-                gasLimit,
-                to,
-                value,
-                data);
+        // Without estimation the block gas limit is sent in the gas price position, as it always was.
+        // With estimation the estimated gas is the gas limit of the transaction
+        RawTransaction rawTransaction = estimateGas ?
+                RawTransaction.createTransaction(
+                        nonce,
+                        gasPrice,
+                        estimatedGas,
+                        to,
+                        value,
+                        data) :
+                RawTransaction.createTransaction(
+                        nonce,
+                        estimatedGas,
+                        gasLimit,
+                        to,
+                        value,
+                        data);
+
+        EthSendTransaction ethSendTransaction;
+        try {
+            ethSendTransaction = signAndSend(rawTransaction);
+        } catch (TxHashMismatchException e) {
+            // the node accepted the transaction, so the nonce was used
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            nonceManager.onError(credentials.getAddress(), nonce, e.getMessage());
+            throw e;
+        }
 
-        return signAndSend(rawTransaction);
+        if (ethSendTransaction == null || ethSendTransaction.hasError()) {
+            String error = ethSendTransaction != null ? ethSendTransaction.getError().getMessage() : null;
+            log.debug("Transaction with nonce " + nonce + " rejected: " + error);
+            nonceManager.onError(credentials.getAddress(), nonce, error);
+        }
+
+        return ethSendTransaction;
     }
 
     /*
@@ -90,7 +177,7 @@ public class PersonalTransactionManager extends TransactionManager {
         byte[] signedMessage;
         signedMessage = TransactionEncoder.signMessage(rawTransaction, credentials);
 
-        return Numeric.toHexString(signedMessage);
+        return HexCodec.encode(signedMessage, true);
     }
 
     public EthSendTransaction signAndSend(RawTransaction rawTransaction)
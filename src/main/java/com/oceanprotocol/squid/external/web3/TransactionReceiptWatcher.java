@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Watches the receipts of all the pending transactions from a single thread.
+ * Every time a new block is seen, the receipts of the pending transactions are requested in a single
+ * JSON-RPC batch, and the future of every transaction mined is completed
+ */
+public class TransactionReceiptWatcher {
+
+    private static final Logger log = LogManager.getLogger(TransactionReceiptWatcher.class);
+
+    private final Web3j web3j;
+    private final JsonRpcBatch batch;
+    private final long pollingInterval;
+    private final long timeout;
+    private final Map<String, PendingTransaction> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> pollingTask;
+    private ChainHeadTracker chainHeadTracker;
+
+    /**
+     * Transaction waiting for its receipt
+     */
+    private static class PendingTransaction {
+
+        private final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        private final long deadline;
+        // last block where the receipt was requested
+        private BigInteger checkedAtBlock;
+
+        private PendingTransaction(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Constructor
+     *
+     * @param web3j           the web3j client
+     * @param web3jService    the service used to send the batches of requests, or null to send the requests one by one
+     * @param pollingInterval time in milliseconds between each check of the latest block
+     * @param timeout         time in milliseconds to wait for a receipt
+     */
+    public TransactionReceiptWatcher(Web3j web3j, Web3jService web3jService, long pollingInterval, long timeout) {
+        this.web3j = web3j;
+        this.batch = new JsonRpcBatch(web3jService);
+        this.pollingInterval = pollingInterval;
+        this.timeout = timeout;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transaction-receipt-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Watches a transaction until its receipt is generated
+     *
+     * @param transactionHash the hash of the transaction
+     * @return a CompletableFuture that completes with the receipt, or exceptionally with a TransactionException
+     * if the receipt is not generated before the timeout
+     */
+    public CompletableFuture<TransactionReceipt> watch(String transactionHash) {
+
+        PendingTransaction transaction = pending.computeIfAbsent(transactionHash,
+                hash -> new PendingTransaction(System.currentTimeMillis() + timeout));
+        start();
+        return transaction.future;
+    }
+
+    /**
+     * It sets the tracker notified of the new blocks seen
+     *
+     * @param chainHeadTracker the tracker
+     * @return this instance of TransactionReceiptWatcher
+     */
+    public TransactionReceiptWatcher setChainHeadTracker(ChainHeadTracker chainHeadTracker) {
+        this.chainHeadTracker = chainHeadTracker;
+        return this;
+    }
+
+    public int getPendingTransactions() {
+        return pending.size();
+    }
+
+    private synchronized void start() {
+        if (pollingTask == null)
+            pollingTask = scheduler.scheduleWithFixedDelay(this::poll, 0, pollingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized boolean stopIfIdle() {
+        if (!pending.isEmpty())
+            return false;
+
+        if (pollingTask != null) {
+            pollingTask.cancel(false);
+            pollingTask = null;
+        }
+        return true;
+    }
+
+    private void poll() {
+
+        try {
+
+            expire();
+            if (stopIfIdle())
+                return;
+
+            BigInteger block = web3j.ethBlockNumber().send().getBlockNumber();
+            if (chainHeadTracker != null)
+                chainHeadTracker.onNewBlock(block);
+
+            // the receipt of a transaction is requested once per block
+            List<String> hashes = new ArrayList<>();
+            List<Request<?, EthGetTransactionReceipt>> requests = new ArrayList<>();
+            for (Map.Entry<String, PendingTransaction> entry : pending.entrySet()) {
+                if (!block.equals(entry.getValue().checkedAtBlock)) {
+                    hashes.add(entry.getKey());
+                    requests.add(web3j.ethGetTransactionReceipt(entry.getKey()));
+                }
+            }
+
+            if (requests.isEmpty())
+                return;
+
+            List<EthGetTransactionReceipt> responses = batch.send(requests, EthGetTransactionReceipt.class);
+
+            for (int i = 0; i < hashes.size(); i++) {
+
+                PendingTransaction transaction = pending.get(hashes.get(i));
+                EthGetTransactionReceipt response = responses.get(i);
+                if (transaction == null || response == null)
+                    continue;
+
+                transaction.checkedAtBlock = block;
+
+                if (response.hasError()) {
+                    pending.remove(hashes.get(i));
+                    transaction.future.completeExceptionally(
+                            new TransactionException("Error processing request: " + response.getError().getMessage()));
+                    continue;
+                }
+
+                Optional<TransactionReceipt> receipt = response.getTransactionReceipt();
+                if (receipt.isPresent() && isMined(receipt.get())) {
+                    pending.remove(hashes.get(i));
+                    transaction.future.complete(receipt.get());
+                }
+            }
+
+        } catch (Exception e) {
+            log.warn("Error checking the receipts of the pending transactions: " + e.getMessage());
+        }
+    }
+
+    private void expire() {
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, PendingTransaction> entry : pending.entrySet()) {
+            if (now >= entry.getValue().deadline && pending.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().future.completeExceptionally(new TransactionException("Transaction receipt was not generated after "
+                        + (timeout / 1000) + " seconds for transaction: " + entry.getKey(), entry.getKey()));
+            }
+        }
+    }
+
+    private static boolean isMined(TransactionReceipt receipt) {
+
+        if (receipt.getLogs() == null)
+            return true;
+
+        boolean mined = receipt.getLogs().stream().allMatch(receiptLog -> receiptLog.getType() == null || receiptLog.getType().equalsIgnoreCase("mined"));
+        if (!mined)
+            log.debug("Not mined transaction receipt. Waiting until transaction get mined...");
+        return mined;
+    }
+}
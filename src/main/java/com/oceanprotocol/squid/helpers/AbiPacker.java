@@ -0,0 +1,233 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Packs values with the ABI packed encoding (abi.encodePacked) into a byte buffer and hashes them with Keccak-256,
+ * without building intermediate hex Strings. Every thread reuses its own buffer and Hasher, so an instance must be
+ * used from the thread that got it and can't be kept after computing a hash.
+ * The hex Strings written are decoded in the same way than the hex concatenations hashed with Hash.sha3, so the
+ * results are the same
+ */
+public final class AbiPacker {
+
+    public static final int HASH_LENGTH = Hasher.HASH_LENGTH;
+
+    private static final int WORD_LENGTH = 32;
+
+    private static final ThreadLocal<AbiPacker> PACKERS = ThreadLocal.withInitial(AbiPacker::new);
+
+    private byte[] buffer = new byte[256];
+    // the content is written by nibbles, to decode the hex Strings of odd length as Hash.sha3 does
+    private int nibbles;
+
+    private AbiPacker() {
+    }
+
+    /**
+     * Gets the packer of the current thread, empty
+     *
+     * @return the packer
+     */
+    public static AbiPacker get() {
+        AbiPacker packer = PACKERS.get();
+        packer.nibbles = 0;
+        return packer;
+    }
+
+    private void ensureCapacity(int moreNibbles) {
+        int bytes = (nibbles + moreNibbles + 1) / 2;
+        if (bytes > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+    }
+
+    private void putNibble(int nibble) {
+        int index = nibbles >> 1;
+        if ((nibbles & 1) == 0)
+            buffer[index] = (byte) (nibble << 4);
+        else
+            buffer[index] |= (byte) nibble;
+        nibbles++;
+    }
+
+    /**
+     * Writes a hex String. All the "0x" of the String are skipped, as HexCodec.removeAllPrefixes does
+     *
+     * @param hex the hex String
+     * @return this packer
+     */
+    public AbiPacker hex(CharSequence hex) {
+
+        int length = hex.length();
+        ensureCapacity(length);
+
+        for (int i = 0; i < length; i++) {
+            char c = hex.charAt(i);
+            if (c == '0' && i + 1 < length && hex.charAt(i + 1) == 'x') {
+                i++;
+                continue;
+            }
+            putNibble(Character.digit(c, 16) & 0x0f);
+        }
+        return this;
+    }
+
+    /**
+     * Writes some bytes
+     *
+     * @param bytes the bytes
+     * @param offset the position of the first byte to write
+     * @param length the number of bytes to write
+     * @return this packer
+     */
+    public AbiPacker bytes(byte[] bytes, int offset, int length) {
+
+        ensureCapacity(length * 2);
+        if ((nibbles & 1) == 0) {
+            System.arraycopy(bytes, offset, buffer, nibbles >> 1, length);
+            nibbles += length * 2;
+        } else {
+            for (int i = offset; i < offset + length; i++) {
+                putNibble((bytes[i] >> 4) & 0x0f);
+                putNibble(bytes[i] & 0x0f);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes some bytes
+     *
+     * @param bytes the bytes
+     * @return this packer
+     */
+    public AbiPacker bytes(byte[] bytes) {
+        return bytes(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes an unsigned integer as a word of 32 bytes
+     *
+     * @param value the value
+     * @return this packer
+     */
+    public AbiPacker uint256(BigInteger value) {
+
+        if (value.signum() < 0 || value.bitLength() > 256)
+            throw new UnsupportedOperationException("Bitsize must be 8 bit aligned, and in range 0 < bitSize <= 256");
+
+        byte[] bytes = value.toByteArray();
+        // the sign byte is skipped
+        int offset = bytes.length > WORD_LENGTH ? bytes.length - WORD_LENGTH : 0;
+        int length = bytes.length - offset;
+
+        ensureCapacity(WORD_LENGTH * 2);
+        for (int i = 0; i < WORD_LENGTH - length; i++) {
+            putNibble(0);
+            putNibble(0);
+        }
+        return bytes(bytes, offset, length);
+    }
+
+    /**
+     * Writes an unsigned integer as a word of 32 bytes
+     *
+     * @param value the value
+     * @return this packer
+     */
+    public AbiPacker uint256(long value) {
+
+        if (value < 0)
+            throw new UnsupportedOperationException("Bitsize must be 8 bit aligned, and in range 0 < bitSize <= 256");
+
+        ensureCapacity(WORD_LENGTH * 2);
+        for (int i = WORD_LENGTH - 1; i >= 0; i--) {
+            int b = i < 8 ? (int) (value >>> (i * 8)) & 0xff : 0;
+            putNibble(b >> 4);
+            putNibble(b & 0x0f);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the value of a parameter of a condition, encoded as EthereumHelper.encodeParameterValue does.
+     * The values given as bytes are written as they are
+     *
+     * @param type  the type of the parameter
+     * @param value the value
+     * @return this packer
+     */
+    public AbiPacker parameter(String type, Object value) {
+
+        if (value instanceof byte[])
+            return bytes((byte[]) value);
+        else if ("string".equals(type) || type.contains("bytes32"))
+            return hex((String) value);
+        else if (type.contains("int")) {
+            if (value instanceof String)
+                return "uint256".equals(type) ? uint256(new BigInteger((String) value)) : uint256(Integer.parseInt((String) value));
+            else if (value instanceof Integer)
+                return uint256((Integer) value);
+            return uint256((BigInteger) value);
+        } else if ("address".equals(type))
+            return hex((String) value);
+
+        return this;
+    }
+
+    /**
+     * Hashes the content written with Keccak-256, and empties the packer
+     *
+     * @param out    the array where the hash is written
+     * @param offset the position of the array where the hash is written
+     */
+    public void keccak(byte[] out, int offset) {
+
+        int length = (nibbles + 1) / 2;
+        if ((nibbles & 1) != 0) {
+            // a hex String of odd length is decoded with a leading 0
+            for (int i = length - 1; i > 0; i--)
+                buffer[i] = (byte) (((buffer[i] >> 4) & 0x0f) | (buffer[i - 1] << 4));
+            buffer[0] = (byte) ((buffer[0] >> 4) & 0x0f);
+        }
+
+        Hasher.keccak().update(buffer, 0, length).doFinal(out, offset);
+        nibbles = 0;
+    }
+
+    /**
+     * Hashes the content written with Keccak-256, and empties the packer
+     *
+     * @return the hash
+     */
+    public byte[] keccak() {
+        byte[] hash = new byte[HASH_LENGTH];
+        keccak(hash, 0);
+        return hash;
+    }
+
+    /**
+     * Hashes the content written with Keccak-256, and empties the packer
+     *
+     * @return the hash as a hex String prefixed with 0x, as Hash.sha3 returns it
+     */
+    public String keccakHex() {
+        return toHexString(keccak());
+    }
+
+    /**
+     * Encodes some bytes as a lower case hex String prefixed with 0x
+     *
+     * @param bytes the bytes
+     * @return the hex String
+     */
+    public static String toHexString(byte[] bytes) {
+        return HexCodec.encode(bytes, true);
+    }
+}
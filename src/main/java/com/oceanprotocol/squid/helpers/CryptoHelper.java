@@ -6,34 +6,20 @@
 package com.oceanprotocol.squid.helpers;
 
 import com.google.common.base.Preconditions;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.web3j.abi.datatypes.Address;
 import org.web3j.abi.datatypes.Uint;
 import org.web3j.abi.datatypes.generated.Uint256;
 import org.web3j.abi.datatypes.generated.Uint64;
-import org.web3j.crypto.Hash;
 import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
-import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA3_256;
 
 /**
  * Helper abstract class with crypto utility methods
  */
 public abstract class CryptoHelper {
 
-    /**
-     * The Constant DIGITS.
-     */
-    private static final char[] DIGITS =
-            {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
-
     private static final BigInteger MASK_256 = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
 
 
@@ -44,7 +30,7 @@ public abstract class CryptoHelper {
      * @return hashed message
      */
     public static String sha3256(String input) {
-        return new DigestUtils(SHA3_256).digestAsHex(input);
+        return Hasher.sha3().update(input).doFinalHex(false);
     }
 
     /**
@@ -54,17 +40,11 @@ public abstract class CryptoHelper {
      * @return sha3
      */
     public static byte[] soliditySha3(Object... data) {
-        if (data.length == 1) {
-            return Hash.sha3(toBytes(data[0]));
+        Hasher hasher = Hasher.keccak();
+        for (Object value : data) {
+            hasher.update(value);
         }
-        List<byte[]> arrays = Stream.of(data).map(CryptoHelper::toBytes).collect(Collectors.toList());
-        ByteBuffer buffer = ByteBuffer.allocate(arrays.stream().mapToInt(a -> a.length).sum());
-        for (byte[] a : arrays) {
-            buffer.put(a);
-        }
-        byte[] array = buffer.array();
-        assert buffer.position() == array.length;
-        return Hash.sha3(array);
+        return hasher.doFinal();
     }
 
     /**
@@ -74,14 +54,7 @@ public abstract class CryptoHelper {
      * @return the hex
      */
     public static String getHex(byte[] data) {
-        final int l = data.length;
-        final char[] outData = new char[l << 1];
-        for (int i = 0, j = 0; i < l; i++) {
-            outData[j++] = DIGITS[(0xF0 & data[i]) >>> 4];
-            outData[j++] = DIGITS[0x0F & data[i]];
-        }
-
-        return new String(outData);
+        return HexCodec.encode(data, false);
     }
 
 
@@ -6,14 +6,12 @@
 package com.oceanprotocol.squid.helpers;
 
 import com.oceanprotocol.squid.exceptions.EncodingException;
-import org.apache.commons.codec.binary.Hex;
 import org.web3j.abi.TypeEncoder;
 import org.web3j.abi.datatypes.Address;
 import org.web3j.abi.datatypes.Bool;
 import org.web3j.abi.datatypes.Uint;
 import org.web3j.abi.datatypes.generated.Bytes32;
 import org.web3j.crypto.Sign;
-import org.web3j.utils.Numeric;
 
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
@@ -53,7 +51,7 @@ public abstract class EncodingHelper {
      * @throws UnsupportedEncodingException Error encoding to Hex
      */
     public static String encodeToHex(String input) throws UnsupportedEncodingException {
-        return Hex.encodeHexString(input.getBytes("UTF-8"));
+        return HexCodec.encode(input.getBytes("UTF-8"), false);
     }
 
     /**
@@ -64,7 +62,7 @@ public abstract class EncodingHelper {
      * @throws UnsupportedEncodingException Error encoding to byte array
      */
     public static byte[] hexStringToBytes(String input) throws UnsupportedEncodingException {
-        return Numeric.hexStringToByteArray(input);
+        return HexCodec.decode(input);
     }
 
     /**
@@ -101,7 +99,7 @@ public abstract class EncodingHelper {
      * @return hex string
      */
     public static String toHexString(byte[] input) {
-        return Numeric.toHexString(input);
+        return HexCodec.encode(input, true);
     }
 
     /**
@@ -111,7 +109,7 @@ public abstract class EncodingHelper {
      * @return bool
      */
     public static boolean isHexString(String input) {
-        return input.matches("-?[0-9a-fA-F]+");
+        return HexCodec.isHex(input, input.startsWith("-") ? 1 : 0, input.length());
     }
 
     /**
@@ -152,8 +150,8 @@ public abstract class EncodingHelper {
     }
 
     public static String signatureToString(Sign.SignatureData signatureData) {
-        return Numeric.toHexString(signatureData.getR())
-                + Numeric.toHexString(signatureData.getS())
+        return HexCodec.encode(signatureData.getR(), true)
+                + HexCodec.encode(signatureData.getS(), true)
                 + Integer.toHexString(signatureData.getV()
         );
     }
@@ -163,9 +161,16 @@ public abstract class EncodingHelper {
             throw new EncodingException(
                     "Error deserializing string to SignatureData, invalid length:" + signatureString.length());
 
-        byte[] v = Numeric.hexStringToByteArray(signatureString.substring(128, 130));
-        byte[] r = Numeric.hexStringToByteArray(signatureString.substring(0, 64));
-        byte[] s = Numeric.hexStringToByteArray(signatureString.substring(64, 128));
+        byte[] v = new byte[1];
+        byte[] r = new byte[32];
+        byte[] s = new byte[32];
+        try {
+            HexCodec.decode(signatureString, 128, 130, v, 0);
+            HexCodec.decode(signatureString, 0, 64, r, 0);
+            HexCodec.decode(signatureString, 64, 128, s, 0);
+        } catch (IllegalArgumentException e) {
+            throw new EncodingException("Error deserializing string to SignatureData: " + e.getMessage(), e);
+        }
 
         return new Sign.SignatureData(v[0], r, s);
     }
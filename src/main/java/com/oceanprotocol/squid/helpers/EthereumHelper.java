@@ -15,11 +15,84 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public abstract class EthereumHelper {
 
     private static final String MESSAGE_PREFIX = "\u0019Ethereum Signed Message:\n";
 
+    // number of signatures verified by a task of verifyAll without splitting it
+    private static final int VERIFY_BATCH_SIZE = 16;
+
+    /**
+     * Message hash signed by an address
+     */
+    public static class SignedMessage {
+
+        private final String address;
+        private final Sign.SignatureData signatureData;
+        private final byte[] hashMessage;
+
+        /**
+         * Constructor
+         *
+         * @param address       the address that signed the message
+         * @param signatureData the signature
+         * @param hashMessage   the hashed message
+         */
+        public SignedMessage(String address, Sign.SignatureData signatureData, byte[] hashMessage) {
+            this.address = address;
+            this.signatureData = signatureData;
+            this.hashMessage = hashMessage;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public Sign.SignatureData getSignatureData() {
+            return signatureData;
+        }
+
+        public byte[] getHashMessage() {
+            return hashMessage;
+        }
+    }
+
+    /**
+     * Verifies a range of signed messages, splitting it while it's bigger than a batch
+     */
+    private static class VerifyTask extends RecursiveAction {
+
+        private final List<SignedMessage> messages;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+
+        private VerifyTask(List<SignedMessage> messages, boolean[] results, int from, int to) {
+            this.messages = messages;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= VERIFY_BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    SignedMessage message = messages.get(i);
+                    results[i] = wasSignedByAddress(message.address, message.signatureData, message.hashMessage);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new VerifyTask(messages, results, from, middle), new VerifyTask(messages, results, middle, to));
+        }
+    }
+
     /**
      * Given a String message, return the prefixed message hashed
      *
@@ -88,8 +161,65 @@ public abstract class EthereumHelper {
      * @return boolean
      */
     public static boolean wasSignedByAddress(String address, Sign.SignatureData signatureData, byte[] hashMessage) {
-        List<String> addresses = recoverAddressFromSignature(signatureData, hashMessage);
-        return addresses.contains(address);
+
+        if (getRecoveryId(signatureData) < 0) {
+            List<String> addresses = recoverAddressFromSignature(signatureData, hashMessage);
+            return addresses.contains(address);
+        }
+
+        String recovered = recoverAddress(signatureData, hashMessage);
+        return recovered != null && HexCodec.cleanPrefixLowerCase(address).equals(recovered.substring(2));
+    }
+
+    /**
+     * Given a signature data and the hashed message, recover the address that generated the signature using
+     * the recovery id given by the v of the signature, instead of trying all of them
+     *
+     * @param signatureData signature data
+     * @param hashMessage   hashed message
+     * @return the address with the 0x prefix, or null if the v of the signature is not valid or the key can't be recovered
+     */
+    public static String recoverAddress(Sign.SignatureData signatureData, byte[] hashMessage) {
+
+        int recoveryId = getRecoveryId(signatureData);
+        if (recoveryId < 0)
+            return null;
+
+        ECDSASignature ecdsaSignature = new ECDSASignature(
+                new BigInteger(1, signatureData.getR()),
+                new BigInteger(1, signatureData.getS()));
+        BigInteger publicKey = Sign.recoverFromSignature(recoveryId, ecdsaSignature, hashMessage);
+        return publicKey != null ? "0x" + Keys.getAddress(publicKey) : null;
+    }
+
+    private static int getRecoveryId(Sign.SignatureData signatureData) {
+        // v is 27 or 28 in the signatures of Ethereum, and 0 or 1 in the raw ones
+        int v = signatureData.getV() & 0xff;
+        int recoveryId = v >= 27 ? v - 27 : v;
+        return recoveryId < 4 ? recoveryId : -1;
+    }
+
+    /**
+     * Verifies a list of signed messages in parallel in the common ForkJoinPool
+     *
+     * @param messages the signed messages
+     * @return for every message, true if it was signed by its address
+     */
+    public static boolean[] verifyAll(List<SignedMessage> messages) {
+        return verifyAll(messages, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Verifies a list of signed messages in parallel in a given ForkJoinPool
+     *
+     * @param messages the signed messages
+     * @param pool     the pool that executes the verifications
+     * @return for every message, true if it was signed by its address
+     */
+    public static boolean[] verifyAll(List<SignedMessage> messages, ForkJoinPool pool) {
+        boolean[] results = new boolean[messages.size()];
+        pool.invoke(new VerifyTask(messages, results, 0, messages.size()));
+        return results;
     }
 
     /**
@@ -109,6 +239,25 @@ public abstract class EthereumHelper {
         return response.getSign();
     }
 
+    /**
+     * Signs a message locally in the same way than a web3 eth-sign message in the keeper, without sending it to the node.
+     * The message is a hex String, its bytes are prefixed with the Ethereum message prefix before signing them
+     *
+     * @param message     hex String of the message to sign
+     * @param credentials credentials of the address used for signing
+     * @return signed message, the same than the node returns
+     */
+    public static String localSignMessage(String message, Credentials credentials) {
+
+        Sign.SignatureData signatureData = Sign.signPrefixedMessage(HexCodec.decode(message), credentials.getEcKeyPair());
+
+        byte[] signature = new byte[65];
+        System.arraycopy(signatureData.getR(), 0, signature, 0, 32);
+        System.arraycopy(signatureData.getS(), 0, signature, 32, 32);
+        signature[64] = signatureData.getV();
+        return HexCodec.encode(signature, true);
+    }
+
     /**
      * Hashing a message and signing using web3 eth-sign
      *
@@ -131,7 +280,7 @@ public abstract class EthereumHelper {
      * @return string
      */
     public static String remove0x(String input) {
-        return input.replaceAll("0x", "");
+        return HexCodec.removeAllPrefixes(input);
     }
 
     /**
@@ -153,8 +302,8 @@ public abstract class EthereumHelper {
      * @return boolean
      */
     public static boolean isValidAddress(String input) {
-        String hash = remove0x(input).toLowerCase();
-        return (hash.length() == 40 && EncodingHelper.isHexString(hash));
+        int start = input.startsWith(HexCodec.PREFIX) ? 2 : 0;
+        return (input.length() - start == 40 && HexCodec.isHex(input, start, input.length()));
     }
 
 
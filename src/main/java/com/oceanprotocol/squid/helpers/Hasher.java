@@ -0,0 +1,218 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+import org.bouncycastle.jcajce.provider.digest.Keccak;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint64;
+
+import java.math.BigInteger;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes with Keccak-256 or SHA3-256 the values given one by one, without joining them in intermediate arrays or
+ * Strings. Every thread reuses its own digests, so an instance must be used from the thread that got it and can't be
+ * kept after computing a hash
+ */
+public final class Hasher {
+
+    public static final int HASH_LENGTH = 32;
+
+    private static final BigInteger MASK_256 = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
+    private static final byte[] ZEROS = new byte[32];
+
+    private static final ThreadLocal<Hasher> KECCAK_HASHERS = ThreadLocal.withInitial(() -> new Hasher(new Keccak.Digest256()));
+    private static final ThreadLocal<Hasher> SHA3_HASHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return new Hasher(MessageDigest.getInstance("SHA3-256"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA3-256 is not supported", e);
+        }
+    });
+
+    private final MessageDigest digest;
+    // used to encode the Strings and the numbers before absorbing them
+    private final byte[] scratch = new byte[64];
+
+    private Hasher(MessageDigest digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Gets the Keccak-256 hasher of the current thread, empty. It's the hash used by Ethereum (Hash.sha3)
+     *
+     * @return the hasher
+     */
+    public static Hasher keccak() {
+        Hasher hasher = KECCAK_HASHERS.get();
+        hasher.digest.reset();
+        return hasher;
+    }
+
+    /**
+     * Gets the SHA3-256 (FIPS 202) hasher of the current thread, empty
+     *
+     * @return the hasher
+     */
+    public static Hasher sha3() {
+        Hasher hasher = SHA3_HASHERS.get();
+        hasher.digest.reset();
+        return hasher;
+    }
+
+    /**
+     * Absorbs some bytes
+     *
+     * @param bytes  the bytes
+     * @param offset the position of the first byte
+     * @param length the number of bytes
+     * @return this hasher
+     */
+    public Hasher update(byte[] bytes, int offset, int length) {
+        digest.update(bytes, offset, length);
+        return this;
+    }
+
+    /**
+     * Absorbs some bytes
+     *
+     * @param bytes the bytes
+     * @return this hasher
+     */
+    public Hasher update(byte[] bytes) {
+        return update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Absorbs a String encoded in UTF-8
+     *
+     * @param text the String
+     * @return this hasher
+     */
+    public Hasher update(CharSequence text) {
+
+        int length = text.length();
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (count > scratch.length - 4) {
+                digest.update(scratch, 0, count);
+                count = 0;
+            }
+
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                scratch[count++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[count++] = (byte) (0xc0 | (c >> 6));
+                scratch[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                scratch[count++] = (byte) (0xf0 | (codePoint >> 18));
+                scratch[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                scratch[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                scratch[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // the unpaired surrogates are replaced as String.getBytes does
+                scratch[count++] = '?';
+            } else {
+                scratch[count++] = (byte) (0xe0 | (c >> 12));
+                scratch[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                scratch[count++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        digest.update(scratch, 0, count);
+        return this;
+    }
+
+    /**
+     * Absorbs an object (byte[], BigInteger, Address, Uint256, Uint64 or Number) with the same length than
+     * CryptoHelper.toBytes gives it
+     *
+     * @param value the object
+     * @return this hasher
+     */
+    public Hasher update(Object value) {
+
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            if (bytes.length > 32)
+                throw new IllegalArgumentException();
+            return update(bytes).update(ZEROS, 0, 32 - bytes.length);
+        } else if (value instanceof BigInteger) {
+            BigInteger number = (BigInteger) value;
+            return updatePadded(number.signum() < 0 ? MASK_256.and(number) : number, 32);
+        } else if (value instanceof Address) {
+            return updatePadded(((Address) value).toUint160().getValue(), 20);
+        } else if (value instanceof Uint256) {
+            return updatePadded(((Uint256) value).getValue(), 32);
+        } else if (value instanceof Uint64) {
+            return updatePadded(((Uint64) value).getValue(), 8);
+        } else if (value instanceof Number) {
+            // a word of 32 bytes in two's complement
+            long number = ((Number) value).longValue();
+            for (int i = 0; i < 32; i++)
+                scratch[i] = (byte) (i < 24 ? number >> 63 : number >> ((31 - i) * 8));
+            return update(scratch, 0, 32);
+        }
+        throw new IllegalArgumentException(value.getClass().getName());
+    }
+
+    private Hasher updatePadded(BigInteger value, int length) {
+
+        byte[] bytes = value.toByteArray();
+        // the sign byte is skipped, as Numeric.toBytesPadded does
+        int offset = bytes[0] == 0 ? 1 : 0;
+        int bytesLength = bytes.length - offset;
+        if (bytesLength > length)
+            throw new RuntimeException("Input is too large to put in byte array of size " + length);
+        return update(ZEROS, 0, length - bytesLength).update(bytes, offset, bytesLength);
+    }
+
+    /**
+     * Computes the hash of the values absorbed, and empties the hasher
+     *
+     * @param out    the array where the hash is written
+     * @param offset the position of the array where the hash is written
+     */
+    public void doFinal(byte[] out, int offset) {
+        try {
+            digest.digest(out, offset, HASH_LENGTH);
+        } catch (DigestException e) {
+            throw new IllegalArgumentException("There is no room for the hash in the array", e);
+        }
+    }
+
+    /**
+     * Computes the hash of the values absorbed, and empties the hasher
+     *
+     * @return the hash
+     */
+    public byte[] doFinal() {
+        byte[] hash = new byte[HASH_LENGTH];
+        doFinal(hash, 0);
+        return hash;
+    }
+
+    /**
+     * Computes the hash of the values absorbed, and empties the hasher
+     *
+     * @param prefix if the hash is prefixed with 0x
+     * @return the hash as a lower case hex String
+     */
+    public String doFinalHex(boolean prefix) {
+        doFinal(scratch, 0);
+        char[] chars = new char[(prefix ? 2 : 0) + HASH_LENGTH * 2];
+        if (prefix) {
+            chars[0] = '0';
+            chars[1] = 'x';
+        }
+        HexCodec.encode(scratch, 0, HASH_LENGTH, chars, prefix ? 2 : 0);
+        return new String(chars);
+    }
+}
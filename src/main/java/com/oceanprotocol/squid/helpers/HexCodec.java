@@ -0,0 +1,225 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+/**
+ * Encodes and decodes hex Strings without regular expressions nor intermediate Strings.
+ * The hex Strings are encoded in lower case, and decoded as Numeric does: the "0x" prefix is optional, and a String
+ * of odd length is decoded with a leading 0
+ */
+public final class HexCodec {
+
+    public static final String PREFIX = "0x";
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++)
+            VALUES[i] = (byte) Character.digit((char) i, 16);
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * Encodes some bytes as hex chars, in a given array
+     *
+     * @param src       the bytes
+     * @param srcOffset the position of the first byte to encode
+     * @param length    the number of bytes to encode
+     * @param dst       the array where the chars are written
+     * @param dstOffset the position of the array where the chars are written
+     * @return the position of the array after the last char written
+     */
+    public static int encode(byte[] src, int srcOffset, int length, char[] dst, int dstOffset) {
+
+        for (int i = srcOffset; i < srcOffset + length; i++) {
+            dst[dstOffset++] = DIGITS[(src[i] >> 4) & 0x0f];
+            dst[dstOffset++] = DIGITS[src[i] & 0x0f];
+        }
+        return dstOffset;
+    }
+
+    /**
+     * Encodes some bytes as a hex String
+     *
+     * @param bytes  the bytes
+     * @param prefix if the String is prefixed with 0x
+     * @return the hex String
+     */
+    public static String encode(byte[] bytes, boolean prefix) {
+
+        int offset = prefix ? 2 : 0;
+        char[] chars = new char[offset + bytes.length * 2];
+        if (prefix) {
+            chars[0] = '0';
+            chars[1] = 'x';
+        }
+        encode(bytes, 0, bytes.length, chars, offset);
+        return new String(chars);
+    }
+
+    /**
+     * Gets the number of bytes of a hex String
+     *
+     * @param hex   the hex String
+     * @param start the position of the first char, that can be the start of the 0x prefix
+     * @param end   the position after the last char
+     * @return the number of bytes
+     */
+    public static int decodedLength(CharSequence hex, int start, int end) {
+        if (hasPrefix(hex, start, end))
+            start += 2;
+        return (end - start + 1) / 2;
+    }
+
+    /**
+     * Decodes a part of a hex String, in a given array
+     *
+     * @param hex       the hex String
+     * @param start     the position of the first char, that can be the start of the 0x prefix
+     * @param end       the position after the last char
+     * @param dst       the array where the bytes are written
+     * @param dstOffset the position of the array where the bytes are written
+     * @return the position of the array after the last byte written
+     * @throws IllegalArgumentException if there is a char that is not hex
+     */
+    public static int decode(CharSequence hex, int start, int end, byte[] dst, int dstOffset) {
+
+        if (hasPrefix(hex, start, end))
+            start += 2;
+
+        if (((end - start) & 1) != 0)
+            dst[dstOffset++] = (byte) digit(hex, start++);
+
+        for (int i = start; i < end; i += 2)
+            dst[dstOffset++] = (byte) ((digit(hex, i) << 4) | digit(hex, i + 1));
+        return dstOffset;
+    }
+
+    /**
+     * Decodes a hex String
+     *
+     * @param hex the hex String, with or without the 0x prefix
+     * @return the bytes
+     * @throws IllegalArgumentException if there is a char that is not hex
+     */
+    public static byte[] decode(CharSequence hex) {
+        byte[] bytes = new byte[decodedLength(hex, 0, hex.length())];
+        decode(hex, 0, hex.length(), bytes, 0);
+        return bytes;
+    }
+
+    private static int digit(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int value = c < VALUES.length ? VALUES[c] : -1;
+        if (value < 0)
+            throw new IllegalArgumentException("Invalid hex char '" + c + "' at position " + index);
+        return value;
+    }
+
+    /**
+     * Checks if a part of a String has only hex chars, in lower or upper case
+     *
+     * @param input the String
+     * @param start the position of the first char
+     * @param end   the position after the last char
+     * @return true if there is at least a char and all of them are hex
+     */
+    public static boolean isHex(CharSequence input, int start, int end) {
+
+        if (start >= end)
+            return false;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c >= VALUES.length || VALUES[c] < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a String has only hex chars, in lower or upper case
+     *
+     * @param input the String
+     * @return true if there is at least a char and all of them are hex
+     */
+    public static boolean isHex(CharSequence input) {
+        return isHex(input, 0, input.length());
+    }
+
+    private static boolean hasPrefix(CharSequence input, int start, int end) {
+        return end - start > 1 && input.charAt(start) == '0' && input.charAt(start + 1) == 'x';
+    }
+
+    /**
+     * Checks if a String starts by 0x
+     *
+     * @param input the String
+     * @return true if the String starts by 0x
+     */
+    public static boolean hasPrefix(CharSequence input) {
+        return hasPrefix(input, 0, input.length());
+    }
+
+    /**
+     * Removes the 0x prefix of a String, if it has it
+     *
+     * @param input the String
+     * @return the String without the prefix
+     */
+    public static String cleanPrefix(String input) {
+        return hasPrefix(input) ? input.substring(2) : input;
+    }
+
+    /**
+     * Removes the 0x prefix of a String, if it has it, and converts it to lower case
+     *
+     * @param input the String
+     * @return the String without the prefix in lower case
+     */
+    public static String cleanPrefixLowerCase(String input) {
+
+        int start = hasPrefix(input) ? 2 : 0;
+        int length = input.length();
+        int i = start;
+        while (i < length && !Character.isUpperCase(input.charAt(i)))
+            i++;
+        if (i == length)
+            return start == 0 ? input : input.substring(start);
+
+        char[] chars = new char[length - start];
+        for (int j = start; j < length; j++)
+            chars[j - start] = Character.toLowerCase(input.charAt(j));
+        return new String(chars);
+    }
+
+    /**
+     * Removes all the "0x" of a String, not only the prefix
+     *
+     * @param input the String
+     * @return the String without any 0x
+     */
+    public static String removeAllPrefixes(String input) {
+
+        int index = input.indexOf(PREFIX);
+        if (index < 0)
+            return input;
+
+        int length = input.length();
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = input.charAt(i);
+            if (c == '0' && i + 1 < length && input.charAt(i + 1) == 'x')
+                i++;
+            else
+                chars[count++] = c;
+        }
+        return new String(chars, 0, count);
+    }
+}
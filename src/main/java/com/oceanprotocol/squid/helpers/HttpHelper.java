@@ -10,17 +10,24 @@ import org.apache.commons.codec.Charsets;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.HttpMethodBase;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.NameValuePair;
 import org.apache.commons.httpclient.methods.*;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+import org.apache.commons.httpclient.util.IdleConnectionTimeoutThread;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -31,6 +38,7 @@ import java.net.URL;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * HTTP Helper functions
@@ -39,9 +47,202 @@ public abstract class HttpHelper {
 
     protected static final Logger log = LogManager.getLogger(HttpHelper.class);
 
+    private static MultiThreadedHttpConnectionManager connectionManager;
+    private static IdleConnectionTimeoutThread idleConnectionTimeoutThread;
+    private static HttpClient httpClient;
+    private static CloseableHttpClient downloadClient;
+
     private HttpHelper() {
     }
 
+    /**
+     * Configuration of the connection pool shared by all the HTTP calls done through this helper
+     */
+    public static class ConnectionPoolConfig {
+
+        public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+        public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 200;
+        public static final int DEFAULT_CONNECTION_TIMEOUT = 10000;
+        public static final int DEFAULT_SOCKET_TIMEOUT = 60000;
+        public static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30000l;
+
+        private int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        private int maxTotalConnections = DEFAULT_MAX_TOTAL_CONNECTIONS;
+        private int connectionTimeout = DEFAULT_CONNECTION_TIMEOUT;
+        private int socketTimeout = DEFAULT_SOCKET_TIMEOUT;
+        private long idleConnectionTimeout = DEFAULT_IDLE_CONNECTION_TIMEOUT;
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public ConnectionPoolConfig setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+            return this;
+        }
+
+        public int getMaxTotalConnections() {
+            return maxTotalConnections;
+        }
+
+        public ConnectionPoolConfig setMaxTotalConnections(int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+            return this;
+        }
+
+        public int getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public ConnectionPoolConfig setConnectionTimeout(int connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+            return this;
+        }
+
+        public int getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public ConnectionPoolConfig setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        public long getIdleConnectionTimeout() {
+            return idleConnectionTimeout;
+        }
+
+        public ConnectionPoolConfig setIdleConnectionTimeout(long idleConnectionTimeout) {
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+    }
+
+    /**
+     * (Re)creates the pooled HTTP clients shared by Aquarius, Brizo and the rest of HTTP calls.
+     * Connections are kept alive and reused between requests, and the idle ones are evicted
+     * periodically
+     *
+     * @param config the configuration of the connection pool
+     */
+    public static synchronized void configureConnectionPool(ConnectionPoolConfig config) {
+
+        log.debug("Configuring HTTP connection pool. Max connections per host: " + config.getMaxConnectionsPerHost()
+                + ", max total connections: " + config.getMaxTotalConnections());
+
+        shutdownConnectionPool();
+
+        connectionManager = new MultiThreadedHttpConnectionManager();
+        HttpConnectionManagerParams params = connectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(config.getMaxConnectionsPerHost());
+        params.setMaxTotalConnections(config.getMaxTotalConnections());
+        params.setConnectionTimeout(config.getConnectionTimeout());
+        params.setSoTimeout(config.getSocketTimeout());
+        params.setStaleCheckingEnabled(true);
+
+        httpClient = new HttpClient(connectionManager);
+
+        if (config.getIdleConnectionTimeout() > 0) {
+            idleConnectionTimeoutThread = new IdleConnectionTimeoutThread();
+            idleConnectionTimeoutThread.setName("squid-http-idle-connections");
+            idleConnectionTimeoutThread.setDaemon(true);
+            idleConnectionTimeoutThread.setConnectionTimeout(config.getIdleConnectionTimeout());
+            idleConnectionTimeoutThread.setTimeoutInterval(Math.max(1000l, config.getIdleConnectionTimeout() / 2));
+            idleConnectionTimeoutThread.addConnectionManager(connectionManager);
+            idleConnectionTimeoutThread.start();
+        }
+
+        PoolingHttpClientConnectionManager downloadConnectionManager = new PoolingHttpClientConnectionManager();
+        downloadConnectionManager.setDefaultMaxPerRoute(config.getMaxConnectionsPerHost());
+        downloadConnectionManager.setMaxTotal(config.getMaxTotalConnections());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.getConnectionTimeout())
+                .setSocketTimeout(config.getSocketTimeout())
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(downloadConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .setRedirectStrategy(new LaxRedirectStrategy()); // adds HTTP REDIRECT support to GET and POST methods
+
+        if (config.getIdleConnectionTimeout() > 0)
+            builder.evictIdleConnections(config.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS);
+
+        downloadClient = builder.build();
+    }
+
+    /**
+     * Closes the pooled HTTP clients and all their connections
+     */
+    public static synchronized void shutdownConnectionPool() {
+
+        if (idleConnectionTimeoutThread != null) {
+            idleConnectionTimeoutThread.shutdown();
+            idleConnectionTimeoutThread = null;
+        }
+
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+            connectionManager = null;
+        }
+
+        if (downloadClient != null) {
+            try {
+                downloadClient.close();
+            } catch (IOException e) {
+                log.warn("Error closing the HTTP download client: " + e.getMessage());
+            }
+            downloadClient = null;
+        }
+
+        httpClient = null;
+    }
+
+    /**
+     * Gets the pooled HttpClient shared by all the requests. If the pool was not configured yet
+     * it's created using the default configuration
+     *
+     * @return HttpClient
+     */
+    public static synchronized HttpClient getHttpClient() {
+        if (httpClient == null)
+            configureConnectionPool(new ConnectionPoolConfig());
+        return httpClient;
+    }
+
+    /**
+     * Gets the pooled CloseableHttpClient used to download resources
+     *
+     * @return CloseableHttpClient
+     */
+    public static synchronized CloseableHttpClient getDownloadClient() {
+        if (downloadClient == null)
+            configureConnectionPool(new ConnectionPoolConfig());
+        return downloadClient;
+    }
+
+
+    /**
+     * Handles the body of a HTTP response as a stream, so it can be decoded while it's read from the socket
+     *
+     * @param <T> the type of the object returned by the handler
+     * @param <E> the type of the exception thrown by the handler
+     */
+    @FunctionalInterface
+    public interface ResponseStreamHandler<T, E extends Exception> {
+
+        /**
+         * Handles the response
+         *
+         * @param statusCode the HTTP status code of the response
+         * @param body       the stream with the body of the response. It's closed after the handler returns
+         * @return the object built from the response
+         * @throws E if the response can not be handled
+         */
+        T handleResponse(int statusCode, InputStream body) throws E;
+    }
 
     public static class DownloadResult {
 
@@ -180,7 +381,7 @@ public abstract class HttpHelper {
      */
 
     public static final HttpResponse httpClientGenericMethod(EntityEnclosingMethod method, ArrayList<NameValuePair> list, String payload) throws HttpException, UnsupportedEncodingException {
-        return httpClientGenericMethod(new HttpClient(), method, list, payload);
+        return httpClientGenericMethod(getHttpClient(), method, list, payload);
     }
 
     /**
@@ -235,6 +436,87 @@ public abstract class HttpHelper {
         return response;
     }
 
+    /**
+     * Send a HTTP request with parameters and pass the body of the response, as a stream, to a handler
+     *
+     * @param method  EntityEnclosingMethod
+     * @param list    list of params
+     * @param payload payload to add to the request
+     * @param handler the handler of the response
+     * @param <T>     the type of the object returned by the handler
+     * @param <E>     the type of the exception thrown by the handler
+     * @return the object returned by the handler
+     * @throws HttpException                HttpException
+     * @throws UnsupportedEncodingException UnsupportedEncodingException
+     * @throws E                            if the handler fails
+     */
+    public static final <T, E extends Exception> T httpClientGenericMethod(EntityEnclosingMethod method, ArrayList<NameValuePair> list, String payload, ResponseStreamHandler<T, E> handler)
+            throws HttpException, UnsupportedEncodingException, E {
+
+        if (null != payload && payload.length() > 0) {
+            method.setRequestEntity(new StringRequestEntity(
+                    payload,
+                    ContentType.APPLICATION_JSON.toString(),
+                    "UTF-8"));
+        }
+
+        if (list.size() > 0 && method instanceof PostMethod)
+            ((PostMethod) method).addParameters(list.toArray(new NameValuePair[0]));
+
+        return httpClientExecute(getHttpClient(), method, handler);
+    }
+
+    /**
+     * Send a HTTP GET request and pass the body of the response, as a stream, to a handler
+     *
+     * @param url     the url
+     * @param handler the handler of the response
+     * @param <T>     the type of the object returned by the handler
+     * @param <E>     the type of the exception thrown by the handler
+     * @return the object returned by the handler
+     * @throws HttpException HttpException
+     * @throws E             if the handler fails
+     */
+    public static final <T, E extends Exception> T httpClientGet(String url, ResponseStreamHandler<T, E> handler) throws HttpException, E {
+        return httpClientExecute(getHttpClient(), new GetMethod(url), handler);
+    }
+
+    /**
+     * Executes a HTTP request and pass the body of the response, as a stream, to a handler.
+     * The connection is released once the handler returns
+     *
+     * @param client  HttpClient
+     * @param method  HttpMethodBase
+     * @param handler the handler of the response
+     * @param <T>     the type of the object returned by the handler
+     * @param <E>     the type of the exception thrown by the handler
+     * @return the object returned by the handler
+     * @throws HttpException HttpException
+     * @throws E             if the handler fails
+     */
+    public static final <T, E extends Exception> T httpClientExecute(HttpClient client, HttpMethodBase method, ResponseStreamHandler<T, E> handler) throws HttpException, E {
+        log.debug("Executing " + method.getName() + " request: " + method.getPath());
+
+        try {
+            client.executeMethod(method);
+        } catch (IOException e) {
+            method.releaseConnection();
+            log.error("Error in HTTP request " + e.getMessage());
+            throw new HttpException("Error in HTTP request");
+        }
+
+        try (InputStream body = method.getResponseBodyAsStream()) {
+            return handler.handleResponse(
+                    method.getStatusCode(),
+                    body != null ? body : new ByteArrayInputStream(new byte[0]));
+        } catch (IOException e) {
+            log.error("Error reading HTTP response " + e.getMessage());
+            throw new HttpException("Error reading HTTP response");
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
     /**
      * Send a HTTP GET request and return the HttpResponse object
      *
@@ -243,7 +525,7 @@ public abstract class HttpHelper {
      * @throws HttpException HttpException
      */
     public static final HttpResponse httpClientGet(String url) throws HttpException {
-        return httpClientGet(new HttpClient(), new GetMethod(url));
+        return httpClientGet(getHttpClient(), new GetMethod(url));
     }
 
 
@@ -314,9 +596,7 @@ public abstract class HttpHelper {
      */
     public static DownloadResult downloadResource(String url, String destinationPath) throws IOException, URISyntaxException {
 
-        CloseableHttpClient httpclient = HttpClients.custom()
-                .setRedirectStrategy(new LaxRedirectStrategy()) // adds HTTP REDIRECT support to GET and POST methods
-                .build();
+        CloseableHttpClient httpclient = getDownloadClient();
 
         try {
 
@@ -396,7 +676,7 @@ public abstract class HttpHelper {
      * @throws HttpException Http error
      */
     public static final HttpResponse httpClientDelete(String url) throws HttpException {
-        return httpClientRead(new HttpClient(), new DeleteMethod(url));
+        return httpClientRead(getHttpClient(), new DeleteMethod(url));
     }
 
 
@@ -1,8 +1,12 @@
 package com.oceanprotocol.squid.manager;
 
+import com.oceanprotocol.keeper.contracts.AgreementStoreManager;
+import com.oceanprotocol.keeper.contracts.ConditionStoreManager;
+import com.oceanprotocol.keeper.contracts.EscrowAccessSecretStoreTemplate;
 import com.oceanprotocol.squid.exceptions.ConditionNotFoundException;
 import com.oceanprotocol.squid.external.AquariusService;
 import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.external.web3.TransactionReceiptWatcher;
 import com.oceanprotocol.squid.helpers.EncodingHelper;
 import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.service.AccessService;
@@ -10,12 +14,29 @@ import com.oceanprotocol.squid.models.service.Agreement;
 import com.oceanprotocol.squid.models.service.AgreementStatus;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.Utils;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
 import org.web3j.crypto.Keys;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.web3j.tuples.generated.Tuple7;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class AgreementsManager extends BaseManager {
 
@@ -62,6 +83,68 @@ public class AgreementsManager extends BaseManager {
         return txReceipt.isStatusOK();
     }
 
+    /**
+     * Create an agreement using the escrowAccessSecretStoreTemplate, without waiting for the transaction to be mined
+     * in the calling thread.
+     *
+     * @param agreementId    the agreement id
+     * @param ddo            the ddo
+     * @param conditionIds   list with the conditions ids
+     * @param accessConsumer eth address of the consumer of the agreement.
+     * @param accessService  an instance of accessService
+     * @return a CompletableFuture that completes with true if the transaction was mined successfully
+     * @throws Exception exception
+     */
+    public CompletableFuture<Boolean> createAgreementAsync(String agreementId, DDO ddo, List<byte[]> conditionIds,
+                                                           String accessConsumer, AccessService accessService) throws Exception {
+
+        TransactionReceiptWatcher receiptWatcher = getKeeperService().getReceiptWatcher();
+        if (receiptWatcher == null) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return createAgreement(agreementId, ddo, conditionIds, accessConsumer, accessService);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        }
+
+        log.debug("Creating agreement with id: " + agreementId);
+        Function function = new Function(EscrowAccessSecretStoreTemplate.FUNC_CREATEAGREEMENT,
+                Arrays.asList(
+                        new Bytes32(EncodingHelper.hexStringToBytes("0x" + agreementId)),
+                        new Bytes32(EncodingHelper.hexStringToBytes("0x" + ddo.getDid().getHash())),
+                        new DynamicArray<Bytes32>(Utils.typeMap(conditionIds, Bytes32.class)),
+                        new DynamicArray<Uint256>(Utils.typeMap(accessService.retrieveTimeOuts(), Uint256.class)),
+                        new DynamicArray<Uint256>(Utils.typeMap(accessService.retrieveTimeLocks(), Uint256.class)),
+                        new Address(accessConsumer)),
+                Collections.emptyList());
+
+        EthSendTransaction transaction = getKeeperService().getTxManager().sendTransaction(
+                getKeeperService().getContractGasProvider().getGasPrice(function.getName()),
+                getKeeperService().getContractGasProvider().getGasLimit(function.getName()),
+                escrowAccessSecretStoreTemplate.getContractAddress(),
+                FunctionEncoder.encode(function),
+                BigInteger.ZERO);
+
+        if (transaction.hasError())
+            throw new IOException("Error creating agreement " + agreementId + ": " + transaction.getError().getMessage());
+
+        return receiptWatcher.watch(transaction.getTransactionHash())
+                .thenApply(TransactionReceipt::isStatusOK);
+    }
+
+    /**
+     * Checks if an agreement exists on-chain
+     *
+     * @param agreementId id of the agreement
+     * @return true if the agreement exists
+     * @throws Exception Exception
+     */
+    public boolean isAgreementCreated(String agreementId) throws Exception {
+        return !getAgreement(agreementId).templateId.equals("0x0000000000000000000000000000000000000000");
+    }
+
     /**
      * Retrieve the agreement for a agreement_id.
      *
@@ -81,25 +164,85 @@ public class AgreementsManager extends BaseManager {
      * @throws Exception Exception
      */
     public AgreementStatus getStatus(String agreementId) throws Exception {
+        return getStatus(Collections.singletonList(agreementId)).get(0);
+    }
 
-        List<byte[]> condition_ids = agreementStoreManager.getAgreement(EncodingHelper.hexStringToBytes(agreementId)).send().getValue4();
-        AgreementStatus agreementStatus = new AgreementStatus();
-        agreementStatus.agreementId = agreementId;
-        AgreementStatus.ConditionStatusMap condition = new AgreementStatus.ConditionStatusMap();
+    /**
+     * Get the status of several service agreements.
+     * The agreements are requested in a single JSON-RPC batch, and then the conditions of all of them in another one
+     *
+     * @param agreementIds ids of the agreements
+     * @return a list with the AgreementStatus of every agreement, in the same order than the ids
+     * @throws Exception Exception
+     */
+    public List<AgreementStatus> getStatus(List<String> agreementIds) throws Exception {
 
-        for (int i = 0; i <= condition_ids.size() - 1; i++) {
+        List<Function> agreementFunctions = new ArrayList<>();
+        for (String agreementId : agreementIds) {
+            agreementFunctions.add(getAgreementFunction(agreementId));
+        }
+        List<List<Type>> agreements = callAll(agreementStoreManager.getContractAddress(), agreementFunctions);
 
-            Tuple7<String, BigInteger, BigInteger, BigInteger, BigInteger, String, BigInteger> agreementCondition =
-                    conditionStoreManager.getCondition(condition_ids.get(i)).send();
+        List<Function> conditionFunctions = new ArrayList<>();
+        for (List<Type> agreement : agreements) {
+            for (Bytes32 conditionId : getConditionIds(agreement)) {
+                conditionFunctions.add(getConditionFunction(conditionId));
+            }
+        }
+        List<List<Type>> conditions = callAll(conditionStoreManager.getContractAddress(), conditionFunctions);
 
-            String address = agreementCondition.getValue1();
-            String conditionName = getConditionNameByAddress(Keys.toChecksumAddress(address));
-            BigInteger state = agreementCondition.getValue2();
-            condition.conditions.put(conditionName, state);
+        List<AgreementStatus> statuses = new ArrayList<>();
+        int conditionIndex = 0;
+        for (int i = 0; i < agreementIds.size(); i++) {
 
+            AgreementStatus agreementStatus = new AgreementStatus();
+            agreementStatus.agreementId = agreementIds.get(i);
+            AgreementStatus.ConditionStatusMap condition = new AgreementStatus.ConditionStatusMap();
+
+            int numConditions = getConditionIds(agreements.get(i)).size();
+            for (int j = 0; j < numConditions; j++, conditionIndex++) {
+
+                List<Type> agreementCondition = conditions.get(conditionIndex);
+                String address = ((Address) agreementCondition.get(0)).getValue();
+                String conditionName = getConditionNameByAddress(Keys.toChecksumAddress(address));
+                BigInteger state = ((Uint8) agreementCondition.get(1)).getValue();
+                condition.conditions.put(conditionName, state);
+            }
+
+            agreementStatus.conditions.add(condition);
+            statuses.add(agreementStatus);
         }
-        agreementStatus.conditions.add(condition);
-        return agreementStatus;
+        return statuses;
+    }
+
+    private static Function getAgreementFunction(String agreementId) throws UnsupportedEncodingException {
+        return new Function(AgreementStoreManager.FUNC_GETAGREEMENT,
+                Collections.singletonList(new Bytes32(EncodingHelper.hexStringToBytes(agreementId))),
+                Arrays.asList(new TypeReference<Bytes32>() {
+                }, new TypeReference<Address>() {
+                }, new TypeReference<Address>() {
+                }, new TypeReference<DynamicArray<Bytes32>>() {
+                }, new TypeReference<Address>() {
+                }, new TypeReference<Uint256>() {
+                }));
+    }
+
+    private static Function getConditionFunction(Bytes32 conditionId) {
+        return new Function(ConditionStoreManager.FUNC_GETCONDITION,
+                Collections.singletonList(conditionId),
+                Arrays.asList(new TypeReference<Address>() {
+                }, new TypeReference<Uint8>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Address>() {
+                }, new TypeReference<Uint256>() {
+                }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Bytes32> getConditionIds(List<Type> agreement) {
+        return ((DynamicArray<Bytes32>) agreement.get(3)).getValue();
     }
 
     /**
@@ -16,6 +16,7 @@ import com.oceanprotocol.squid.models.asset.AssetMetadata;
 import com.oceanprotocol.squid.models.service.MetadataService;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages the functionality related with Assets
@@ -116,6 +117,32 @@ public class AssetsManager extends BaseManager {
         return getAquariusService().searchDDO(searchQuery);
     }
 
+    /**
+     * Gets all the DDOs that match the search criteria without blocking the calling thread
+     *
+     * @param text   contains the criteria
+     * @param offset parameter to paginate the results
+     * @param page   parameter to paginate the results
+     * @return a CompletableFuture that completes with the SearchResult including the list of DDOs
+     */
+    public CompletableFuture<SearchResult> searchAssetsAsync(String text, int offset, int page) {
+        return getAquariusService().getAsyncService().searchDDO(text, offset, page);
+    }
+
+    /**
+     * Gets all the DDOs that match the parameters of the query without blocking the calling thread
+     *
+     * @param params contains the criteria
+     * @param offset parameter to paginate the results
+     * @param page   parameter to paginate the results
+     * @param sort   parameter to sort the results
+     * @return a CompletableFuture that completes with the SearchResult including the list of DDOs
+     */
+    public CompletableFuture<SearchResult> searchAssetsAsync(Map<String, Object> params, int offset, int page, int sort) {
+        SearchQuery searchQuery = new SearchQuery(params, offset, page, sort);
+        return getAquariusService().getAsyncService().searchDDO(searchQuery);
+    }
+
     /**
      * Retire the asset ddo from Aquarius.
      *
@@ -9,9 +9,11 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.oceanprotocol.keeper.contracts.*;
 import com.oceanprotocol.secretstore.core.EvmDto;
 import com.oceanprotocol.secretstore.core.SecretStoreDto;
+import com.oceanprotocol.squid.core.logs.BlockRangeLogScanner;
 import com.oceanprotocol.squid.exceptions.DDOException;
 import com.oceanprotocol.squid.exceptions.DIDFormatException;
 import com.oceanprotocol.squid.exceptions.EncryptionException;
+import com.oceanprotocol.squid.exceptions.EthereumException;
 import com.oceanprotocol.squid.external.AquariusService;
 import com.oceanprotocol.squid.external.KeeperService;
 import com.oceanprotocol.squid.helpers.EncodingHelper;
@@ -24,9 +26,17 @@ import com.oceanprotocol.squid.models.service.AuthorizationService;
 import com.oceanprotocol.squid.models.service.MetadataService;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
 import org.web3j.crypto.CipherException;
 import org.web3j.crypto.Credentials;
 import org.web3j.crypto.Sign;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -42,6 +52,7 @@ public abstract class BaseManager {
     private SecretStoreDto secretStoreDto;
     private EvmDto evmDto;
     private SecretStoreManager secretStoreManager;
+    private BlockRangeLogScanner blockRangeLogScanner;
     protected OceanToken tokenContract;
     protected Dispenser dispenser;
     protected DIDRegistry didRegistry;
@@ -142,6 +153,43 @@ public abstract class BaseManager {
     }
 
 
+    /**
+     * Calls several constant functions of a contract, sending all the eth_call requests in a single JSON-RPC batch
+     *
+     * @param contractAddress the address of the contract
+     * @param functions       the functions to call
+     * @return the values returned by every function, in the same order than the functions
+     * @throws EthereumException if any of the calls fails
+     */
+    protected List<List<Type>> callAll(String contractAddress, List<Function> functions) throws EthereumException {
+
+        List<Request<?, EthCall>> requests = new ArrayList<>();
+        for (Function function : functions) {
+            requests.add(getKeeperService().getWeb3().ethCall(
+                    Transaction.createEthCallTransaction(getKeeperService().getAddress(), contractAddress, FunctionEncoder.encode(function)),
+                    DefaultBlockParameterName.LATEST));
+        }
+
+        List<EthCall> responses;
+        try {
+            responses = getKeeperService().getJsonRpcBatch().send(requests, EthCall.class);
+        } catch (IOException e) {
+            throw new EthereumException("Error calling contract " + contractAddress + ": " + e.getMessage(), e);
+        }
+
+        List<List<Type>> results = new ArrayList<>();
+        for (int i = 0; i < functions.size(); i++) {
+
+            EthCall response = responses.get(i);
+            if (response == null || response.hasError())
+                throw new EthereumException("Error calling " + functions.get(i).getName() + " of contract " + contractAddress + ": "
+                        + (response == null ? "no response" : response.getError().getMessage()));
+
+            results.add(FunctionReturnDecoder.decode(response.getValue(), functions.get(i).getOutputParameters()));
+        }
+        return results;
+    }
+
     public ContractAddresses getContractAddresses() {
         return contractAddresses;
     }
@@ -166,6 +214,29 @@ public abstract class BaseManager {
         return this;
     }
 
+    /**
+     * Get the BlockRangeLogScanner used to retrieve the logs of the contracts.
+     * If none was set, a scanner with the default configuration is created
+     *
+     * @return BlockRangeLogScanner
+     */
+    public synchronized BlockRangeLogScanner getBlockRangeLogScanner() {
+        if (blockRangeLogScanner == null)
+            blockRangeLogScanner = new BlockRangeLogScanner(keeperService.getWeb3());
+        return blockRangeLogScanner;
+    }
+
+    /**
+     * Set the BlockRangeLogScanner
+     *
+     * @param blockRangeLogScanner BlockRangeLogScanner
+     * @return this
+     */
+    public synchronized BaseManager setBlockRangeLogScanner(BlockRangeLogScanner blockRangeLogScanner) {
+        this.blockRangeLogScanner = blockRangeLogScanner;
+        return this;
+    }
+
     /**
      * Get the AquariusService
      *
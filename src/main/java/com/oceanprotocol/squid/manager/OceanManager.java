@@ -6,24 +6,42 @@
 package com.oceanprotocol.squid.manager;
 
 import com.oceanprotocol.keeper.contracts.EscrowAccessSecretStoreTemplate;
+import com.oceanprotocol.squid.core.cache.DDOResolutionCache;
+import com.oceanprotocol.squid.core.index.DIDEventIndex;
+import com.oceanprotocol.keeper.contracts.AccessSecretStoreCondition;
+import com.oceanprotocol.squid.core.sla.AgreementConfirmation;
+import com.oceanprotocol.squid.core.sla.AgreementEventMultiplexer;
+import com.oceanprotocol.squid.core.sla.OrderJournal;
 import com.oceanprotocol.squid.core.sla.ServiceAgreementHandler;
 import com.oceanprotocol.squid.core.sla.functions.FulfillEscrowReward;
 import com.oceanprotocol.squid.core.sla.functions.FulfillLockReward;
+import com.oceanprotocol.squid.core.timer.TimingWheel;
+import com.oceanprotocol.squid.core.token.AllowanceTracker;
 import com.oceanprotocol.squid.exceptions.*;
+import com.oceanprotocol.squid.external.AquariusAsyncService;
 import com.oceanprotocol.squid.external.AquariusService;
 import com.oceanprotocol.squid.external.BrizoService;
 import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.external.web3.ChainHeadTracker;
 import com.oceanprotocol.squid.helpers.EncodingHelper;
 import com.oceanprotocol.squid.helpers.EthereumHelper;
+import com.oceanprotocol.squid.helpers.HexCodec;
+import com.oceanprotocol.squid.helpers.HttpHelper;
 import com.oceanprotocol.squid.helpers.UrlHelper;
 import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.Order;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
 import com.oceanprotocol.squid.models.asset.BasicAssetInfo;
+import com.oceanprotocol.squid.models.asset.OrderRequest;
 import com.oceanprotocol.squid.models.asset.OrderResult;
 import com.oceanprotocol.squid.models.service.*;
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.functions.Action;
+import io.reactivex.schedulers.Schedulers;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.web3j.abi.EventEncoder;
@@ -42,9 +60,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
+import java.net.URISyntaxException;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles several operations related with Ocean's flow
@@ -52,8 +74,40 @@ import java.util.concurrent.TimeoutException;
 public class OceanManager extends BaseManager {
 
     private static final Logger log = LogManager.getLogger(OceanManager.class);
+
+    public static final long DEFAULT_ORDER_TIMEOUT = 120000l;
+    public static final int DEFAULT_ORDER_PARALLELISM = 10;
     private AgreementsManager agreementsManager;
     private TemplatesManager templatesManager;
+    private DDOResolutionCache ddoResolutionCache;
+    private Disposable didRegistryWatcher;
+    private DIDEventIndex didEventIndex;
+    private AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> agreementCreatedMultiplexer;
+    private AgreementEventMultiplexer<AccessSecretStoreCondition.FulfilledEventResponse> fulfilledMultiplexer;
+    private int maxRequestsPerHost = HttpHelper.ConnectionPoolConfig.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+    private long orderTimeout = DEFAULT_ORDER_TIMEOUT;
+    private BigInteger approvalBudget = BigInteger.ZERO;
+    private int orderParallelism = DEFAULT_ORDER_PARALLELISM;
+    private AllowanceTracker allowanceTracker;
+    private OrderJournal orderJournal;
+    private TimingWheel<PendingRefund> refundScheduler;
+
+    /**
+     * Order waiting for the access to the asset, that is refunded if the access is not granted before its deadline
+     */
+    private static class PendingRefund {
+
+        private final DDO ddo;
+        private final String serviceDefinitionId;
+        private final String serviceAgreementId;
+        private final CompletableFuture<OrderResult> result = new CompletableFuture<>();
+
+        private PendingRefund(DDO ddo, String serviceDefinitionId, String serviceAgreementId) {
+            this.ddo = ddo;
+            this.serviceDefinitionId = serviceDefinitionId;
+            this.serviceAgreementId = serviceAgreementId;
+        }
+    }
 
     protected OceanManager(KeeperService keeperService, AquariusService aquariusService) {
         super(keeperService, aquariusService);
@@ -81,6 +135,188 @@ public class OceanManager extends BaseManager {
         return this;
     }
 
+    /**
+     * It sets the cache used to resolve DIDs. A null cache disables the caching
+     *
+     * @param ddoResolutionCache the cache
+     * @return this instance of OceanManager
+     */
+    public OceanManager setDDOResolutionCache(DDOResolutionCache ddoResolutionCache) {
+        this.ddoResolutionCache = ddoResolutionCache;
+        return this;
+    }
+
+    public DDOResolutionCache getDDOResolutionCache() {
+        return ddoResolutionCache;
+    }
+
+    /**
+     * It sets the local index of DIDRegistry and Fulfilled events. If it's set, DIDs and the assets of owners
+     * and consumers are looked up in the index instead of scanning all the chain
+     *
+     * @param didEventIndex the index
+     * @return this instance of OceanManager
+     */
+    public OceanManager setDIDEventIndex(DIDEventIndex didEventIndex) {
+        this.didEventIndex = didEventIndex;
+        return this;
+    }
+
+    public DIDEventIndex getDIDEventIndex() {
+        return didEventIndex;
+    }
+
+    /**
+     * It sets the journal where the progress of the orders is recorded, so the orders in flight can be resumed
+     * after a restart
+     *
+     * @param orderJournal the journal
+     * @return this instance of OceanManager
+     */
+    public OceanManager setOrderJournal(OrderJournal orderJournal) {
+        this.orderJournal = orderJournal;
+        return this;
+    }
+
+    public OrderJournal getOrderJournal() {
+        return orderJournal;
+    }
+
+    /**
+     * It sets the maximum number of concurrent requests sent to the same Aquarius host when several DIDs are resolved
+     *
+     * @param maxRequestsPerHost the maximum number of requests
+     * @return this instance of OceanManager
+     */
+    public OceanManager setMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    /**
+     * It sets the time to wait for the access to an asset after purchasing it. After this time the payment is refunded
+     *
+     * @param orderTimeout the time in milliseconds
+     * @return this instance of OceanManager
+     */
+    public OceanManager setOrderTimeout(long orderTimeout) {
+        this.orderTimeout = orderTimeout;
+        return this;
+    }
+
+    /**
+     * It sets the minimum amount of tokens approved to the LockRewardCondition when the allowance doesn't cover the
+     * price of an order, so the next orders don't need to send an approve transaction
+     *
+     * @param approvalBudget the amount of tokens
+     * @return this instance of OceanManager
+     */
+    public OceanManager setApprovalBudget(BigInteger approvalBudget) {
+        this.approvalBudget = approvalBudget;
+        return this;
+    }
+
+    /**
+     * It sets the maximum number of purchases executed at the same time when several assets are ordered
+     *
+     * @param orderParallelism the maximum number of purchases
+     * @return this instance of OceanManager
+     */
+    public OceanManager setOrderParallelism(int orderParallelism) {
+        this.orderParallelism = orderParallelism;
+        return this;
+    }
+
+    private DIDEventIndex syncDIDEventIndex() throws IOException {
+        didEventIndex.sync(getKeeperService().getWeb3(), getBlockRangeLogScanner(), didRegistry.getContractAddress(), accessSecretStoreCondition.getContractAddress());
+        return didEventIndex;
+    }
+
+    private CompletableFuture<DIDEventIndex> syncDIDEventIndexAsync() {
+        return didEventIndex.syncAsync(getKeeperService().getWeb3(), getBlockRangeLogScanner(), didRegistry.getContractAddress(), accessSecretStoreCondition.getContractAddress())
+                .thenApply(caughtUp -> didEventIndex);
+    }
+
+    private BigInteger getChainHead() throws IOException {
+        ChainHeadTracker chainHeadTracker = getKeeperService().getChainHeadTracker();
+        if (chainHeadTracker != null)
+            return chainHeadTracker.getBlockNumber();
+        return getKeeperService().getWeb3().ethBlockNumber().send().getBlockNumber();
+    }
+
+    /**
+     * Gets the last registration of a DID from the index. When the index is behind the head of the chain it's
+     * caught up before, joining the catch-up in progress if any, because the DID could be registered again in the
+     * blocks not indexed yet
+     *
+     * @param did the did
+     * @return the registration or null if the DID was not registered
+     * @throws IOException if the index can not be caught up
+     */
+    private DIDEventIndex.Registration getDIDRegistration(DID did) throws IOException {
+
+        BigInteger head = getChainHead();
+        if (didEventIndex.getCheckpoint().compareTo(head) < 0) {
+            syncDIDEventIndex();
+            // the catch-up joined could have started before the head was read
+            if (didEventIndex.getCheckpoint().compareTo(head) < 0)
+                syncDIDEventIndex();
+        }
+        return didEventIndex.getRegistration(did.getHash());
+    }
+
+    private DDO resolveDIDFromIndex(DID did) throws IOException, URISyntaxException, DDOException {
+
+        DIDEventIndex.Registration registration = getDIDRegistration(did);
+        if (registration == null)
+            throw new DDOException("No events found for " + did.toString());
+
+        String didUrl = UrlHelper.parseDDOUrl(registration.getUrl(), did.toString());
+        DDO ddo = AquariusService.getInstance(UrlHelper.getBaseUrl(didUrl)).getDDO(didUrl);
+
+        if (ddoResolutionCache != null)
+            ddoResolutionCache.put(did, ddo, registration.getBlockNumber());
+
+        return ddo;
+    }
+
+    /**
+     * Removes a DID from the resolution cache, if any
+     *
+     * @param did the did
+     */
+    public void evictResolvedDDO(DID did) {
+        if (ddoResolutionCache != null)
+            ddoResolutionCache.invalidate(did);
+    }
+
+    /**
+     * Starts listening to the DIDAttributeRegistered events of the DIDRegistry contract, invalidating the
+     * DDOs of the resolution cache registered again after they were resolved
+     *
+     * @return the subscription to the events
+     */
+    public Disposable watchDIDRegistry() {
+
+        if (ddoResolutionCache == null)
+            return Disposables.disposed();
+
+        if (didRegistryWatcher != null && !didRegistryWatcher.isDisposed())
+            return didRegistryWatcher;
+
+        didRegistryWatcher = didRegistry.dIDAttributeRegisteredEventFlowable(
+                DefaultBlockParameterName.LATEST,
+                DefaultBlockParameterName.LATEST)
+                .subscribe(
+                        event -> ddoResolutionCache.onDIDAttributeRegistered(
+                                DID.getFromHash(HexCodec.encode(event._did, false)),
+                                event.log.getBlockNumber()),
+                        e -> log.warn("Error watching the DIDRegistry events: " + e.getMessage())
+                );
+
+        return didRegistryWatcher;
+    }
+
     /**
      * Given a DDO, returns a DID created using the ddo
      *
@@ -103,47 +339,258 @@ public class OceanManager extends BaseManager {
      */
     public DDO resolveDID(DID did) throws EthereumException, DDOException {
 
+        if (ddoResolutionCache != null) {
+            DDO cachedDDO = ddoResolutionCache.get(did);
+            if (cachedDDO != null)
+                return cachedDDO;
+        }
+
+        try {
+
+            if (didEventIndex != null)
+                return resolveDIDFromIndex(did);
+
+            List<EthLog.LogResult> didLogs;
+
+            try {
+                didLogs = getBlockRangeLogScanner().getLogs(getDIDFilter(did));
+            } catch (IOException e) {
+                throw new EthereumException("Error searching DID " + did.toString() + " onchain: " + e.getMessage());
+            }
+
+            EthLog.LogObject didLog = getLastDIDLog(did, didLogs);
+            String didUrl = getDDOUrl(did, didLog);
+
+            AquariusService ddoAquariosDto = AquariusService.getInstance(UrlHelper.getBaseUrl(didUrl));
+            DDO ddo = ddoAquariosDto.getDDO(didUrl);
+
+            if (ddoResolutionCache != null)
+                ddoResolutionCache.put(did, ddo, didLog.getBlockNumber());
+
+            return ddo;
+
+        } catch (Exception ex) {
+            log.error("Unable to retrieve DDO " + ex.getMessage());
+            throw new DDOException("Unable to retrieve DDO " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Given a DID, scans the DIDRegistry events on-chain to resolve the
+     * Metadata API url and return the DDO found, without blocking the calling thread
+     *
+     * @param did the did
+     * @return a CompletableFuture that completes with the DDO
+     */
+    public CompletableFuture<DDO> resolveDIDAsync(DID did) {
+
+        if (ddoResolutionCache != null) {
+            DDO cachedDDO = ddoResolutionCache.get(did);
+            if (cachedDDO != null)
+                return CompletableFuture.completedFuture(cachedDDO);
+        }
+
+        CompletableFuture<DDO> resolution;
+
+        if (didEventIndex != null) {
+            // the index is caught up in its own thread, joining the catch-up in progress if any
+            resolution = syncDIDEventIndexAsync()
+                    .thenCompose(index -> {
+                        try {
+                            DIDEventIndex.Registration registration = index.getRegistration(did.getHash());
+                            if (registration == null)
+                                throw new DDOException("No events found for " + did.toString());
+                            String didUrl = UrlHelper.parseDDOUrl(registration.getUrl(), did.toString());
+                            return getDDOAsync(did, didUrl, registration.getBlockNumber());
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+        } else {
+            resolution = getBlockRangeLogScanner().getLogsAsync(getDIDFilter(did))
+                    .thenCompose(didLogs -> {
+                        try {
+                            EthLog.LogObject didLog = getLastDIDLog(did, didLogs);
+                            return getDDOAsync(did, getDDOUrl(did, didLog), didLog.getBlockNumber());
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+        }
+
+        return resolution.exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Unable to retrieve DDO " + cause.getMessage());
+            throw new CompletionException(new DDOException("Unable to retrieve DDO " + cause.getMessage(), cause));
+        });
+    }
+
+    private CompletableFuture<DDO> getDDOAsync(DID did, String didUrl, BigInteger blockNumber) throws URISyntaxException {
+
+        return AquariusAsyncService.getInstance(UrlHelper.getBaseUrl(didUrl)).getDDO(didUrl)
+                .thenApply(ddo -> {
+                    if (ddoResolutionCache != null)
+                        ddoResolutionCache.put(did, ddo, blockNumber);
+                    return ddo;
+                });
+    }
+
+    private EthFilter getDIDFilter(DID did) {
+        return getDIDFilter(Collections.singletonList(did));
+    }
+
+    private EthFilter getDIDFilter(Collection<DID> dids) {
+
         EthFilter didFilter = new EthFilter(
                 DefaultBlockParameterName.EARLIEST,
                 DefaultBlockParameterName.LATEST,
                 didRegistry.getContractAddress()
         );
 
-        try {
+        final String eventSignature = EventEncoder.encode(didRegistry.DIDATTRIBUTEREGISTERED_EVENT);
+        didFilter.addSingleTopic(eventSignature);
 
-            final Event event = didRegistry.DIDATTRIBUTEREGISTERED_EVENT;
-            final String eventSignature = EventEncoder.encode(event);
-            didFilter.addSingleTopic(eventSignature);
+        String[] didTopics = dids.stream()
+                .map(did -> "0x" + did.getHash())
+                .toArray(String[]::new);
+        didFilter.addOptionalTopics(didTopics);
+
+        return didFilter;
+    }
+
+    private EthLog.LogObject getLastDIDLog(DID did, List<EthLog.LogResult> logs) throws DDOException {
 
-            String didTopic = "0x" + did.getHash();
-            didFilter.addOptionalTopics(didTopic);
+        int numLogs = logs.size();
+        if (numLogs < 1)
+            throw new DDOException("No events found for " + did.toString());
 
-            EthLog ethLog;
+        return (EthLog.LogObject) logs.get(numLogs - 1);
+    }
+
+    private String getDDOUrl(DID did, EthLog.LogObject didLog) throws UnsupportedEncodingException {
+
+        List<Type> nonIndexed = FunctionReturnDecoder.decode(didLog.getData(), didRegistry.DIDATTRIBUTEREGISTERED_EVENT.getNonIndexedParameters());
+        String ddoUrl = nonIndexed.get(0).getValue().toString();
+        return UrlHelper.parseDDOUrl(ddoUrl, did.toString());
+    }
+
+    /**
+     * Given a collection of DIDs, returns the DDOs found.
+     * The DIDRegistry events of all the DIDs are retrieved in a single eth_getLogs request, and then
+     * the DDOs are fetched from Aquarius in parallel, limiting the number of requests in flight per host
+     *
+     * @param dids the dids
+     * @return a Map with the DDOs found, in the same order than the dids. The DIDs that can not be resolved are not included
+     * @throws EthereumException EthereumException
+     */
+    public Map<DID, DDO> resolveDIDs(Collection<DID> dids) throws EthereumException {
+
+        Map<DID, DDO> resolved = new ConcurrentHashMap<>();
+        Map<String, DID> pending = new LinkedHashMap<>();
+
+        for (DID did : dids) {
+            DDO cachedDDO = ddoResolutionCache != null ? ddoResolutionCache.get(did) : null;
+            if (cachedDDO != null)
+                resolved.put(did, cachedDDO);
+            else
+                pending.put(did.getHash().toLowerCase(), did);
+        }
+
+        Map<DID, String> didUrls = new LinkedHashMap<>();
+        Map<DID, BigInteger> didBlocks = new HashMap<>();
+
+        if (!pending.isEmpty()) {
 
             try {
-                ethLog = getKeeperService().getWeb3().ethGetLogs(didFilter).send();
+
+                if (didEventIndex != null) {
+
+                    for (DID did : pending.values()) {
+                        DIDEventIndex.Registration registration = getDIDRegistration(did);
+                        if (registration == null)
+                            continue;
+                        didUrls.put(did, UrlHelper.parseDDOUrl(registration.getUrl(), did.toString()));
+                        didBlocks.put(did, registration.getBlockNumber());
+                    }
+
+                } else {
+
+                    List<EthLog.LogResult> didLogs = getBlockRangeLogScanner().getLogs(getDIDFilter(pending.values()));
+                    // the logs are sorted by block, so the last log of every DID is kept
+                    for (EthLog.LogResult logResult : didLogs) {
+                        EthLog.LogObject didLog = (EthLog.LogObject) logResult;
+                        DID did = pending.get(HexCodec.cleanPrefixLowerCase(didLog.getTopics().get(1)));
+                        if (did == null)
+                            continue;
+                        didUrls.put(did, getDDOUrl(did, didLog));
+                        didBlocks.put(did, didLog.getBlockNumber());
+                    }
+                }
+
             } catch (IOException e) {
-                throw new EthereumException("Error searching DID " + did.toString() + " onchain: " + e.getMessage());
+                throw new EthereumException("Error searching DIDs onchain: " + e.getMessage());
             }
+        }
 
-            List<EthLog.LogResult> logs = ethLog.getLogs();
+        // the DIDs of every host are requested by at most maxRequestsPerHost chains of requests
+        Map<String, Queue<Map.Entry<DID, String>>> hostQueues = new LinkedHashMap<>();
 
-            int numLogs = logs.size();
-            if (numLogs < 1)
-                throw new DDOException("No events found for " + did.toString());
+        for (Map.Entry<DID, String> didUrl : didUrls.entrySet()) {
+            try {
+                hostQueues.computeIfAbsent(UrlHelper.getBaseUrl(didUrl.getValue()), k -> new ConcurrentLinkedQueue<>()).add(didUrl);
+            } catch (URISyntaxException e) {
+                log.warn("Unable to retrieve DDO " + didUrl.getKey().toString() + ". Invalid url: " + didUrl.getValue());
+            }
+        }
 
-            EthLog.LogResult logResult = logs.get(numLogs - 1);
-            List<Type> nonIndexed = FunctionReturnDecoder.decode(((EthLog.LogObject) logResult).getData(), event.getNonIndexedParameters());
-            String ddoUrl = nonIndexed.get(0).getValue().toString();
-            String didUrl = UrlHelper.parseDDOUrl(ddoUrl, did.toString());
+        List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (Map.Entry<String, Queue<Map.Entry<DID, String>>> hostQueue : hostQueues.entrySet()) {
+            int chains = Math.min(maxRequestsPerHost, hostQueue.getValue().size());
+            for (int i = 0; i < chains; i++)
+                requests.add(resolveNextDID(hostQueue.getKey(), hostQueue.getValue(), resolved, didBlocks));
+        }
 
-            AquariusService ddoAquariosDto = AquariusService.getInstance(UrlHelper.getBaseUrl(didUrl));
-            return ddoAquariosDto.getDDO(didUrl);
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join();
 
-        } catch (Exception ex) {
-            log.error("Unable to retrieve DDO " + ex.getMessage());
-            throw new DDOException("Unable to retrieve DDO " + ex.getMessage());
+        Map<DID, DDO> ddos = new LinkedHashMap<>();
+        for (DID did : dids) {
+            if (resolved.containsKey(did))
+                ddos.put(did, resolved.get(did));
         }
+        return ddos;
+    }
+
+    /**
+     * Requests the DDOs of a queue of a host one after another, until the queue is empty. A failed request
+     * doesn't stop the next ones
+     */
+    private CompletableFuture<Void> resolveNextDID(String baseUrl, Queue<Map.Entry<DID, String>> queue,
+                                                   Map<DID, DDO> resolved, Map<DID, BigInteger> didBlocks) {
+
+        Map.Entry<DID, String> didUrl = queue.poll();
+        if (didUrl == null)
+            return CompletableFuture.completedFuture(null);
+
+        DID did = didUrl.getKey();
+        CompletableFuture<DDO> request;
+        try {
+            request = AquariusAsyncService.getInstance(baseUrl).getDDO(didUrl.getValue());
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+
+        return request
+                .handle((ddo, e) -> {
+                    if (e != null) {
+                        log.warn("Unable to retrieve DDO " + did.toString() + ": " + e.getMessage());
+                        return null;
+                    }
+                    resolved.put(did, ddo);
+                    if (ddoResolutionCache != null)
+                        ddoResolutionCache.put(did, ddo, didBlocks.get(did));
+                    return null;
+                })
+                .thenCompose(handled -> resolveNextDID(baseUrl, queue, resolved, didBlocks));
     }
 
 
@@ -171,6 +618,9 @@ public class OceanManager extends BaseManager {
                     url
             ).send();
 
+            if (ddoResolutionCache != null)
+                ddoResolutionCache.invalidate(did);
+
             //return receipt.getStatus().equals("0x1");
             return true;
 
@@ -281,8 +731,6 @@ public class OceanManager extends BaseManager {
     public Flowable<OrderResult> purchaseAsset(DID did, String serviceDefinitionId)
             throws OrderException {
 
-        String serviceAgreementId = ServiceAgreementHandler.generateSlaId();
-
         DDO ddo;
         // Checking if DDO is already there and serviceDefinitionId is included
         try {
@@ -293,41 +741,113 @@ public class OceanManager extends BaseManager {
             throw new OrderException("Error processing Order with DID " + did.getDid(), e);
         }
 
+        return purchaseAsset(did, ddo, serviceDefinitionId);
+    }
+
+    /**
+     * Purchases several Assets. The DDOs are resolved at once, and then the purchases are executed in parallel,
+     * sharing the listeners of the AgreementCreated and Fulfilled events
+     *
+     * @param orderRequests the assets to purchase
+     * @return a Flowable instance over the OrderResult of every order, emitted as they complete. The orders that fail
+     * emit an OrderResult with the error
+     * @throws OrderException OrderException
+     */
+    public Flowable<OrderResult> purchaseAssets(List<OrderRequest> orderRequests) throws OrderException {
+
+        List<DID> dids = new ArrayList<>();
+        for (OrderRequest orderRequest : orderRequests) {
+            dids.add(orderRequest.getDid());
+        }
+
+        Map<DID, DDO> ddos;
         try {
+            ddos = resolveDIDs(dids);
+        } catch (EthereumException e) {
+            log.error("Error resolving dids: " + e.getMessage());
+            throw new OrderException("Error processing Orders", e);
+        }
+
+        return Flowable.fromIterable(orderRequests)
+                .flatMap(orderRequest -> purchaseAsset(orderRequest, ddos.get(orderRequest.getDid())), orderParallelism);
+    }
+
+    private Flowable<OrderResult> purchaseAsset(OrderRequest orderRequest, DDO ddo) {
+
+        DID did = orderRequest.getDid();
+        Flowable<OrderResult> order = ddo == null ?
+                Flowable.error(new OrderException("Error processing Order with DID " + did.getDid() + ". The DID can not be resolved")) :
+                Flowable.defer(() -> purchaseAsset(did, ddo, orderRequest.getServiceDefinitionId()))
+                        .subscribeOn(Schedulers.io());
+
+        return order
+                .take(1)
+                .map(orderResult -> {
+                    orderResult.setDid(did);
+                    return orderResult;
+                })
+                .onErrorReturn(throwable -> {
+                    log.error("Error processing Order with DID " + did.getDid() + ": " + throwable.getMessage());
+                    String serviceAgreementId = throwable instanceof ServiceAgreementException ?
+                            ((ServiceAgreementException) throwable).getServiceAgreementId() : null;
+                    OrderResult orderResult = new OrderResult(serviceAgreementId, false, false);
+                    orderResult.setDid(did);
+                    orderResult.setError(throwable.getMessage());
+                    return orderResult;
+                });
+    }
+
+    private Flowable<OrderResult> purchaseAsset(DID did, DDO ddo, String serviceDefinitionId)
+            throws OrderException {
+
+        String serviceAgreementId = ServiceAgreementHandler.generateSlaId();
+
+        try {
+
+            // the balance and the allowance are checked while the agreement is created
+            BigInteger price = new BigInteger(ddo.metadata.base.price);
+            CompletableFuture<BigInteger> balance = this.tokenContract.balanceOf(getMainAccount().address).sendAsync();
+            CompletableFuture<Boolean> approval = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return getAllowanceTracker().reserve(price, approvalBudget);
+                } catch (TokenApproveException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            AtomicBoolean released = new AtomicBoolean(false);
+            Action releaseAllowance = () -> {
+                if (released.compareAndSet(false, true))
+                    approval.thenRun(() -> getAllowanceTracker().release(price));
+            };
 
             return this.initializeServiceAgreement(did, ddo, serviceDefinitionId, serviceAgreementId)
-                    .map(event -> EncodingHelper.toHexString(event._agreementId))
-                    .firstOrError()
-                    .toFlowable()
-                    .switchMap(eventServiceAgreementId -> {
-                        if (eventServiceAgreementId.isEmpty())
-                            return Flowable.empty();
-                        else {
-                            log.debug("Received AgreementCreated Event with Id: " + eventServiceAgreementId);
-                            getKeeperService().tokenApprove(this.tokenContract, lockRewardCondition.getContractAddress(), ddo.metadata.base.price);
-                            BigInteger balance = this.tokenContract.balanceOf(getMainAccount().address).send();
-                            if (balance.compareTo(new BigInteger(ddo.metadata.base.price)) < 0) {
+                    .switchMap(created -> {
+                        if (!created) {
+                            journal(serviceAgreementId, OrderJournal.State.FAILED, null);
+                            throw new ServiceAgreementException(serviceAgreementId, "The create Agreement Transaction has failed");
+                        }
+
+                        log.debug("Agreement created with Id: " + serviceAgreementId);
+                        journal(serviceAgreementId, OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+                        try {
+                            approval.join();
+                            if (balance.join().compareTo(price) < 0) {
                                 log.warn("Consumer account does not have sufficient token balance to fulfill the " +
                                         "LockRewardCondition. Do `requestTokens` using the `dispenser` contract then try this again.");
-                                log.info("token balance is: " + balance + " price is: " + ddo.metadata.base.price);
+                                log.info("token balance is: " + balance.join() + " price is: " + ddo.metadata.base.price);
                                 throw new Exception("LockRewardCondition.fulfill will fail due to insufficient token balance in the consumer account.");
                             }
-                            this.fulfillLockReward(ddo, serviceDefinitionId, eventServiceAgreementId);
-                            return ServiceAgreementHandler.listenForFulfilledEvent(accessSecretStoreCondition, serviceAgreementId);
+                            BigInteger fromBlock = lockReward(ddo, serviceDefinitionId, serviceAgreementId);
+                            // the Transfer event of the lock can arrive after the next order reads the allowance
+                            if (released.compareAndSet(false, true))
+                                getAllowanceTracker().spend(price);
+                            return waitForAccess(ddo, serviceDefinitionId, serviceAgreementId, fromBlock, orderTimeout);
+                        } finally {
+                            releaseAllowance.run();
                         }
                     })
-                    .map(event -> new OrderResult(serviceAgreementId, true, false))
-                    // TODO timout of the condition
-                    .timeout(120, TimeUnit.SECONDS)
+                    .doFinally(releaseAllowance)
                     .onErrorReturn(throwable -> {
-
-                        if (throwable instanceof TimeoutException) {
-                            // If we get a timeout listening for an AccessSecretStoreCondition Fulfilled Event,
-                            // we must perform a refund executing escrowReward.fulfill
-                            this.fulfillEscrowReward(ddo, serviceDefinitionId, serviceAgreementId);
-                            return new OrderResult(serviceAgreementId, false, true);
-                        }
-
                         String msg = "There was a problem executing the Service Agreement " + serviceAgreementId;
                         throw new ServiceAgreementException(serviceAgreementId, msg, throwable);
                     });
@@ -347,11 +867,11 @@ public class OceanManager extends BaseManager {
      * @param ddo                 the ddi
      * @param serviceDefinitionId the service definition id
      * @param serviceAgreementId  the service agreement id
-     * @return a Flowable over an AgreementInitializedEventResponse
+     * @return a Flowable that emits true when the agreement is created, or false if it's not created before the order timeout
      * @throws ServiceException          ServiceException
      * @throws ServiceAgreementException ServiceAgreementException
      */
-    private Flowable<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> initializeServiceAgreement(DID did, DDO ddo, String serviceDefinitionId, String serviceAgreementId)
+    private Flowable<Boolean> initializeServiceAgreement(DID did, DDO ddo, String serviceDefinitionId, String serviceAgreementId)
             throws  ServiceException, ServiceAgreementException {
 
         Boolean isTemplateApproved;
@@ -367,32 +887,27 @@ public class OceanManager extends BaseManager {
             throw new ServiceAgreementException(serviceAgreementId, "The template is not approved");
 
         AccessService accessService = ddo.getAccessService(serviceDefinitionId);
-        Boolean result = false;
+        CompletableFuture<Boolean> confirmation;
 
         try {
+            // the events are listened before sending the transaction, so the event can't be missed
+            BigInteger fromBlock = getCurrentBlock();
+            Flowable<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> events =
+                    getAgreementCreatedMultiplexer().listen(serviceAgreementId, fromBlock);
+
+            if (orderJournal != null)
+                orderJournal.create(serviceAgreementId, did.getDid(), serviceDefinitionId, fromBlock);
+
             List<byte[]> conditionsId = accessService.generateConditionIds(serviceAgreementId, this, ddo, Keys.toChecksumAddress(getMainAccount().getAddress()));
-            result = this.agreementsManager.createAgreement(serviceAgreementId,
+            CompletableFuture<Boolean> transaction = this.agreementsManager.createAgreementAsync(serviceAgreementId,
                     ddo,
                     conditionsId,
                     Keys.toChecksumAddress(getMainAccount().getAddress()),
                     accessService
             );
 
-            if (!result) {
-                int retries = 5;
-                int sleepTime = 2000;
-                for(int i=0; i<retries&&!result;i++){
-                    log.debug("Checking if the agreement is on-chain...");
-                    Agreement agreement = agreementsManager.getAgreement(serviceAgreementId);
-                    if(!agreement.templateId.equals("0x0000000000000000000000000000000000000000")){
-                        result = true;
-                        break;
-                    }
-                    Thread.sleep(sleepTime);
-                }
-                if (!result)
-                    throw new ServiceAgreementException(serviceAgreementId, "The create Agreement Transaction has failed");
-            }
+            confirmation = AgreementConfirmation.confirm(events, transaction,
+                    () -> agreementsManager.isAgreementCreated(serviceAgreementId), orderTimeout);
 
         } catch (Exception e) {
             String msg = "Error creating Service Agreement: " + serviceAgreementId;
@@ -400,9 +915,272 @@ public class OceanManager extends BaseManager {
             throw new ServiceAgreementException(serviceAgreementId, msg, e);
         }
 
-        // 4. Listening of events
-        return ServiceAgreementHandler.listenExecuteAgreement(escrowAccessSecretStoreTemplate, serviceAgreementId);
+        return toFlowable(confirmation);
+
+    }
+
+    private static <T> Flowable<T> toFlowable(CompletableFuture<T> future) {
 
+        return Flowable.<T>create(emitter -> future.whenComplete((result, error) -> {
+            if (error != null)
+                emitter.onError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            else {
+                emitter.onNext(result);
+                emitter.onComplete();
+            }
+        }), BackpressureStrategy.BUFFER)
+                // the next steps wait for transactions, so they can't run in the threads that notify the events and receipts
+                .observeOn(Schedulers.io());
+    }
+
+    /**
+     * Executes the fulfill of the LockRewardCondition of an agreement already created
+     *
+     * @param ddo                 the ddo
+     * @param serviceDefinitionId the service definition id
+     * @param serviceAgreementId  the service agreement id
+     * @return the first block where the Fulfilled event of the AccessSecretStoreCondition can be
+     * @throws Exception if the reward can not be locked
+     */
+    private BigInteger lockReward(DDO ddo, String serviceDefinitionId, String serviceAgreementId) throws Exception {
+
+        BigInteger fromBlock = getCurrentBlock();
+        this.fulfillLockReward(ddo, serviceDefinitionId, "0x" + serviceAgreementId);
+        journal(serviceAgreementId, OrderJournal.State.REWARD_LOCKED, fromBlock);
+        return fromBlock;
+    }
+
+    /**
+     * Waits for the access to an asset already paid. If the access is not granted before the deadline the payment is
+     * refunded, together with the rest of orders expired at the same time
+     *
+     * @param ddo                 the ddo
+     * @param serviceDefinitionId the service definition id
+     * @param serviceAgreementId  the service agreement id
+     * @param fromBlock           first block where the Fulfilled event can be
+     * @param timeout             time in milliseconds to wait for the access
+     * @return a Flowable over the OrderResult
+     * @throws ServiceException ServiceException
+     */
+    private Flowable<OrderResult> waitForAccess(DDO ddo, String serviceDefinitionId, String serviceAgreementId,
+                                                BigInteger fromBlock, long timeout) throws ServiceException {
+
+        PendingRefund pendingRefund = new PendingRefund(ddo, serviceDefinitionId, serviceAgreementId);
+        long deadline = System.currentTimeMillis() + getRefundDelay(ddo.getAccessService(serviceDefinitionId), timeout);
+        getRefundScheduler().schedule(serviceAgreementId, pendingRefund, deadline);
+
+        // an event received after the deadline is ignored, the refund is already in progress
+        Flowable<OrderResult> access = getFulfilledMultiplexer().listen(serviceAgreementId, fromBlock)
+                .filter(event -> getRefundScheduler().cancel(serviceAgreementId))
+                .map(event -> {
+                    journal(serviceAgreementId, OrderJournal.State.ACCESS_GRANTED, null);
+                    return new OrderResult(serviceAgreementId, true, false);
+                });
+
+        return Flowable.ambArray(access, toFlowable(pendingRefund.result))
+                .doOnCancel(() -> getRefundScheduler().cancel(serviceAgreementId));
+    }
+
+    /**
+     * Gets the time to wait before refunding an order. The refund can't be executed until the conditions of the
+     * agreement time out and the escrow reward is unlocked
+     *
+     * @param accessService the access service of the agreement
+     * @param timeout       minimum time in milliseconds to wait for the access
+     * @return the time in milliseconds
+     */
+    private long getRefundDelay(AccessService accessService, long timeout) {
+
+        if (accessService == null || accessService.serviceAgreementTemplate == null)
+            return timeout;
+
+        long blocks = 0;
+        for (BigInteger blockTimeout : accessService.retrieveTimeOuts())
+            blocks = Math.max(blocks, blockTimeout.longValue());
+        for (BigInteger timeLock : accessService.retrieveTimeLocks())
+            blocks = Math.max(blocks, timeLock.longValue());
+
+        return Math.max(timeout, blocks * getKeeperService().getBlockTime());
+    }
+
+    /**
+     * Refunds the orders expired in a tick of the refund scheduler. The transactions are sent one after another
+     * without waiting for the receipts, that are watched together
+     *
+     * @param refunds the orders to refund
+     */
+    private void refund(List<PendingRefund> refunds) {
+
+        log.debug("Refunding " + refunds.size() + " orders");
+
+        for (PendingRefund refund : refunds) {
+
+            CompletableFuture<Boolean> transaction;
+            try {
+                transaction = this.fulfillEscrowRewardAsync(refund.ddo, refund.serviceDefinitionId, refund.serviceAgreementId);
+            } catch (Exception e) {
+                refund.result.completeExceptionally(e);
+                continue;
+            }
+
+            transaction.whenComplete((refunded, error) -> {
+                if (error != null) {
+                    refund.result.completeExceptionally(error);
+                    return;
+                }
+                journal(refund.serviceAgreementId, OrderJournal.State.REFUNDED, null);
+                refund.result.complete(new OrderResult(refund.serviceAgreementId, false, true));
+            });
+        }
+    }
+
+    private synchronized TimingWheel<PendingRefund> getRefundScheduler() {
+        if (refundScheduler == null)
+            refundScheduler = new TimingWheel<>(TimingWheel.DEFAULT_TICK, TimingWheel.DEFAULT_WHEEL_SIZE,
+                    // the transactions can't be sent from the thread of the scheduler
+                    refunds -> Schedulers.io().scheduleDirect(() -> refund(refunds)));
+        return refundScheduler;
+    }
+
+    /**
+     * Resumes the orders that were in flight when the journal was closed, from the last state recorded.
+     * The state of every agreement is checked on-chain, so the steps already executed are not repeated
+     *
+     * @return a Flowable over the OrderResult of every order resumed, emitted as they complete. The orders that fail
+     * emit an OrderResult with the error
+     */
+    public Flowable<OrderResult> resumeOrders() {
+
+        if (orderJournal == null)
+            return Flowable.empty();
+
+        return Flowable.fromIterable(orderJournal.getInFlightOrders())
+                .flatMap(entry -> {
+                    DID did = new DID(entry.getDid());
+                    return Flowable.defer(() -> resumeOrder(entry))
+                            .subscribeOn(Schedulers.io())
+                            .take(1)
+                            .map(orderResult -> {
+                                orderResult.setDid(did);
+                                return orderResult;
+                            })
+                            .onErrorReturn(throwable -> {
+                                log.error("Error resuming Order with ServiceAgreementID " + entry.getAgreementId() + ": " + throwable.getMessage());
+                                OrderResult orderResult = new OrderResult(entry.getAgreementId(), false, false);
+                                orderResult.setDid(did);
+                                orderResult.setError(throwable.getMessage());
+                                return orderResult;
+                            });
+                }, orderParallelism);
+    }
+
+    private Flowable<OrderResult> resumeOrder(OrderJournal.Entry entry) throws Exception {
+
+        String serviceAgreementId = entry.getAgreementId();
+        String serviceDefinitionId = entry.getServiceDefinitionId();
+        DDO ddo = resolveDID(new DID(entry.getDid()));
+
+        // the time left to wait for the next event, as if there were no restart
+        long timeout = Math.max(0, orderTimeout - (System.currentTimeMillis() - entry.getUpdatedAt()));
+
+        log.debug("Resuming Order with ServiceAgreementID " + serviceAgreementId + " from state " + entry.getState());
+
+        switch (entry.getState()) {
+
+            case CREATED:
+                CompletableFuture<Boolean> confirmation = AgreementConfirmation.confirm(
+                        getAgreementCreatedMultiplexer().listen(serviceAgreementId, entry.getFromBlock()), null,
+                        () -> agreementsManager.isAgreementCreated(serviceAgreementId), timeout);
+
+                return toFlowable(confirmation)
+                        .switchMap(created -> {
+                            if (!created) {
+                                journal(serviceAgreementId, OrderJournal.State.FAILED, null);
+                                throw new ServiceAgreementException(serviceAgreementId, "The agreement was not created");
+                            }
+                            journal(serviceAgreementId, OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+                            return resumeLockReward(ddo, serviceDefinitionId, serviceAgreementId);
+                        });
+
+            case AGREEMENT_ON_CHAIN:
+                return resumeLockReward(ddo, serviceDefinitionId, serviceAgreementId);
+
+            default:
+                if (agreementsManager.getStatus(serviceAgreementId).conditions.get(0).isFulfilled("accessSecretStore")) {
+                    journal(serviceAgreementId, OrderJournal.State.ACCESS_GRANTED, null);
+                    return Flowable.just(new OrderResult(serviceAgreementId, true, false));
+                }
+                return waitForAccess(ddo, serviceDefinitionId, serviceAgreementId, entry.getFromBlock(), timeout);
+        }
+    }
+
+    private Flowable<OrderResult> resumeLockReward(DDO ddo, String serviceDefinitionId, String serviceAgreementId) throws Exception {
+
+        // the reward could be locked before the state was recorded
+        if (agreementsManager.getStatus(serviceAgreementId).conditions.get(0).isFulfilled("lockReward")) {
+            BigInteger fromBlock = orderJournal.getOrder(serviceAgreementId).getFromBlock();
+            journal(serviceAgreementId, OrderJournal.State.REWARD_LOCKED, fromBlock);
+            return waitForAccess(ddo, serviceDefinitionId, serviceAgreementId, fromBlock, orderTimeout);
+        }
+
+        // reserve throws a TokenApproveException without reserving anything if the tokens can not be approved
+        BigInteger price = new BigInteger(ddo.metadata.base.price);
+        getAllowanceTracker().reserve(price, approvalBudget);
+
+        BigInteger fromBlock;
+        boolean spent = false;
+        try {
+            fromBlock = lockReward(ddo, serviceDefinitionId, serviceAgreementId);
+            getAllowanceTracker().spend(price);
+            spent = true;
+        } finally {
+            if (!spent)
+                getAllowanceTracker().release(price);
+        }
+        return waitForAccess(ddo, serviceDefinitionId, serviceAgreementId, fromBlock, orderTimeout);
+    }
+
+    /**
+     * Records a change of state of an order in the journal, if there is one
+     *
+     * @param serviceAgreementId the service agreement id
+     * @param state              the new state
+     * @param fromBlock          first block where the next event can be, or null to keep the previous one
+     */
+    private void journal(String serviceAgreementId, OrderJournal.State state, BigInteger fromBlock) {
+
+        if (orderJournal == null)
+            return;
+
+        try {
+            orderJournal.record(serviceAgreementId, state, fromBlock);
+        } catch (IOException e) {
+            log.error("Error recording the state " + state + " of the Order with ServiceAgreementID " + serviceAgreementId + ": " + e.getMessage());
+        }
+    }
+
+    private BigInteger getCurrentBlock() throws IOException {
+        return getKeeperService().getWeb3().ethBlockNumber().send().getBlockNumber();
+    }
+
+    private synchronized AllowanceTracker getAllowanceTracker() {
+        if (allowanceTracker == null)
+            // LockRewardCondition transfers the tokens to the EscrowReward
+            allowanceTracker = new AllowanceTracker(getKeeperService(), tokenContract, getMainAccount().address,
+                    lockRewardCondition.getContractAddress(), Collections.singletonList(escrowReward.getContractAddress()));
+        return allowanceTracker;
+    }
+
+    private synchronized AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> getAgreementCreatedMultiplexer() {
+        if (agreementCreatedMultiplexer == null)
+            agreementCreatedMultiplexer = ServiceAgreementHandler.agreementCreatedMultiplexer(escrowAccessSecretStoreTemplate);
+        return agreementCreatedMultiplexer;
+    }
+
+    private synchronized AgreementEventMultiplexer<AccessSecretStoreCondition.FulfilledEventResponse> getFulfilledMultiplexer() {
+        if (fulfilledMultiplexer == null)
+            fulfilledMultiplexer = ServiceAgreementHandler.fulfilledMultiplexer(accessSecretStoreCondition);
+        return fulfilledMultiplexer;
     }
 
 
@@ -425,16 +1203,16 @@ public class OceanManager extends BaseManager {
     }
 
     /**
-     * Executes the fulfill of the EscrowReward
+     * Sends the fulfill of the EscrowReward, without waiting for the receipt
      *
      * @param ddo                 the ddo
      * @param serviceDefinitionId the serviceDefinition id
      * @param serviceAgreementId  service agreement id
-     * @return a flag that indicates if the function was executed correctly
+     * @return a CompletableFuture that completes with true when the transaction is mined successfully
      * @throws ServiceException      ServiceException
      * @throws EscrowRewardException EscrowRewardException
      */
-    private boolean fulfillEscrowReward(DDO ddo, String serviceDefinitionId, String serviceAgreementId) throws ServiceException, EscrowRewardException {
+    private CompletableFuture<Boolean> fulfillEscrowRewardAsync(DDO ddo, String serviceDefinitionId, String serviceAgreementId) throws ServiceException, EscrowRewardException {
 
         AccessService accessService = ddo.getAccessService(serviceDefinitionId);
         BasicAssetInfo assetInfo = getBasicAssetInfo(accessService);
@@ -451,7 +1229,8 @@ public class OceanManager extends BaseManager {
         }
 
 
-        return FulfillEscrowReward.executeFulfill(escrowReward,
+        return FulfillEscrowReward.executeFulfillAsync(getKeeperService(),
+                escrowReward,
                 serviceAgreementId,
                 this.lockRewardCondition.getContractAddress(),
                 assetInfo,
@@ -724,6 +1503,16 @@ public class OceanManager extends BaseManager {
      * @throws ServiceException ServiceException
      */
     public List<DID> getConsumerAssets(String consumerAddress) throws ServiceException {
+
+        if (didEventIndex != null) {
+            try {
+                return toDIDList(syncDIDEventIndex().getConsumedDIDs(consumerAddress));
+            } catch (Exception ex) {
+                log.error("Unable to retrieve assets consumed by " + consumerAddress + ex.getMessage());
+                throw new ServiceException("Unable to retrieve assets consumed by " + consumerAddress + ex.getMessage());
+            }
+        }
+
         EthFilter didFilter = new EthFilter(
                 DefaultBlockParameterName.EARLIEST,
                 DefaultBlockParameterName.LATEST,
@@ -738,18 +1527,17 @@ public class OceanManager extends BaseManager {
             didFilter.addNullTopic();
             didFilter.addOptionalTopics(Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(consumerAddress), 64));
 
-            EthLog ethLog;
+            List<EthLog.LogResult> logs;
 
             try {
-                ethLog = getKeeperService().getWeb3().ethGetLogs(didFilter).send();
+                logs = getBlockRangeLogScanner().getLogs(didFilter);
             } catch (IOException e) {
                 throw new EthereumException("Error creating consumedAssets filter.");
             }
 
-            List<EthLog.LogResult> logs = ethLog.getLogs();
             List<DID> DIDlist = new ArrayList<>();
             for (int i = 0; i <= logs.size() - 1; i++) {
-                DIDlist.add(DID.getFromHash(Numeric.cleanHexPrefix((((EthLog.LogObject) logs.get(i)).getTopics().get(2)))));
+                DIDlist.add(DID.getFromHash(HexCodec.cleanPrefix(((EthLog.LogObject) logs.get(i)).getTopics().get(2))));
             }
             return DIDlist;
 
@@ -767,6 +1555,16 @@ public class OceanManager extends BaseManager {
      * @throws ServiceException ServiceException
      */
     public List<DID> getOwnerAssets(String ownerAddress) throws ServiceException {
+
+        if (didEventIndex != null) {
+            try {
+                return toDIDList(syncDIDEventIndex().getOwnerDIDs(ownerAddress));
+            } catch (Exception ex) {
+                log.error("Unable to retrieve assets owned by " + ownerAddress + ex.getMessage());
+                throw new ServiceException("Unable to retrieve assets owned by " + ownerAddress + ex.getMessage());
+            }
+        }
+
         EthFilter didFilter = new EthFilter(
                 DefaultBlockParameterName.EARLIEST,
                 DefaultBlockParameterName.LATEST,
@@ -780,18 +1578,17 @@ public class OceanManager extends BaseManager {
             didFilter.addNullTopic();
             didFilter.addOptionalTopics(Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(ownerAddress), 64));
 
-            EthLog ethLog;
+            List<EthLog.LogResult> logs;
 
             try {
-                ethLog = getKeeperService().getWeb3().ethGetLogs(didFilter).send();
+                logs = getBlockRangeLogScanner().getLogs(didFilter);
             } catch (IOException e) {
                 throw new EthereumException("Error creating ownerAssets filter.");
             }
 
-            List<EthLog.LogResult> logs = ethLog.getLogs();
             List<DID> DIDlist = new ArrayList<>();
             for (int i = 0; i <= logs.size() - 1; i++) {
-                DIDlist.add(DID.getFromHash(Numeric.cleanHexPrefix((((EthLog.LogObject) logs.get(i)).getTopics().get(1)))));
+                DIDlist.add(DID.getFromHash(HexCodec.cleanPrefix(((EthLog.LogObject) logs.get(i)).getTopics().get(1))));
             }
             return DIDlist;
 
@@ -801,4 +1598,12 @@ public class OceanManager extends BaseManager {
         }
     }
 
+    private static List<DID> toDIDList(List<String> hashes) throws DIDFormatException {
+        List<DID> DIDlist = new ArrayList<>();
+        for (String hash : hashes) {
+            DIDlist.add(DID.getFromHash(hash));
+        }
+        return DIDlist;
+    }
+
 }
@@ -11,37 +11,75 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
 import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractModel {
 
-    private static ObjectMapper objectMapper = null;
-
     public static final String DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
-    public static final DateFormat DATE_FORMAT = new SimpleDateFormat(DATE_PATTERN);
+    public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_PATTERN).withZone(ZoneOffset.UTC);
+    public static final DateFormat DATE_FORMAT = new DateTimeFormatterDateFormat(DATE_FORMATTER);
 
-    public static ObjectMapper getMapperInstance() {
-        if (objectMapper == null) {
+    private static volatile Mapper mapper = new Mapper(false);
+
+    /**
+     * ObjectMapper configured once, with the ObjectReaders and ObjectWriters of every type built the first time
+     * the type is used
+     */
+    private static class Mapper {
 
-            objectMapper = new ObjectMapper();
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        private final boolean generatedAccessors;
+        private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+        private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+        private Mapper(boolean generatedAccessors) {
+            this.generatedAccessors = generatedAccessors;
             objectMapper.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true);
             objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
             objectMapper.setDateFormat(DATE_FORMAT);
+            if (generatedAccessors)
+                objectMapper.registerModule(new AfterburnerModule());
         }
 
-        return objectMapper;
+        private ObjectReader reader(Type type) {
+            return readers.computeIfAbsent(type, t -> objectMapper.readerFor(objectMapper.getTypeFactory().constructType(t)));
+        }
+
+        private ObjectWriter writer(Class<?> clazz) {
+            return writers.computeIfAbsent(clazz, objectMapper::writerFor);
+        }
     }
 
+    public static ObjectMapper getMapperInstance() {
+        return mapper.objectMapper;
+    }
+
+    /**
+     * Sets if the properties of the models are accessed with bytecode generated by the Afterburner module
+     * instead of reflection. The mapper is replaced, so it should be set before decoding any model
+     *
+     * @param generatedAccessors true to use generated accessors
+     */
+    public static synchronized void setGeneratedAccessors(boolean generatedAccessors) {
+        if (mapper.generatedAccessors != generatedAccessors)
+            mapper = new Mapper(generatedAccessors);
+    }
 
     private static <T> ObjectReader getReaderInstance(Class<T> clazz) {
-        return getMapperInstance().readerFor(clazz);
+        return mapper.reader(clazz);
     }
 
     public static <T> Object convertToModel(Class<T> clazz, String json) throws IOException {
@@ -49,27 +87,35 @@ public abstract class AbstractModel {
     }
 
     public static <T> T fromJSON(final TypeReference<T> type, final String json) throws IOException {
-        return getMapperInstance().readValue(json, type);
+        return mapper.reader(type.getType()).readValue(json);
     }
 
-    public String toJson() throws JsonProcessingException {
-        return getMapperInstance().writeValueAsString(this);
+    /**
+     * Decodes an object of the class given reading the JSON directly from a stream,
+     * without buffering the whole document in a String
+     *
+     * @param clazz the class of the object
+     * @param json  the stream with the JSON content
+     * @param <T>   the type of the object
+     * @return the decoded object
+     * @throws IOException IOException
+     */
+    public static <T> T fromJSON(final Class<T> clazz, final InputStream json) throws IOException {
+        return getReaderInstance(clazz).readValue(json);
     }
 
-    public String toJson(Object object) throws JsonProcessingException {
-        return getMapperInstance().writeValueAsString(object);
+    public String toJson() throws JsonProcessingException {
+        return mapper.writer(getClass()).writeValueAsString(this);
     }
 
-    private static String getNowFormatted() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern(DATE_PATTERN));
+    public String toJson(Object object) throws JsonProcessingException {
+        if (object == null)
+            return getMapperInstance().writeValueAsString(null);
+        return mapper.writer(object.getClass()).writeValueAsString(object);
     }
 
     public static Date getDateNowFormatted() {
-        try {
-            return DATE_FORMAT.parse(getNowFormatted());
-        } catch (ParseException ex) {
-            return new Date();
-        }
+        return Date.from(Instant.now().truncatedTo(ChronoUnit.SECONDS));
     }
 
-}
\ No newline at end of file
+}
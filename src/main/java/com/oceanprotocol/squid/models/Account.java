@@ -7,6 +7,15 @@ package com.oceanprotocol.squid.models;
 
 public class Account {
 
+    /**
+     * How the messages of the account are signed
+     */
+    public enum SigningMode {
+        // sent to the node with personal_sign, that must have the account unlocked
+        PERSONAL_SIGN,
+        // signed locally with the credentials of the account
+        LOCAL
+    }
 
     public String address;
 
@@ -14,6 +23,8 @@ public class Account {
 
     public String password;
 
+    public SigningMode signingMode = SigningMode.PERSONAL_SIGN;
+
     private Account() {
     }
 
@@ -68,4 +79,12 @@ public class Account {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public SigningMode getSigningMode() {
+        return signingMode;
+    }
+
+    public void setSigningMode(SigningMode signingMode) {
+        this.signingMode = signingMode;
+    }
 }
\ No newline at end of file
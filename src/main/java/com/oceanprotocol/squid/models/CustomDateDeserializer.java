@@ -10,21 +10,21 @@ import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Date;
 
-import static com.oceanprotocol.squid.models.AbstractModel.DATE_PATTERN;
+import static com.oceanprotocol.squid.models.AbstractModel.DATE_FORMATTER;
 
 public class CustomDateDeserializer extends StdDeserializer<Date> {
 
     public static final String ALT_DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
 
-    private SimpleDateFormat formatter =
-            new SimpleDateFormat(DATE_PATTERN);
-
-    private SimpleDateFormat altFormatter =
-            new SimpleDateFormat(ALT_DATE_PATTERN);
+    private static final DateTimeFormatter ALT_DATE_FORMATTER =
+            DateTimeFormatter.ofPattern(ALT_DATE_PATTERN).withZone(ZoneOffset.UTC);
 
     public CustomDateDeserializer() {
         this(null);
@@ -34,18 +34,23 @@ public class CustomDateDeserializer extends StdDeserializer<Date> {
     public Date deserialize(JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
         String date = jsonParser.getText();
         try {
-            return formatter.parse(date);
-        } catch (ParseException e) {
+            return parse(DATE_FORMATTER, date);
+        } catch (DateTimeException e) {
 
             try {
-                return altFormatter.parse(date);
+                return parse(ALT_DATE_FORMATTER, date);
             }
-            catch (ParseException e2) {
+            catch (DateTimeException e2) {
                 throw new IOException(e);
             }
         }
     }
 
+    // the text after the date is ignored, as SimpleDateFormat does
+    private static Date parse(DateTimeFormatter formatter, String date) {
+        return Date.from(Instant.from(formatter.parse(date, new ParsePosition(0))));
+    }
+
     public CustomDateDeserializer(Class<?> vc) {
         super(vc);
     }
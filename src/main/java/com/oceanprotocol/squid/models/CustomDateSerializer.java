@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Date;
+
+import static com.oceanprotocol.squid.models.AbstractModel.DATE_FORMATTER;
+
+public class CustomDateSerializer extends StdSerializer<Date> {
+
+    public CustomDateSerializer() {
+        this(null);
+    }
+
+    public CustomDateSerializer(Class<Date> t) {
+        super(t);
+    }
+
+    @Override
+    public void serialize(Date date, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeString(DATE_FORMATTER.format(date.toInstant()));
+    }
+
+}
@@ -7,6 +7,7 @@ package com.oceanprotocol.squid.models;
 
 import com.fasterxml.jackson.annotation.*;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.api.client.util.Base64;
 import com.oceanprotocol.squid.exceptions.DIDFormatException;
 import com.oceanprotocol.squid.exceptions.ServiceException;
@@ -57,21 +58,21 @@ public class DDO extends AbstractModel implements FromJsonToModel {
     public Proof proof;
 
 
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_PATTERN)
+    @JsonSerialize(using = CustomDateSerializer.class)
     @JsonDeserialize(using = CustomDateDeserializer.class)
     public Date created;
 
     @JsonIgnore
     public AssetMetadata metadata = null;
 
-    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_PATTERN)
+    @JsonSerialize(using = CustomDateSerializer.class)
     @JsonProperty
     public Date updated;
 
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     @JsonPropertyOrder(alphabetic = true)
-    static class PublicKey {
+    public static class PublicKey {
 
         public static final String ETHEREUM_KEY_TYPE = "EthereumECDSAKey";
 
@@ -102,7 +103,7 @@ public class DDO extends AbstractModel implements FromJsonToModel {
 
     @JsonIgnoreProperties(ignoreUnknown = true)
     @JsonPropertyOrder(alphabetic = true)
-    static class Authentication {
+    public static class Authentication {
 
         @JsonProperty
         public String type;
@@ -128,7 +129,7 @@ public class DDO extends AbstractModel implements FromJsonToModel {
         @JsonProperty
         public String type;
 
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_PATTERN)
+        @JsonSerialize(using = CustomDateSerializer.class)
         @JsonDeserialize(using = CustomDateDeserializer.class)
         public Date created;
 
@@ -9,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.oceanprotocol.squid.exceptions.DIDFormatException;
 
+import java.util.Objects;
 import java.util.UUID;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -55,6 +56,18 @@ public class DID {
         return did;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(did, ((DID) o).did);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(did);
+    }
+
     public DID setEmptyDID() {
         this.did = "";
         return this;
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.models;
+
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * DateFormat that formats and parses the dates with an immutable java.time DateTimeFormatter, so unlike
+ * SimpleDateFormat it can be shared between threads. The formatter must have a zone
+ */
+class DateTimeFormatterDateFormat extends DateFormat {
+
+    private final DateTimeFormatter formatter;
+
+    /**
+     * Constructor
+     *
+     * @param formatter the formatter, with a zone
+     */
+    DateTimeFormatterDateFormat(DateTimeFormatter formatter) {
+        this.formatter = formatter;
+        // not used, but DateFormat needs them to be cloned
+        this.calendar = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+        this.numberFormat = NumberFormat.getIntegerInstance();
+    }
+
+    @Override
+    public StringBuffer format(Date date, StringBuffer toAppendTo, FieldPosition fieldPosition) {
+        formatter.formatTo(date.toInstant(), toAppendTo);
+        return toAppendTo;
+    }
+
+    @Override
+    public Date parse(String source, ParsePosition position) {
+
+        int start = position.getIndex();
+        try {
+            return Date.from(Instant.from(formatter.parse(source, position)));
+        } catch (DateTimeException e) {
+            position.setIndex(start);
+            if (position.getErrorIndex() < 0)
+                position.setErrorIndex(start);
+            return null;
+        }
+    }
+}
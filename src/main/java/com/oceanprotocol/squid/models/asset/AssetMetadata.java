@@ -6,13 +6,14 @@
 package com.oceanprotocol.squid.models.asset;
 
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.oceanprotocol.squid.helpers.CryptoHelper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.oceanprotocol.squid.helpers.Hasher;
 import com.oceanprotocol.squid.models.CustomDateDeserializer;
+import com.oceanprotocol.squid.models.CustomDateSerializer;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.Metadata;
 
@@ -20,7 +21,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonPropertyOrder(alphabetic = true)
@@ -67,11 +67,11 @@ public class AssetMetadata extends Metadata {
         @JsonProperty
         public String description;
 
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_PATTERN)
+        @JsonSerialize(using = CustomDateSerializer.class)
         @JsonDeserialize(using = CustomDateDeserializer.class)
         public Date dateCreated;
 
-        @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = DATE_PATTERN)
+        @JsonSerialize(using = CustomDateSerializer.class)
         @JsonDeserialize(using = CustomDateDeserializer.class)
         public Date datePublished;
 
@@ -185,14 +185,16 @@ public class AssetMetadata extends Metadata {
 
     public String generateMetadataChecksum(String did) {
 
-        String concatFields = this.base.files.stream()
-                .map(file -> file.checksum != null ? file.checksum : "")
-                .collect(Collectors.joining(""))
-                .concat(this.base.name)
-                .concat(this.base.author)
-                .concat(this.base.license)
-                .concat(did);
-        return "0x" + CryptoHelper.sha3256(concatFields);
+        Hasher hasher = Hasher.sha3();
+        for (File file : this.base.files) {
+            if (file.checksum != null)
+                hasher.update(file.checksum);
+        }
+        return hasher.update(this.base.name)
+                .update(this.base.author)
+                .update(this.base.license)
+                .update(did)
+                .doFinalHex(true);
 
 
     }
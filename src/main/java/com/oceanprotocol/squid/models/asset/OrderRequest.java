@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.models.asset;
+
+import com.oceanprotocol.squid.models.AbstractModel;
+import com.oceanprotocol.squid.models.DID;
+import com.oceanprotocol.squid.models.FromJsonToModel;
+
+public class OrderRequest extends AbstractModel implements FromJsonToModel {
+
+    private DID did;
+    private String serviceDefinitionId;
+
+    public OrderRequest(DID did, String serviceDefinitionId) {
+
+        this.did = did;
+        this.serviceDefinitionId = serviceDefinitionId;
+    }
+
+    public DID getDid() {
+        return did;
+    }
+
+    public void setDid(DID did) {
+        this.did = did;
+    }
+
+    public String getServiceDefinitionId() {
+        return serviceDefinitionId;
+    }
+
+    public void setServiceDefinitionId(String serviceDefinitionId) {
+        this.serviceDefinitionId = serviceDefinitionId;
+    }
+}
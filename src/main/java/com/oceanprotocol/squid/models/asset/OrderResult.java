@@ -6,6 +6,7 @@
 package com.oceanprotocol.squid.models.asset;
 
 import com.oceanprotocol.squid.models.AbstractModel;
+import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.FromJsonToModel;
 
 public class OrderResult extends AbstractModel implements FromJsonToModel {
@@ -13,6 +14,8 @@ public class OrderResult extends AbstractModel implements FromJsonToModel {
     private String serviceAgreementId;
     private Boolean accessFullfilled = false;
     private Boolean refund = false;
+    private DID did;
+    private String error;
 
     public OrderResult(String serviceAgreementId, Boolean accessFullfilled, Boolean refund) {
 
@@ -44,4 +47,20 @@ public class OrderResult extends AbstractModel implements FromJsonToModel {
     public void setRefund(Boolean refund) {
         this.refund = refund;
     }
+
+    public DID getDid() {
+        return did;
+    }
+
+    public void setDid(DID did) {
+        this.did = did;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
 }
@@ -8,12 +8,15 @@ package com.oceanprotocol.squid.models.service;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.oceanprotocol.squid.helpers.AbiPacker;
 import com.oceanprotocol.squid.helpers.EncodingHelper;
 import com.oceanprotocol.squid.helpers.EthereumHelper;
+import com.oceanprotocol.squid.helpers.HexCodec;
 import com.oceanprotocol.squid.manager.OceanManager;
 import com.oceanprotocol.squid.models.DDO;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.web3j.crypto.Credentials;
 import org.web3j.crypto.Hash;
 import org.web3j.protocol.Web3j;
 
@@ -129,101 +132,99 @@ public class AccessService extends Service {
 
         log.debug("Generating Service Agreement Hash: " + serviceAgreementId);
 
-        String lockRewardId = generateLockRewardId(serviceAgreementId, escrowRewardAddress, lockRewardConditionAddress);
-        String accessSecretStoreId = generateAccessSecretStoreConditionId(serviceAgreementId, consumerAddress, accessSecretStoreConditionAddress);
-        String escrowRewardId = generateEscrowRewardConditionId(serviceAgreementId, consumerAddress, publisherAddress, escrowRewardAddress, lockRewardId, accessSecretStoreId);
+        byte[] lockRewardId = packLockRewardId(serviceAgreementId, escrowRewardAddress, lockRewardConditionAddress);
+        byte[] accessSecretStoreId = packAccessSecretStoreConditionId(serviceAgreementId, consumerAddress, accessSecretStoreConditionAddress);
+        byte[] escrowRewardId = packEscrowRewardConditionId(serviceAgreementId, consumerAddress, publisherAddress, escrowRewardAddress,
+                lockRewardId, accessSecretStoreId);
+
+        AbiPacker packer = AbiPacker.get()
+                .hex(templateId)
+                .bytes(accessSecretStoreId)
+                .bytes(lockRewardId)
+                .bytes(escrowRewardId);
+        for (Condition condition : serviceAgreementTemplate.conditions)
+            packer.uint256(condition.timelock);
+        for (Condition condition : serviceAgreementTemplate.conditions)
+            packer.uint256(condition.timeout);
+
+        return packer.hex(serviceAgreementId).keccakHex();
+    }
+
 
-        String params =
-                EthereumHelper.remove0x(
-                        templateId
-                                + accessSecretStoreId
-                                + lockRewardId
-                                + escrowRewardId
-                                + fetchTimelock()
-                                + fetchTimeout()
-                                + serviceAgreementId
-                );
+    public String generateLockRewardId(String serviceAgreementId, String escrowRewardAddress, String lockRewardConditionAddress) throws UnsupportedEncodingException {
+        return AbiPacker.toHexString(packLockRewardId(serviceAgreementId, escrowRewardAddress, lockRewardConditionAddress));
+    }
 
 
-        return Hash.sha3(EthereumHelper.add0x(params));
+    public String generateAccessSecretStoreConditionId(String serviceAgreementId, String consumerAddress, String accessSecretStoreConditionAddress) throws UnsupportedEncodingException {
+        return AbiPacker.toHexString(packAccessSecretStoreConditionId(serviceAgreementId, consumerAddress, accessSecretStoreConditionAddress));
     }
 
 
-    public String generateLockRewardId(String serviceAgreementId, String escrowRewardAddress, String lockRewardConditionAddress) throws UnsupportedEncodingException {
+    public String generateEscrowRewardConditionId(String serviceAgreementId, String consumerAddress, String publisherAddress, String escrowRewardConditionAddress,
+                                                  String lockConditionId, String releaseConditionId) throws UnsupportedEncodingException {
+        return AbiPacker.toHexString(packEscrowRewardConditionId(serviceAgreementId, consumerAddress, publisherAddress, escrowRewardConditionAddress,
+                lockConditionId, releaseConditionId));
+    }
+
+    private byte[] packLockRewardId(String serviceAgreementId, String escrowRewardAddress, String lockRewardConditionAddress) {
 
         Condition lockRewardCondition = this.getConditionbyName("lockReward");
 
         Condition.ConditionParameter rewardAddress = lockRewardCondition.getParameterByName("_rewardAddress");
         Condition.ConditionParameter amount = lockRewardCondition.getParameterByName("_amount");
 
-        String params = EthereumHelper.add0x(EthereumHelper.encodeParameterValue(rewardAddress.type, escrowRewardAddress)
-                + EthereumHelper.encodeParameterValue(amount.type, amount.value.toString())
-        );
-
-        String valuesHash = Hash.sha3(params);
-
-        return Hash.sha3(
-                EthereumHelper.add0x(
-                        EthereumHelper.encodeParameterValue("bytes32", serviceAgreementId)
-                                + EthereumHelper.encodeParameterValue("address", lockRewardConditionAddress)
-                                + EthereumHelper.encodeParameterValue("bytes32", valuesHash)
-                )
-        );
+        byte[] valuesHash = AbiPacker.get()
+                .parameter(rewardAddress.type, escrowRewardAddress)
+                .parameter(amount.type, amount.value.toString())
+                .keccak();
 
+        return packConditionId(serviceAgreementId, lockRewardConditionAddress, valuesHash);
     }
 
-
-    public String generateAccessSecretStoreConditionId(String serviceAgreementId, String consumerAddress, String accessSecretStoreConditionAddress) throws UnsupportedEncodingException {
+    private byte[] packAccessSecretStoreConditionId(String serviceAgreementId, String consumerAddress, String accessSecretStoreConditionAddress) {
 
         Condition accessSecretStoreCondition = this.getConditionbyName("accessSecretStore");
 
         Condition.ConditionParameter documentId = accessSecretStoreCondition.getParameterByName("_documentId");
         Condition.ConditionParameter grantee = accessSecretStoreCondition.getParameterByName("_grantee");
 
+        byte[] valuesHash = AbiPacker.get()
+                .parameter(documentId.type, documentId.value)
+                .parameter(grantee.type, consumerAddress)
+                .keccak();
 
-        String params = EthereumHelper.add0x(EthereumHelper.encodeParameterValue(documentId.type, documentId.value)
-                + EthereumHelper.encodeParameterValue(grantee.type, consumerAddress));
-
-        String valuesHash = Hash.sha3(params);
-
-        return Hash.sha3(
-                EthereumHelper.add0x(
-                        EthereumHelper.encodeParameterValue("bytes32", serviceAgreementId)
-                                + EthereumHelper.encodeParameterValue("address", accessSecretStoreConditionAddress)
-                                + EthereumHelper.encodeParameterValue("bytes32", valuesHash)
-                )
-        );
-
+        return packConditionId(serviceAgreementId, accessSecretStoreConditionAddress, valuesHash);
     }
 
+    private byte[] packEscrowRewardConditionId(String serviceAgreementId, String consumerAddress, String publisherAddress, String escrowRewardConditionAddress,
+                                               Object lockConditionId, Object releaseConditionId) {
 
-    public String generateEscrowRewardConditionId(String serviceAgreementId, String consumerAddress, String publisherAddress, String escrowRewardConditionAddress,
-                                                  String lockConditionId, String releaseConditionId) throws UnsupportedEncodingException {
-
-        Condition accessSecretStoreCondition = this.getConditionbyName("escrowReward");
-
-        Condition.ConditionParameter amount = accessSecretStoreCondition.getParameterByName("_amount");
-        Condition.ConditionParameter receiver = accessSecretStoreCondition.getParameterByName("_receiver");
-        Condition.ConditionParameter sender = accessSecretStoreCondition.getParameterByName("_sender");
-        Condition.ConditionParameter lockCondition = accessSecretStoreCondition.getParameterByName("_lockCondition");
-        Condition.ConditionParameter releaseCondition = accessSecretStoreCondition.getParameterByName("_releaseCondition");
+        Condition escrowRewardCondition = this.getConditionbyName("escrowReward");
 
-        String params = EthereumHelper.add0x(EthereumHelper.encodeParameterValue(amount.type, amount.value.toString())
-                + EthereumHelper.encodeParameterValue(receiver.type, publisherAddress)
-                + EthereumHelper.encodeParameterValue(sender.type, consumerAddress)
-                + EthereumHelper.encodeParameterValue(lockCondition.type, lockConditionId)
-                + EthereumHelper.encodeParameterValue(releaseCondition.type, releaseConditionId));
+        Condition.ConditionParameter amount = escrowRewardCondition.getParameterByName("_amount");
+        Condition.ConditionParameter receiver = escrowRewardCondition.getParameterByName("_receiver");
+        Condition.ConditionParameter sender = escrowRewardCondition.getParameterByName("_sender");
+        Condition.ConditionParameter lockCondition = escrowRewardCondition.getParameterByName("_lockCondition");
+        Condition.ConditionParameter releaseCondition = escrowRewardCondition.getParameterByName("_releaseCondition");
 
-        String valuesHash = Hash.sha3(params);
+        byte[] valuesHash = AbiPacker.get()
+                .parameter(amount.type, amount.value.toString())
+                .parameter(receiver.type, publisherAddress)
+                .parameter(sender.type, consumerAddress)
+                .parameter(lockCondition.type, lockConditionId)
+                .parameter(releaseCondition.type, releaseConditionId)
+                .keccak();
 
-        return Hash.sha3(
-                EthereumHelper.add0x(
-                        EthereumHelper.encodeParameterValue("bytes32", serviceAgreementId)
-                                + EthereumHelper.encodeParameterValue("address", escrowRewardConditionAddress)
-                                + EthereumHelper.encodeParameterValue("bytes32", valuesHash)
-                )
-        );
+        return packConditionId(serviceAgreementId, escrowRewardConditionAddress, valuesHash);
+    }
 
+    private static byte[] packConditionId(String serviceAgreementId, String conditionAddress, byte[] valuesHash) {
+        return AbiPacker.get()
+                .hex(serviceAgreementId)
+                .hex(conditionAddress)
+                .bytes(valuesHash)
+                .keccak();
     }
 
     public String generateServiceAgreementSignature(Web3j web3, String consumerAddress, String consumerPassword, String publisherAddress, String serviceAgreementId,
@@ -238,6 +239,10 @@ public class AccessService extends Service {
         return EthereumHelper.ethSignMessage(web3, hash, consumerAddress, consumerPassword);
     }
 
+    public String generateServiceAgreementSignatureFromHash(Credentials credentials, String hash) {
+        return EthereumHelper.localSignMessage(hash, credentials);
+    }
+
     public String fetchConditionValues() throws UnsupportedEncodingException {
 
         String data = "";
@@ -249,7 +254,7 @@ public class AccessService extends Service {
                 token = token + EthereumHelper.encodeParameterValue(param.type, param.value);
             }
 
-            data = data + EthereumHelper.remove0x(Hash.sha3(token));
+            data = data + HexCodec.cleanPrefix(Hash.sha3(token));
         }
 
         return data;
@@ -259,7 +264,7 @@ public class AccessService extends Service {
         String data = "";
 
         for (Condition condition : serviceAgreementTemplate.conditions) {
-            data = data + EthereumHelper.remove0x(
+            data = data + HexCodec.cleanPrefix(
                     EncodingHelper.hexEncodeAbiType("uint256", condition.timeout));
         }
 
@@ -271,7 +276,7 @@ public class AccessService extends Service {
         String data = "";
 
         for (Condition condition : serviceAgreementTemplate.conditions) {
-            data = data + EthereumHelper.remove0x(
+            data = data + HexCodec.cleanPrefix(
                     EncodingHelper.hexEncodeAbiType("uint256", condition.timelock));
         }
 
@@ -4,8 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.oceanprotocol.squid.exceptions.DIDFormatException;
-import com.oceanprotocol.squid.helpers.EncodingHelper;
-import com.oceanprotocol.squid.helpers.EthereumHelper;
+import com.oceanprotocol.squid.helpers.HexCodec;
 import com.oceanprotocol.squid.models.AbstractModel;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.FromJsonToModel;
@@ -46,7 +45,7 @@ public class Agreement extends AbstractModel implements FromJsonToModel {
     }
 
     public Agreement(Tuple6 tuple6) throws DIDFormatException {
-        this.did = (DID) DID.getFromHash(EthereumHelper.remove0x(EncodingHelper.toHexString((byte[]) tuple6.getValue1())));
+        this.did = (DID) DID.getFromHash(HexCodec.encode((byte[]) tuple6.getValue1(), false));
         this.didOwner = (String) tuple6.getValue2();
         this.templateId = (String) tuple6.getValue3();
         this.conditions = (ArrayList) tuple6.getValue4();
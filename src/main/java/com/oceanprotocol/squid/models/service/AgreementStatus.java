@@ -21,6 +21,8 @@ import java.util.Map;
 @JsonPropertyOrder(alphabetic = true)
 public class AgreementStatus extends AbstractModel implements FromJsonToModel {
 
+    public static final BigInteger CONDITION_FULFILLED = BigInteger.valueOf(2);
+
     @JsonProperty
     public String agreementId;
 
@@ -34,6 +36,15 @@ public class AgreementStatus extends AbstractModel implements FromJsonToModel {
         @JsonProperty
         public Map<String, BigInteger> conditions = new HashMap<>();
 
+        /**
+         * Checks if a condition of the agreement is fulfilled
+         *
+         * @param conditionName the name of the condition
+         * @return true if the condition is fulfilled
+         */
+        public boolean isFulfilled(String conditionName) {
+            return CONDITION_FULFILLED.equals(conditions.get(conditionName));
+        }
 
     }
 
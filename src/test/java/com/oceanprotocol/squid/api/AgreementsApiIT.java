@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.oceanprotocol.squid.core.sla.ServiceAgreementHandler;
 import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
+import com.oceanprotocol.squid.models.service.AgreementStatus;
 import com.oceanprotocol.squid.models.service.ProviderConfig;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
@@ -12,7 +13,10 @@ import org.junit.Test;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -55,4 +59,19 @@ public class AgreementsApiIT {
         assertTrue(oceanAPI.getAgreementsAPI().create(ddo.getDid(), agreementId, "1", oceanAPI.getMainAccount().address));
         oceanAPI.getAgreementsAPI().status(agreementId);
     }
+
+    @Test
+    public void statusAll() throws Exception {
+        DDO ddo = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+        String agreementId1 = ServiceAgreementHandler.generateSlaId();
+        String agreementId2 = ServiceAgreementHandler.generateSlaId();
+        assertTrue(oceanAPI.getAgreementsAPI().create(ddo.getDid(), agreementId1, "1", oceanAPI.getMainAccount().address));
+        assertTrue(oceanAPI.getAgreementsAPI().create(ddo.getDid(), agreementId2, "1", oceanAPI.getMainAccount().address));
+
+        List<AgreementStatus> statuses = oceanAPI.getAgreementsAPI().statusAll(Arrays.asList(agreementId1, agreementId2));
+        assertEquals(2, statuses.size());
+        assertEquals(agreementId1, statuses.get(0).agreementId);
+        assertEquals(agreementId2, statuses.get(1).agreementId);
+        assertEquals(3, statuses.get(0).conditions.get(0).conditions.size());
+    }
 }
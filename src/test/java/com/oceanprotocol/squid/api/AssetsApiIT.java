@@ -16,6 +16,7 @@ import com.oceanprotocol.squid.models.Balance;
 import com.oceanprotocol.squid.models.DDO;
 import com.oceanprotocol.squid.models.DID;
 import com.oceanprotocol.squid.models.asset.AssetMetadata;
+import com.oceanprotocol.squid.models.asset.OrderRequest;
 import com.oceanprotocol.squid.models.asset.OrderResult;
 import com.oceanprotocol.squid.models.service.ProviderConfig;
 import com.oceanprotocol.squid.models.service.Service;
@@ -31,6 +32,8 @@ import java.io.InputStream;
 import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -126,6 +129,33 @@ public class AssetsApiIT {
 
     }
 
+    @Test
+    public void resolveAsync() throws Exception {
+
+        DDO ddo = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+
+        DID did = new DID(ddo.id);
+        DDO resolvedDDO = oceanAPI.getAssetsAPI().resolveAsync(did).get(30, TimeUnit.SECONDS);
+        assertEquals(ddo.id, resolvedDDO.id);
+
+    }
+
+    @Test
+    public void resolveAll() throws Exception {
+
+        DDO ddo1 = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+        DDO ddo2 = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+
+        DID did1 = new DID(ddo1.id);
+        DID did2 = new DID(ddo2.id);
+        Map<DID, DDO> resolved = oceanAPI.getAssetsAPI().resolveAll(Arrays.asList(did2, did1, DID.builder()));
+
+        assertEquals(Arrays.asList(did2, did1), new ArrayList<>(resolved.keySet()));
+        assertEquals(ddo1.id, resolved.get(did1).id);
+        assertEquals(ddo2.id, resolved.get(did2).id);
+
+    }
+
     @Test
     public void order() throws Exception {
 
@@ -151,6 +181,29 @@ public class AssetsApiIT {
 
     }
 
+    @Test
+    public void orderAll() throws Exception {
+
+        DDO ddo1 = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+        DDO ddo2 = oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+
+        oceanAPIConsumer.getAccountsAPI().requestTokens(BigInteger.TEN);
+
+        List<OrderResult> results = oceanAPIConsumer.getAssetsAPI().orderAll(Arrays.asList(
+                new OrderRequest(new DID(ddo1.id), Service.DEFAULT_ACCESS_SERVICE_ID),
+                new OrderRequest(new DID(ddo2.id), Service.DEFAULT_ACCESS_SERVICE_ID)))
+                .toList()
+                .blockingGet();
+
+        assertEquals(2, results.size());
+        for (OrderResult result : results) {
+            assertNotNull(result.getDid());
+            assertNotNull(result.getServiceAgreementId());
+            assertEquals(true, result.isAccessGranted());
+        }
+
+    }
+
     @Test
     public void search() throws Exception {
 
@@ -164,6 +217,17 @@ public class AssetsApiIT {
 
     }
 
+    @Test
+    public void searchAsync() throws Exception {
+
+        oceanAPI.getAssetsAPI().create(metadataBase, providerConfig);
+        log.debug("DDO registered!");
+
+        List<DDO> results = oceanAPI.getAssetsAPI().searchAsync("Weather").get(30, TimeUnit.SECONDS).getResults();
+        assertNotNull(results);
+
+    }
+
     @Test
     public void query() throws Exception {
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.cache;
+
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.DID;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class DDOResolutionCacheTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    private DDO newDDO(DID did) throws Exception {
+        DDO ddo = new DDO();
+        ddo.id = did.getDid();
+        return ddo;
+    }
+
+    @Test
+    public void hitsAndMisses() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(10, 1000, now::get);
+        DID did = DID.builder();
+
+        assertNull(cache.get(did));
+        cache.put(did, newDDO(did), BigInteger.ONE);
+        assertEquals(did.getDid(), cache.get(did).id);
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void expiresAfterTtl() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(10, 1000, now::get);
+        DID did = DID.builder();
+
+        cache.put(did, newDDO(did), BigInteger.ONE);
+        now.set(999);
+        assertNotNull(cache.get(did));
+        now.set(1000);
+        assertNull(cache.get(did));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(2, 1000, now::get);
+        DID did1 = DID.builder();
+        DID did2 = DID.builder();
+        DID did3 = DID.builder();
+
+        cache.put(did1, newDDO(did1), BigInteger.ONE);
+        cache.put(did2, newDDO(did2), BigInteger.ONE);
+        cache.get(did1);
+        cache.put(did3, newDDO(did3), BigInteger.ONE);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(did1));
+        assertNull(cache.get(did2));
+        assertNotNull(cache.get(did3));
+    }
+
+    @Test
+    public void invalidatedByNewerRegistration() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(10, 1000, now::get);
+        DID did = DID.builder();
+
+        cache.put(did, newDDO(did), BigInteger.valueOf(5));
+        cache.onDIDAttributeRegistered(did, BigInteger.valueOf(5));
+        assertNotNull(cache.get(did));
+
+        cache.onDIDAttributeRegistered(did, BigInteger.valueOf(6));
+        assertNull(cache.get(did));
+        assertEquals(1, cache.getInvalidations());
+
+        // a resolution started before the new registration can't cache the old DDO
+        cache.put(did, newDDO(did), BigInteger.valueOf(5));
+        assertNull(cache.get(did));
+
+        cache.put(did, newDDO(did), BigInteger.valueOf(6));
+        assertNotNull(cache.get(did));
+    }
+
+    @Test
+    public void registrationsDoNotEvictTheDDOs() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(2, 1000, now::get);
+        DID did1 = DID.builder();
+        DID did2 = DID.builder();
+
+        cache.put(did1, newDDO(did1), BigInteger.ONE);
+        cache.put(did2, newDDO(did2), BigInteger.ONE);
+        for (int i = 0; i < 10; i++)
+            cache.onDIDAttributeRegistered(DID.builder(), BigInteger.TEN);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(did1));
+        assertNotNull(cache.get(did2));
+        assertEquals(0, cache.getInvalidations());
+    }
+
+    @Test
+    public void registrationsExpireAfterTtl() throws Exception {
+        DDOResolutionCache cache = new DDOResolutionCache(10, 1000, now::get);
+        DID did = DID.builder();
+
+        cache.onDIDAttributeRegistered(did, BigInteger.valueOf(6));
+        cache.put(did, newDDO(did), BigInteger.valueOf(5));
+        assertNull(cache.get(did));
+
+        now.set(1000);
+        cache.put(did, newDDO(did), BigInteger.valueOf(5));
+        assertNotNull(cache.get(did));
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.index;
+
+import com.oceanprotocol.keeper.contracts.AccessSecretStoreCondition;
+import com.oceanprotocol.keeper.contracts.DIDRegistry;
+import com.oceanprotocol.squid.core.logs.BlockRangeLogScanner;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DIDEventIndexTest {
+
+    private static final String DID_1 = "1111111111111111111111111111111111111111111111111111111111111111";
+    private static final String DID_2 = "2222222222222222222222222222222222222222222222222222222222222222";
+    private static final String OWNER = "0x00bd138abd70e2f00903268f3db08f2d25677c9e";
+    private static final String CONSUMER = "0x068ed00cf0441e4829d9784fcbe7b9e26d4bd8d0";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String toTopic(String hex) {
+        return Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(hex), 64);
+    }
+
+    private static EthLog.LogResult registered(String did, String owner, String url, long block) {
+        String data = FunctionEncoder.encodeConstructor(Arrays.asList(
+                new Utf8String(url), new Address(owner), new Uint256(BigInteger.valueOf(block))));
+        return new EthLog.LogObject(false, "0x0", "0x0", "0x0", "0x0", Numeric.toHexStringWithPrefix(BigInteger.valueOf(block)),
+                "0x0", data, null,
+                Arrays.asList(EventEncoder.encode(DIDRegistry.DIDATTRIBUTEREGISTERED_EVENT), toTopic(did), toTopic(owner), toTopic("0x01")));
+    }
+
+    private static EthLog.LogResult fulfilled(String did, String consumer, long block) {
+        return new EthLog.LogObject(false, "0x0", "0x0", "0x0", "0x0", Numeric.toHexStringWithPrefix(BigInteger.valueOf(block)),
+                "0x0", "0x", null,
+                Arrays.asList(EventEncoder.encode(AccessSecretStoreCondition.FULFILLED_EVENT), toTopic("0x0a"), toTopic(did), toTopic(consumer)));
+    }
+
+    @Test
+    public void indexAndReload() throws Exception {
+
+        Path path = folder.getRoot().toPath().resolve("did.idx");
+        DIDEventIndex index = DIDEventIndex.open(path, BigInteger.ZERO);
+
+        index.append(Arrays.asList(
+                registered(DID_1, OWNER, "http://aquarius:5000/api/v1/aquarius/assets/ddo/{did}", 10),
+                registered(DID_2, OWNER, "http://aquarius:5000/api/v1/aquarius/assets/ddo/{did}", 11),
+                fulfilled(DID_1, CONSUMER, 12),
+                registered(DID_1, OWNER, "http://other:5000/api/v1/aquarius/assets/ddo/{did}", 13)
+        ), BigInteger.valueOf(20));
+        index.close();
+
+        index = DIDEventIndex.open(path, BigInteger.ZERO);
+
+        assertEquals(BigInteger.valueOf(20), index.getCheckpoint());
+
+        DIDEventIndex.Registration registration = index.getRegistration("0x" + DID_1);
+        assertEquals("http://other:5000/api/v1/aquarius/assets/ddo/{did}", registration.getUrl());
+        assertEquals(BigInteger.valueOf(13), registration.getBlockNumber());
+
+        assertEquals(Arrays.asList(DID_1, DID_2), index.getOwnerDIDs(OWNER.toUpperCase().replace("0X", "0x")));
+        assertEquals(Collections.singletonList(DID_1), index.getConsumedDIDs(CONSUMER));
+        assertNull(index.getRegistration("0x3333"));
+        index.close();
+    }
+
+    @Test
+    public void movesTheDIDsRegisteredByOtherOwner() throws Exception {
+
+        DIDEventIndex index = DIDEventIndex.open(folder.getRoot().toPath().resolve("did.idx"), BigInteger.ZERO);
+        index.append(Arrays.asList(
+                registered(DID_1, OWNER, "http://aquarius/{did}", 10),
+                registered(DID_2, OWNER, "http://aquarius/{did}", 11),
+                registered(DID_1, CONSUMER, "http://aquarius/{did}", 12)
+        ), BigInteger.valueOf(12));
+
+        assertEquals(Collections.singletonList(DID_2), index.getOwnerDIDs(OWNER));
+        assertEquals(Collections.singletonList(DID_1), index.getOwnerDIDs(CONSUMER));
+        index.close();
+    }
+
+    @Test
+    public void discardsRecordsAfterTheCheckpoint() throws Exception {
+
+        Path path = folder.getRoot().toPath().resolve("did.idx");
+        DIDEventIndex index = DIDEventIndex.open(path, BigInteger.ZERO);
+        index.append(Collections.singletonList(registered(DID_1, OWNER, "http://aquarius/{did}", 10)), BigInteger.valueOf(10));
+        index.append(Collections.singletonList(registered(DID_2, OWNER, "http://aquarius/{did}", 15)), BigInteger.valueOf(15));
+        index.close();
+
+        // simulates a crash after writing a record but before the checkpoint was moved
+        try (FileChannel channel = FileChannel.open(path.resolveSibling("did.idx.checkpoint"), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap("12".getBytes()));
+        }
+
+        index = DIDEventIndex.open(path, BigInteger.ZERO);
+        assertNotNull(index.getRegistration(DID_1));
+        assertNull(index.getRegistration(DID_2));
+
+        List<String> owned = index.getOwnerDIDs(OWNER);
+        assertEquals(Collections.singletonList(DID_1), owned);
+
+        index.append(Collections.singletonList(registered(DID_2, OWNER, "http://aquarius/{did}", 15)), BigInteger.valueOf(15));
+        assertEquals(Arrays.asList(DID_1, DID_2), index.getOwnerDIDs(OWNER));
+        index.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void lookupsDoNotWaitForTheCatchUp() throws Exception {
+
+        Path path = folder.getRoot().toPath().resolve("did.idx");
+        DIDEventIndex index = DIDEventIndex.open(path, BigInteger.ZERO);
+        index.append(Collections.singletonList(registered(DID_1, OWNER, "http://aquarius/{did}", 10)), BigInteger.valueOf(10));
+
+        Web3j web3j = mock(Web3j.class);
+        Request<?, EthBlockNumber> request = (Request<?, EthBlockNumber>) mock(Request.class);
+        EthBlockNumber blockNumber = new EthBlockNumber();
+        blockNumber.setResult("0x14");
+        when(request.send()).thenReturn(blockNumber);
+        doReturn(request).when(web3j).ethBlockNumber();
+
+        CountDownLatch scanning = new CountDownLatch(1);
+        BlockRangeLogScanner scanner = mock(BlockRangeLogScanner.class);
+        when(scanner.getBlockRange()).thenReturn(100l);
+        when(scanner.getParallelism()).thenReturn(1);
+        when(scanner.getLogs(any(), any(), any())).thenAnswer(invocation -> {
+            scanning.await();
+            return Collections.singletonList(registered(DID_2, OWNER, "http://aquarius/{did}", 15));
+        });
+
+        CompletableFuture<Void> catchUp = index.syncAsync(web3j, scanner, "0x01", "0x02");
+        assertSame(catchUp, index.syncAsync(web3j, scanner, "0x01", "0x02"));
+
+        // the blocks indexed are read while the catch-up is in progress
+        assertNotNull(index.getRegistration(DID_1));
+        assertNull(index.getRegistration(DID_2));
+        assertEquals(Collections.singletonList(DID_1), index.getOwnerDIDs(OWNER));
+
+        scanning.countDown();
+        index.sync(web3j, scanner, "0x01", "0x02");
+
+        assertNotNull(index.getRegistration(DID_2));
+        assertEquals(BigInteger.valueOf(20), index.getCheckpoint());
+        verify(scanner, times(1)).getLogs(any(), any(), any());
+        index.close();
+    }
+
+}
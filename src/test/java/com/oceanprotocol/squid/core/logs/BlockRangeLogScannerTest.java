@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.logs;
+
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BlockRangeLogScannerTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    /**
+     * Mocks a node with a log in every block, that rejects the requests of more than maxBlocks blocks
+     */
+    private Web3jService mockNode(long latestBlock, long maxBlocks) throws IOException {
+
+        Web3jService node = mock(Web3jService.class);
+        when(node.send(any(Request.class), any())).thenAnswer(invocation ->
+                respond(invocation.getArgument(0), latestBlock, maxBlocks));
+        when(node.sendAsync(any(Request.class), any())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(respond(invocation.getArgument(0), latestBlock, maxBlocks)));
+        return node;
+    }
+
+    private Response<?> respond(Request<?, ?> request, long latestBlock, long maxBlocks) {
+
+        if (request.getMethod().equals("eth_blockNumber")) {
+            EthBlockNumber blockNumber = new EthBlockNumber();
+            blockNumber.setResult(Numeric.toHexStringWithPrefix(BigInteger.valueOf(latestBlock)));
+            return blockNumber;
+        }
+
+        requests.incrementAndGet();
+        EthFilter filter = (EthFilter) request.getParams().get(0);
+        long from = ((DefaultBlockParameterNumber) filter.getFromBlock()).getBlockNumber().longValue();
+        long to = ((DefaultBlockParameterNumber) filter.getToBlock()).getBlockNumber().longValue();
+
+        EthLog ethLog = new EthLog();
+        if (to - from + 1 > maxBlocks) {
+            ethLog.setError(new Response.Error(-32005, "query returned more than 10000 results"));
+            return ethLog;
+        }
+
+        List<EthLog.LogResult> logs = new ArrayList<>();
+        for (long block = from; block <= to; block++) {
+            EthLog.LogObject logObject = new EthLog.LogObject();
+            logObject.setBlockNumber(Numeric.toHexStringWithPrefix(BigInteger.valueOf(block)));
+            logs.add(logObject);
+        }
+        ethLog.setResult(logs);
+        return ethLog;
+    }
+
+    private static EthFilter newFilter() {
+        return new EthFilter(DefaultBlockParameterName.EARLIEST, DefaultBlockParameterName.LATEST, "0x00bd138abd70e2f00903268f3db08f2d25677c9e");
+    }
+
+    @Test
+    public void scansWindowsInOrder() throws Exception {
+
+        BlockRangeLogScanner scanner = new BlockRangeLogScanner(Web3j.build(mockNode(99, 1000)), 10, 4);
+
+        List<EthLog.LogResult> logs = scanner.getLogs(newFilter());
+
+        assertEquals(100, logs.size());
+        for (int i = 0; i < logs.size(); i++)
+            assertEquals(BigInteger.valueOf(i), ((EthLog.LogObject) logs.get(i)).getBlockNumber());
+        assertEquals(10, requests.get());
+        scanner.shutdown();
+    }
+
+    @Test
+    public void splitsRejectedWindows() throws Exception {
+
+        BlockRangeLogScanner scanner = new BlockRangeLogScanner(Web3j.build(mockNode(1000, 7)), 64, 2);
+
+        List<EthLog.LogResult> logs = scanner.getLogs(newFilter(), BigInteger.valueOf(10), BigInteger.valueOf(200));
+
+        assertEquals(191, logs.size());
+        for (int i = 0; i < logs.size(); i++)
+            assertEquals(BigInteger.valueOf(10 + i), ((EthLog.LogObject) logs.get(i)).getBlockNumber());
+        scanner.shutdown();
+    }
+
+    @Test
+    public void keepsTheReducedRange() throws Exception {
+
+        BlockRangeLogScanner scanner = new BlockRangeLogScanner(Web3j.build(mockNode(1000, 7)), 64, 2);
+        scanner.getLogs(newFilter(), BigInteger.valueOf(10), BigInteger.valueOf(200));
+
+        long range = scanner.getWindowRange();
+        assertTrue(range <= 7);
+
+        // the next scan starts with the reduced range, so no window is rejected
+        requests.set(0);
+        List<EthLog.LogResult> logs = scanner.getLogs(newFilter(), BigInteger.valueOf(300), BigInteger.valueOf(400));
+
+        assertEquals(101, logs.size());
+        assertEquals((101 + range - 1) / range, requests.get());
+        scanner.shutdown();
+    }
+
+    @Test(expected = IOException.class)
+    public void failsWhenASingleBlockIsRejected() throws Exception {
+
+        BlockRangeLogScanner scanner = new BlockRangeLogScanner(Web3j.build(mockNode(10, 0)), 10, 1);
+        scanner.getLogs(newFilter());
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import io.reactivex.processors.PublishProcessor;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class AgreementConfirmationTest {
+
+    private final PublishProcessor<String> events = PublishProcessor.create();
+    private final CompletableFuture<Boolean> transaction = new CompletableFuture<>();
+    private final AtomicInteger checks = new AtomicInteger();
+
+    private CompletableFuture<Boolean> confirm(boolean onChain, long timeout) {
+        return AgreementConfirmation.confirm(events, transaction, () -> {
+            checks.incrementAndGet();
+            return onChain;
+        }, timeout);
+    }
+
+    @Test
+    public void confirmsWithTheEvent() throws Exception {
+
+        CompletableFuture<Boolean> confirmation = confirm(false, 60000);
+        assertFalse(confirmation.isDone());
+
+        events.onNext("AgreementCreated");
+        assertTrue(confirmation.get(1, TimeUnit.SECONDS));
+        assertEquals(0, checks.get());
+        assertFalse(events.hasSubscribers());
+    }
+
+    @Test
+    public void confirmsWithTheReceipt() throws Exception {
+
+        CompletableFuture<Boolean> confirmation = confirm(false, 60000);
+        transaction.complete(true);
+
+        assertTrue(confirmation.get(1, TimeUnit.SECONDS));
+        assertEquals(0, checks.get());
+    }
+
+    @Test
+    public void checksOnChainWhenTheTransactionFails() throws Exception {
+
+        CompletableFuture<Boolean> confirmation = confirm(true, 60000);
+        transaction.complete(false);
+
+        assertTrue(confirmation.get(1, TimeUnit.SECONDS));
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    public void checksOnChainAfterTheDeadline() throws Exception {
+
+        CompletableFuture<Boolean> confirmation = confirm(false, 100);
+
+        assertFalse(confirmation.get(5, TimeUnit.SECONDS));
+        assertEquals(1, checks.get());
+    }
+
+    @Test
+    public void checksOutsideTheThreadOfTheReceipt() throws Exception {
+
+        Thread receiptThread = Thread.currentThread();
+        AtomicReference<Thread> checkThread = new AtomicReference<>();
+        CompletableFuture<Boolean> confirmation = AgreementConfirmation.confirm(events, transaction, () -> {
+            checkThread.set(Thread.currentThread());
+            return true;
+        }, 60000);
+        transaction.complete(false);
+
+        assertTrue(confirmation.get(1, TimeUnit.SECONDS));
+        assertNotSame(receiptThread, checkThread.get());
+        assertEquals("agreement-confirmation", checkThread.get().getName());
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import com.oceanprotocol.keeper.contracts.AccessSecretStoreCondition;
+import com.oceanprotocol.squid.helpers.EncodingHelper;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class AgreementEventMultiplexerTest {
+
+    private static final String AGREEMENT_1 = "1111111111111111111111111111111111111111111111111111111111111111";
+    private static final String AGREEMENT_2 = "2222222222222222222222222222222222222222222222222222222222222222";
+
+    private final List<EthFilter> filters = new ArrayList<>();
+    private PublishProcessor<AccessSecretStoreCondition.FulfilledEventResponse> events;
+    private AgreementEventMultiplexer<AccessSecretStoreCondition.FulfilledEventResponse> multiplexer;
+
+    @Before
+    public void setUp() {
+        events = PublishProcessor.create();
+        multiplexer = new AgreementEventMultiplexer<>(
+                "0x0000000000000000000000000000000000000001",
+                AccessSecretStoreCondition.FULFILLED_EVENT,
+                filter -> {
+                    filters.add(filter);
+                    return events;
+                },
+                event -> event._agreementId,
+                event -> event.log,
+                AgreementEventMultiplexer.DEFAULT_RETENTION);
+    }
+
+    private static AccessSecretStoreCondition.FulfilledEventResponse event(String agreementId, String txHash) throws Exception {
+        AccessSecretStoreCondition.FulfilledEventResponse event = new AccessSecretStoreCondition.FulfilledEventResponse();
+        event._agreementId = EncodingHelper.hexStringToBytes(agreementId);
+        event.log = new Log();
+        event.log.setTransactionHash(txHash);
+        event.log.setLogIndex("0x0");
+        event.log.setBlockNumber("0x10");
+        return event;
+    }
+
+    @Test
+    public void routesEventsWithASingleFilter() throws Exception {
+
+        TestSubscriber<AccessSecretStoreCondition.FulfilledEventResponse> subscriber1 =
+                multiplexer.listen(AGREEMENT_1, BigInteger.TEN).test();
+        TestSubscriber<AccessSecretStoreCondition.FulfilledEventResponse> subscriber2 =
+                multiplexer.listen("0x" + AGREEMENT_2, BigInteger.TEN).test();
+
+        events.onNext(event(AGREEMENT_2, "0xa"));
+        events.onNext(event(AGREEMENT_1, "0xb"));
+        // the same log received again after restarting the filter
+        events.onNext(event(AGREEMENT_1, "0xb"));
+
+        assertEquals(1, filters.size());
+        subscriber1.assertValueCount(1);
+        subscriber2.assertValueCount(1);
+    }
+
+    @Test
+    public void replaysEventsReceivedBeforeSubscribing() throws Exception {
+
+        multiplexer.listen(AGREEMENT_1, BigInteger.TEN);
+        events.onNext(event(AGREEMENT_2, "0xa"));
+
+        multiplexer.listen(AGREEMENT_2, BigInteger.TEN).test().assertValueCount(1);
+        assertEquals(1, filters.size());
+    }
+
+    @Test
+    public void restartsFromAnEarlierBlock() {
+
+        multiplexer.listen(AGREEMENT_1, BigInteger.TEN);
+        multiplexer.listen(AGREEMENT_2, BigInteger.valueOf(20));
+        assertEquals(1, filters.size());
+
+        multiplexer.listen(AGREEMENT_2, BigInteger.ONE);
+        assertEquals(2, filters.size());
+        assertEquals("0x1", filters.get(1).getFromBlock().getValue());
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderJournalTest {
+
+    private static final String DID = "did:op:1111111111111111111111111111111111111111111111111111111111111111";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void resumeOrdersInFlight() throws Exception {
+
+        Path path = folder.getRoot().toPath().resolve("orders.journal");
+
+        OrderJournal journal = OrderJournal.open(path);
+        journal.create("a1", DID, "1", BigInteger.valueOf(10));
+        journal.create("a2", DID, "1", BigInteger.valueOf(11));
+        journal.create("a3", DID, "1", BigInteger.valueOf(12));
+        journal.record("a1", OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+        journal.record("a1", OrderJournal.State.REWARD_LOCKED, BigInteger.valueOf(20));
+        journal.record("a2", OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+        journal.record("a2", OrderJournal.State.REWARD_LOCKED, BigInteger.valueOf(21));
+        journal.record("a2", OrderJournal.State.ACCESS_GRANTED, null);
+        journal.record("a3", OrderJournal.State.FAILED, null);
+        journal.close();
+
+        journal = OrderJournal.open(path);
+        List<OrderJournal.Entry> orders = journal.getInFlightOrders();
+        assertEquals(1, orders.size());
+
+        OrderJournal.Entry entry = orders.get(0);
+        assertEquals("a1", entry.getAgreementId());
+        assertEquals(DID, entry.getDid());
+        assertEquals("1", entry.getServiceDefinitionId());
+        assertEquals(OrderJournal.State.REWARD_LOCKED, entry.getState());
+        assertEquals(BigInteger.valueOf(20), entry.getFromBlock());
+
+        // the finished orders are removed from the file when it's opened
+        assertEquals(1, Files.readAllLines(path).size());
+        journal.close();
+    }
+
+    @Test
+    public void discardIncompleteRecord() throws Exception {
+
+        Path path = folder.getRoot().toPath().resolve("orders.journal");
+
+        OrderJournal journal = OrderJournal.open(path);
+        journal.create("a1", DID, "1", BigInteger.valueOf(10));
+        journal.close();
+
+        // a record partially written during a crash
+        Files.write(path, "AGREEMENT_ON_CHAIN\ta1\tdid:op".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        journal = OrderJournal.open(path);
+        assertEquals(OrderJournal.State.CREATED, journal.getOrder("a1").getState());
+
+        journal.record("a1", OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+        journal.close();
+
+        journal = OrderJournal.open(path);
+        assertEquals(OrderJournal.State.AGREEMENT_ON_CHAIN, journal.getOrder("a1").getState());
+        assertEquals(BigInteger.valueOf(10), journal.getOrder("a1").getFromBlock());
+        journal.close();
+    }
+
+}
@@ -33,6 +33,7 @@ public class ServiceAgreementHandlerIT {
     private static  Config config = ConfigFactory.load();
 
     private static KeeperService keeperPublisher;
+    private static AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> agreementCreated;
 
     private static final String ESCROW_ACCESS_CONTRACT;
     static {
@@ -53,6 +54,7 @@ public class ServiceAgreementHandlerIT {
 
         keeperPublisher = ManagerHelper.getKeeper(config, ManagerHelper.VmClient.parity, "");
         escrowAccessSecretStoreTemplate= ManagerHelper.loadEscrowAccessSecretStoreTemplate(keeperPublisher, ESCROW_ACCESS_CONTRACT);
+        agreementCreated = ServiceAgreementHandler.agreementCreatedMultiplexer(escrowAccessSecretStoreTemplate);
 
         METADATA_JSON_CONTENT =  new String(Files.readAllBytes(Paths.get(METADATA_JSON_SAMPLE)));
         metadataBase = DDO.fromJSON(new TypeReference<AssetMetadata>() {}, METADATA_JSON_CONTENT);
@@ -81,7 +83,8 @@ public class ServiceAgreementHandlerIT {
 
         // fake agreement Id
         String agreementId = "0x0000000000000007b78b2e6e81b89c5b971cf8f8516e4603ada566e0bc8f891e";
-        Boolean result = ServiceAgreementHandler.checkAgreementStatus(agreementId, oceanAPIConsumer.getMainAccount().getAddress(), escrowAccessSecretStoreTemplate, 2, 500);
+        Boolean result = ServiceAgreementHandler.checkAgreementStatus(agreementId, oceanAPIConsumer.getMainAccount().getAddress(), escrowAccessSecretStoreTemplate,
+                agreementCreated, keeperPublisher.getWeb3().ethBlockNumber().send().getBlockNumber(), 2, 500);
 
         assertFalse(result);
 
@@ -102,7 +105,8 @@ public class ServiceAgreementHandlerIT {
         TimeUnit.SECONDS.sleep(2l);
         assertEquals(true, orderResult.isAccessGranted());
 
-        Boolean result = ServiceAgreementHandler.checkAgreementStatus(orderResult.getServiceAgreementId(), oceanAPIConsumer.getMainAccount().getAddress(), escrowAccessSecretStoreTemplate, 2, 500);
+        Boolean result = ServiceAgreementHandler.checkAgreementStatus(orderResult.getServiceAgreementId(), oceanAPIConsumer.getMainAccount().getAddress(), escrowAccessSecretStoreTemplate,
+                agreementCreated, keeperPublisher.getWeb3().ethBlockNumber().send().getBlockNumber(), 2, 500);
 
         assertTrue(result);
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.sla;
+
+import com.oceanprotocol.keeper.contracts.EscrowAccessSecretStoreTemplate;
+import com.oceanprotocol.squid.helpers.EncodingHelper;
+import io.reactivex.processors.PublishProcessor;
+import org.junit.Test;
+import org.web3j.protocol.core.RemoteCall;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.tuples.generated.Tuple2;
+
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ServiceAgreementHandlerTest {
+
+    private static final String AGREEMENT_1 = "1111111111111111111111111111111111111111111111111111111111111111";
+    private static final String AGREEMENT_2 = "2222222222222222222222222222222222222222222222222222222222222222";
+    private static final String CONSUMER = "0x00000000000000000000000000000000000000aa";
+    private static final String NOBODY = "0x0000000000000000000000000000000000000000";
+
+    private static EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse created(String agreementId) throws Exception {
+        EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse event = new EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse();
+        event._agreementId = EncodingHelper.hexStringToBytes(agreementId);
+        event._accessConsumer = CONSUMER;
+        event.log = new Log();
+        event.log.setTransactionHash("0x" + agreementId);
+        event.log.setLogIndex("0x0");
+        event.log.setBlockNumber("0x10");
+        return event;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void waitsForTheAgreementThroughTheMultiplexer() throws Exception {
+
+        EscrowAccessSecretStoreTemplate template = mock(EscrowAccessSecretStoreTemplate.class);
+        RemoteCall<Tuple2<String, String>> agreementData = (RemoteCall<Tuple2<String, String>>) mock(RemoteCall.class);
+        when(agreementData.send()).thenReturn(new Tuple2<>(NOBODY, NOBODY));
+        when(template.getContractAddress()).thenReturn("0x0000000000000000000000000000000000000001");
+        when(template.getAgreementData(any())).thenReturn(agreementData);
+
+        PublishProcessor<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> events = PublishProcessor.create();
+        when(template.agreementCreatedEventFlowable(any())).thenReturn(events);
+        AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> multiplexer =
+                ServiceAgreementHandler.agreementCreatedMultiplexer(template);
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> check(template, multiplexer, AGREEMENT_1));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> check(template, multiplexer, AGREEMENT_2));
+        while (multiplexer.getChannels() < 2)
+            Thread.sleep(10);
+
+        events.onNext(created(AGREEMENT_2));
+        events.onNext(created(AGREEMENT_1));
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+        // both agreements are listened with the filter of the template
+        verify(template, times(1)).agreementCreatedEventFlowable(any());
+        assertEquals(2, multiplexer.getChannels());
+    }
+
+    private static Boolean check(EscrowAccessSecretStoreTemplate template,
+                                 AgreementEventMultiplexer<EscrowAccessSecretStoreTemplate.AgreementCreatedEventResponse> multiplexer,
+                                 String agreementId) {
+        try {
+            return ServiceAgreementHandler.checkAgreementStatus(agreementId, CONSUMER, template, multiplexer, BigInteger.TEN, 50, 100);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
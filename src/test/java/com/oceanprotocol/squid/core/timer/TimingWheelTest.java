@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.timer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+
+    private static final long START = 1000000l;
+
+    private final AtomicLong clock = new AtomicLong(START);
+    private final List<List<String>> handled = new ArrayList<>();
+
+    private TimingWheel<String> newWheel() {
+        return new TimingWheel<>(100, 8, handled::add, clock::get, null);
+    }
+
+    @Test
+    public void expireTasksOfTheSameTickTogether() {
+
+        TimingWheel<String> wheel = newWheel();
+        wheel.schedule("a", "a", START + 250);
+        wheel.schedule("b", "b", START + 290);
+        wheel.schedule("c", "c", START + 350);
+
+        wheel.advance(START + 200);
+        assertTrue(handled.isEmpty());
+
+        wheel.advance(START + 300);
+        assertEquals(1, handled.size());
+        List<String> expired = new ArrayList<>(handled.get(0));
+        Collections.sort(expired);
+        assertEquals(Arrays.asList("a", "b"), expired);
+
+        wheel.advance(START + 400);
+        assertEquals(Collections.singletonList("c"), handled.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void moveDownTasksOfUpperLevels() {
+
+        TimingWheel<String> wheel = newWheel();
+        // beyond the 800 ms of the first level, and the 6400 ms of the second one
+        wheel.schedule("a", "a", START + 5050);
+        wheel.schedule("b", "b", START + 20010);
+
+        wheel.advance(START + 5000);
+        assertTrue(handled.isEmpty());
+        wheel.advance(START + 5100);
+        assertEquals(Collections.singletonList("a"), handled.get(0));
+
+        wheel.advance(START + 20000);
+        assertEquals(1, handled.size());
+        wheel.advance(START + 20100);
+        assertEquals(Collections.singletonList("b"), handled.get(1));
+    }
+
+    @Test
+    public void discardCancelledTasks() {
+
+        TimingWheel<String> wheel = newWheel();
+        wheel.schedule("a", "a", START + 150);
+        wheel.schedule("b", "b", START + 150);
+        assertTrue(wheel.cancel("a"));
+
+        // the task is replaced with a new deadline
+        wheel.schedule("b", "b2", START + 450);
+
+        wheel.advance(START + 200);
+        assertTrue(handled.isEmpty());
+        assertFalse(wheel.cancel("a"));
+
+        wheel.advance(START + 500);
+        assertEquals(Collections.singletonList("b2"), handled.get(0));
+    }
+
+}
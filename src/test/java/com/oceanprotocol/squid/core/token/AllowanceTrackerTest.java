@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.core.token;
+
+import com.oceanprotocol.keeper.contracts.OceanToken;
+import com.oceanprotocol.squid.exceptions.TokenApproveException;
+import com.oceanprotocol.squid.external.KeeperService;
+import io.reactivex.processors.PublishProcessor;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.core.RemoteCall;
+import org.web3j.protocol.core.methods.request.EthFilter;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class AllowanceTrackerTest {
+
+    private static final String OWNER = "0x00000000000000000000000000000000000000aa";
+    private static final String SPENDER = "0x00000000000000000000000000000000000000bb";
+    private static final String RECIPIENT = "0x00000000000000000000000000000000000000dd";
+
+    private final PublishProcessor<OceanToken.ApprovalEventResponse> approvals = PublishProcessor.create();
+    private final PublishProcessor<OceanToken.TransferEventResponse> transfers = PublishProcessor.create();
+    private KeeperService keeperService;
+    private RemoteCall<BigInteger> allowanceCall;
+    private AllowanceTracker tracker;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        OceanToken token = mock(OceanToken.class);
+        keeperService = mock(KeeperService.class);
+        allowanceCall = (RemoteCall<BigInteger>) mock(RemoteCall.class);
+
+        when(token.getContractAddress()).thenReturn("0x00000000000000000000000000000000000000cc");
+        when(token.allowance(OWNER, SPENDER)).thenReturn(allowanceCall);
+        when(token.approvalEventFlowable(any(EthFilter.class))).thenReturn(approvals);
+        when(token.transferEventFlowable(any(EthFilter.class))).thenReturn(transfers);
+        when(keeperService.tokenApprove(any(), anyString(), anyString())).thenReturn(true);
+
+        tracker = new AllowanceTracker(keeperService, token, OWNER, SPENDER, Collections.singletonList(RECIPIENT));
+    }
+
+    @Test
+    public void approvesOnlyWhenTheAllowanceIsNotEnough() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.valueOf(100));
+
+        assertFalse(tracker.reserve(BigInteger.valueOf(40), BigInteger.ZERO));
+        assertFalse(tracker.reserve(BigInteger.valueOf(40), BigInteger.ZERO));
+        assertTrue(tracker.reserve(BigInteger.valueOf(40), BigInteger.ZERO));
+
+        // the amounts reserved by the orders in progress are kept in the new allowance
+        verify(keeperService, times(1)).tokenApprove(any(), eq(SPENDER), eq("120"));
+        verify(allowanceCall, times(1)).send();
+    }
+
+    @Test
+    public void approvesTheBudget() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.ZERO);
+
+        assertTrue(tracker.reserve(BigInteger.TEN, BigInteger.valueOf(1000)));
+        tracker.release(BigInteger.TEN);
+        assertFalse(tracker.reserve(BigInteger.TEN, BigInteger.valueOf(1000)));
+
+        verify(keeperService, times(1)).tokenApprove(any(), eq(SPENDER), eq("1000"));
+    }
+
+    @Test
+    public void approvesAgainWhenTheAllowanceWasSpent() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.TEN);
+
+        assertFalse(tracker.reserve(BigInteger.TEN, BigInteger.ZERO));
+        tracker.spend(BigInteger.TEN);
+        assertEquals(BigInteger.ZERO, tracker.getAllowance());
+
+        // the Transfer event of the first amount is not received yet
+        assertTrue(tracker.reserve(BigInteger.TEN, BigInteger.ZERO));
+
+        verify(keeperService, times(1)).tokenApprove(any(), eq(SPENDER), eq("10"));
+        verify(allowanceCall, times(1)).send();
+    }
+
+    @Test
+    public void updatesTheAllowanceWithTheEvents() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.ZERO, BigInteger.valueOf(7));
+        assertEquals(BigInteger.ZERO, tracker.getAllowance());
+
+        approvals.onNext(approval(50));
+        assertEquals(BigInteger.valueOf(50), tracker.getAllowance());
+
+        transfers.onNext(transfer("0x00000000000000000000000000000000000000ee"));
+        assertEquals(BigInteger.valueOf(7), tracker.getAllowance());
+        verify(allowanceCall, times(2)).send();
+    }
+
+    @Test
+    public void ignoresTheEventsOfItsOwnApprovesAndSpends() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.ZERO);
+
+        assertTrue(tracker.reserve(BigInteger.TEN, BigInteger.valueOf(30)));
+        tracker.spend(BigInteger.TEN);
+
+        // the events of the approve and the transferFrom arrive after the spend
+        approvals.onNext(approval(30));
+        transfers.onNext(transfer(RECIPIENT));
+        approvals.onNext(approval(20));
+        transfers.onNext(transfer(SPENDER));
+
+        assertEquals(BigInteger.valueOf(20), tracker.getAllowance());
+        verify(allowanceCall, times(1)).send();
+    }
+
+    @Test
+    public void approvesWithoutHoldingTheTracker() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(BigInteger.ZERO);
+        CountDownLatch approving = new CountDownLatch(1);
+        CountDownLatch mined = new CountDownLatch(1);
+        when(keeperService.tokenApprove(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            approving.countDown();
+            mined.await();
+            return true;
+        });
+
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> reserve(BigInteger.TEN));
+        assertTrue(approving.await(5, TimeUnit.SECONDS));
+
+        // the tracker can be used while the approve is mined, and the reservations wait for it
+        tracker.release(BigInteger.ZERO);
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> reserve(BigInteger.TEN));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        mined.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertFalse(second.get(5, TimeUnit.SECONDS));
+        verify(keeperService, times(1)).tokenApprove(any(), eq(SPENDER), eq("100"));
+    }
+
+    private boolean reserve(BigInteger amount) {
+        try {
+            return tracker.reserve(amount, BigInteger.valueOf(100));
+        } catch (TokenApproveException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static OceanToken.ApprovalEventResponse approval(long value) {
+        OceanToken.ApprovalEventResponse approval = new OceanToken.ApprovalEventResponse();
+        approval.value = BigInteger.valueOf(value);
+        return approval;
+    }
+
+    private static OceanToken.TransferEventResponse transfer(String to) {
+        OceanToken.TransferEventResponse transfer = new OceanToken.TransferEventResponse();
+        transfer.from = OWNER;
+        transfer.to = to;
+        return transfer;
+    }
+
+}
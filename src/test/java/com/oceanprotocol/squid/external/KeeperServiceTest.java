@@ -0,0 +1,26 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external;
+
+import org.junit.Test;
+import org.web3j.protocol.Web3jService;
+
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.mock;
+
+public class KeeperServiceTest {
+
+    @Test
+    public void buildsTheWatchersOverAWeb3jService() {
+
+        KeeperService keeper = KeeperService.getInstance(mock(Web3jService.class), 10, 200);
+
+        assertNotNull(keeper.getJsonRpcBatch());
+        assertNotNull(keeper.getChainHeadTracker());
+        assertNotNull(keeper.getReceiptWatcher());
+    }
+
+}
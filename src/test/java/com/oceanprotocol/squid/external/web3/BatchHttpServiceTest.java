@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchHttpServiceTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer server;
+    private final AtomicInteger httpRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // answers every request of a batch with the balance of the address, in reverse order
+        server.createContext("/", exchange -> {
+            httpRequests.incrementAndGet();
+            JsonNode batch = mapper.readTree(exchange.getRequestBody());
+            ArrayNode responses = mapper.createArrayNode();
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                ObjectNode response = responses.addObject();
+                response.put("jsonrpc", "2.0");
+                response.put("id", batch.get(i).get("id").asLong());
+                response.put("result", batch.get(i).get("params").get(0).asText());
+            }
+            byte[] body = mapper.writeValueAsBytes(responses);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void sendsRequestsInASingleBatch() throws Exception {
+
+        BatchHttpService service = new BatchHttpService("http://localhost:" + server.getAddress().getPort());
+        Web3j web3j = Web3j.build(service);
+
+        List<Request<?, EthGetBalance>> requests = Arrays.asList(
+                web3j.ethGetBalance("0x01", DefaultBlockParameterName.LATEST),
+                web3j.ethGetBalance("0x02", DefaultBlockParameterName.LATEST),
+                web3j.ethGetBalance("0x03", DefaultBlockParameterName.LATEST));
+
+        List<EthGetBalance> responses = new JsonRpcBatch(service).send(requests, EthGetBalance.class);
+
+        assertEquals(1, httpRequests.get());
+        assertEquals(BigInteger.valueOf(1), responses.get(0).getBalance());
+        assertEquals(BigInteger.valueOf(2), responses.get(1).getBalance());
+        assertEquals(BigInteger.valueOf(3), responses.get(2).getBalance());
+    }
+
+}
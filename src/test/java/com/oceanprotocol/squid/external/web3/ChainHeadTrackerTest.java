@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.*;
+
+public class ChainHeadTrackerTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private Request<?, EthBlock> request;
+    private EthBlock.Block block;
+    private ChainHeadTracker tracker;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Web3j web3j = mock(Web3j.class);
+        request = (Request<?, EthBlock>) mock(Request.class);
+        EthBlock response = mock(EthBlock.class);
+        block = mock(EthBlock.Block.class);
+
+        when(block.getNumber()).thenReturn(BigInteger.TEN);
+        when(block.getGasLimit()).thenReturn(BigInteger.valueOf(8000000));
+        when(response.getBlock()).thenReturn(block);
+        when(request.send()).thenReturn(response);
+        Mockito.doReturn(request).when(web3j).ethGetBlockByNumber(any(), anyBoolean());
+
+        tracker = new ChainHeadTracker(web3j, 1000, now::get);
+    }
+
+    @Test
+    public void cachesTheLatestBlock() throws Exception {
+
+        assertEquals(BigInteger.valueOf(8000000), tracker.getBlockGasLimit());
+        now.set(999);
+        assertEquals(BigInteger.TEN, tracker.getBlockNumber());
+        verify(request, times(1)).send();
+
+        now.set(1000);
+        tracker.getBlockGasLimit();
+        verify(request, times(2)).send();
+    }
+
+    @Test
+    public void refreshesOnNewBlocks() throws Exception {
+
+        tracker.getLatestBlock();
+        tracker.onNewBlock(BigInteger.TEN);
+        tracker.getLatestBlock();
+        verify(request, times(1)).send();
+
+        tracker.onNewBlock(BigInteger.valueOf(11));
+        tracker.getLatestBlock();
+        verify(request, times(2)).send();
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import io.reactivex.Flowable;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class LogPollerTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+
+    @Test
+    public void pollsWhenTheNextBlockIsExpected() {
+
+        LogPoller poller = new LogPoller(mock(Web3j.class), 5000, true, now::get);
+        poller.onBlock(BigInteger.TEN);
+        now.set(1000);
+        poller.onBlock(BigInteger.valueOf(11));
+        assertEquals(1000, poller.getBlockTime());
+
+        now.set(1200);
+        assertEquals(900, poller.nextDelay(0));
+
+        // backs off while the block is late
+        assertEquals(200, poller.nextDelay(1));
+        assertEquals(800, poller.nextDelay(3));
+        assertEquals(5000, poller.nextDelay(10));
+    }
+
+    @Test
+    public void pollsWithAFixedInterval() {
+
+        LogPoller poller = new LogPoller(mock(Web3j.class), 5000, false, now::get);
+        poller.onBlock(BigInteger.TEN);
+        now.set(1000);
+        poller.onBlock(BigInteger.valueOf(11));
+
+        assertEquals(5000, poller.nextDelay(0));
+        assertEquals(5000, poller.nextDelay(3));
+    }
+
+    private Web3j web3j;
+    private Request<?, EthBlockNumber> blockRequest;
+
+    /**
+     * Mocks a node whose latest block is 5, with a log in it
+     */
+    @SuppressWarnings("unchecked")
+    private void mockNode() throws Exception {
+
+        web3j = mock(Web3j.class);
+        blockRequest = (Request<?, EthBlockNumber>) mock(Request.class);
+        EthBlockNumber blockNumber = new EthBlockNumber();
+        blockNumber.setResult("0x5");
+        when(blockRequest.send()).thenReturn(blockNumber);
+        Mockito.doReturn(blockRequest).when(web3j).ethBlockNumber();
+
+        Request<?, EthLog> logsRequest = (Request<?, EthLog>) mock(Request.class);
+        EthLog ethLog = new EthLog();
+        ethLog.setResult(Collections.singletonList(new EthLog.LogObject()));
+        ((EthLog.LogObject) ethLog.getLogs().get(0)).setBlockNumber("0x5");
+        when(logsRequest.send()).thenReturn(ethLog);
+        Mockito.doReturn(logsRequest).when(web3j).ethGetLogs(any());
+    }
+
+    private static EthFilter newFilter() {
+        return new EthFilter(DefaultBlockParameter.valueOf(BigInteger.valueOf(4)),
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(5)), "0x0000000000000000000000000000000000000001");
+    }
+
+    @Test
+    public void emitsTheLogsOfTheFilter() throws Exception {
+
+        mockNode();
+
+        new LogPoller(web3j, 5000, false).flowable(newFilter())
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(1)
+                .assertComplete();
+    }
+
+    @Test
+    public void readsTheLatestBlockOncePerCycle() throws Exception {
+
+        mockNode();
+        LogPoller poller = new LogPoller(web3j, 5000, false, now::get);
+
+        Flowable.merge(poller.flowable(newFilter()), poller.flowable(newFilter()), poller.flowable(newFilter()))
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertValueCount(3)
+                .assertComplete();
+
+        verify(blockRequest, times(1)).send();
+    }
+
+    @Test
+    public void pollsAgainAfterAnError() throws Exception {
+
+        mockNode();
+        EthBlockNumber blockNumber = blockRequest.send();
+        when(blockRequest.send()).thenThrow(new IOException("connection refused")).thenReturn(blockNumber);
+        LogPoller poller = new LogPoller(web3j, 100, false, now::get);
+
+        poller.flowable(newFilter())
+                .test()
+                .awaitDone(5, TimeUnit.SECONDS)
+                .assertNoErrors()
+                .assertValueCount(1)
+                .assertComplete();
+
+        assertEquals(100, poller.errorDelay(1));
+        assertEquals(400, poller.errorDelay(3));
+        assertEquals(LogPoller.MAX_ERROR_DELAY, poller.errorDelay(100));
+    }
+
+}
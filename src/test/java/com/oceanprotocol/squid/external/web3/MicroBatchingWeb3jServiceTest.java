@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetBalance;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class MicroBatchingWeb3jServiceTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String SLOW = "0x0999";
+
+    private HttpServer server;
+    private final AtomicInteger httpRequests = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // answers every request with its first param, or with 0x10 if it doesn't have params.
+        // The requests of the address SLOW are answered after a second
+        server.createContext("/", exchange -> {
+            httpRequests.incrementAndGet();
+            JsonNode body = mapper.readTree(exchange.getRequestBody());
+            if (body.toString().contains(SLOW)) {
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            JsonNode result;
+            if (body.isArray()) {
+                ArrayNode responses = mapper.createArrayNode();
+                for (JsonNode request : body)
+                    responses.add(answer(request));
+                result = responses;
+            } else
+                result = answer(body);
+
+            byte[] bytes = mapper.writeValueAsBytes(result);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    private static ObjectNode answer(JsonNode request) {
+        ObjectNode response = mapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.put("id", request.get("id").asLong());
+        response.put("result", request.get("params").size() > 0 ? request.get("params").get(0).asText() : "0x10");
+        return response;
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void groupsConcurrentReadsInASingleBatch() throws Exception {
+
+        BatchHttpService httpService = new BatchHttpService("http://localhost:" + server.getAddress().getPort());
+        Web3j web3j = Web3j.build(new MicroBatchingWeb3jService(httpService, 200l));
+
+        List<CompletableFuture<EthGetBalance>> futures = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            String address = "0x0" + i;
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return web3j.ethGetBalance(address, DefaultBlockParameterName.LATEST).send();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(BigInteger.valueOf(i + 1), futures.get(i).get().getBalance());
+        }
+        assertEquals(1, httpRequests.get());
+    }
+
+    @Test
+    public void sendsOtherRequestsDirectly() throws Exception {
+
+        BatchHttpService httpService = new BatchHttpService("http://localhost:" + server.getAddress().getPort());
+        Web3j web3j = Web3j.build(new MicroBatchingWeb3jService(httpService, 60000l));
+
+        EthBlockNumber blockNumber = web3j.ethBlockNumber().send();
+
+        assertEquals(BigInteger.valueOf(16), blockNumber.getBlockNumber());
+        assertEquals(1, httpRequests.get());
+    }
+
+    @Test
+    public void slowBatchDoesNotDelayTheNextOne() throws Exception {
+
+        BatchHttpService httpService = new BatchHttpService("http://localhost:" + server.getAddress().getPort());
+        Web3j web3j = Web3j.build(new MicroBatchingWeb3jService(httpService, 10l));
+
+        CompletableFuture<EthGetBalance> slow = web3j.ethGetBalance(SLOW, DefaultBlockParameterName.LATEST).sendAsync();
+        Thread.sleep(100);
+        EthGetBalance fast = web3j.ethGetBalance("0x01", DefaultBlockParameterName.LATEST).sendAsync().get(500, TimeUnit.MILLISECONDS);
+
+        assertEquals(BigInteger.ONE, fast.getBalance());
+        assertFalse(slow.isDone());
+        assertEquals(BigInteger.valueOf(0x999), slow.get().getBalance());
+    }
+
+}
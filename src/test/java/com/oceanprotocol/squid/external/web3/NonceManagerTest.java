@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthGetTransactionCount;
+
+import java.math.BigInteger;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class NonceManagerTest {
+
+    private static final String ADDRESS = "0x00bd138abd70e2f00903268f3db08f2d25677c9e";
+
+    private Request<?, EthGetTransactionCount> request;
+    private EthGetTransactionCount response;
+    private NonceManager nonceManager;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        Web3j web3j = mock(Web3j.class);
+        request = (Request<?, EthGetTransactionCount>) mock(Request.class);
+        response = mock(EthGetTransactionCount.class);
+
+        when(response.getTransactionCount()).thenReturn(BigInteger.valueOf(5));
+        when(request.send()).thenReturn(response);
+        Mockito.doReturn(request).when(web3j).ethGetTransactionCount(anyString(), any());
+
+        nonceManager = new NonceManager(web3j);
+    }
+
+    @Test
+    public void handsOutDifferentNonces() throws Exception {
+
+        Set<BigInteger> nonces = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> nonces.add(nonceManager.acquire(ADDRESS)));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals(100, nonces.size());
+        assertEquals(BigInteger.valueOf(104), nonces.stream().max(BigInteger::compareTo).get());
+        verify(request, times(1)).send();
+    }
+
+    @Test
+    public void reusesReleasedNonces() throws Exception {
+
+        BigInteger first = nonceManager.acquire(ADDRESS);
+        BigInteger second = nonceManager.acquire(ADDRESS);
+        nonceManager.acquire(ADDRESS);
+
+        nonceManager.release(ADDRESS, second);
+        assertEquals(second, nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.valueOf(8), nonceManager.acquire(ADDRESS));
+
+        nonceManager.onError(ADDRESS, BigInteger.valueOf(8), "Transaction gas is too low");
+        assertEquals(BigInteger.valueOf(8), nonceManager.acquire(ADDRESS));
+        assertEquals(BigInteger.valueOf(5), first);
+    }
+
+    @Test
+    public void resyncsOnNonceErrors() throws Exception {
+
+        nonceManager.acquire(ADDRESS);
+        BigInteger nonce = nonceManager.acquire(ADDRESS);
+
+        when(response.getTransactionCount()).thenReturn(BigInteger.valueOf(9));
+        nonceManager.onError(ADDRESS, nonce, "Transaction nonce is too low. Try incrementing the nonce.");
+
+        assertEquals(BigInteger.valueOf(9), nonceManager.acquire(ADDRESS));
+        verify(request, times(2)).send();
+    }
+
+}
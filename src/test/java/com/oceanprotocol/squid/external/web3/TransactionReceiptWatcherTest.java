@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.external.web3;
+
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.Web3jService;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.exceptions.TransactionException;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransactionReceiptWatcherTest {
+
+    private static final String MINED_TX = "0x01";
+    private static final String PENDING_TX = "0x02";
+
+    private final AtomicInteger block = new AtomicInteger();
+    private final AtomicInteger receiptRequests = new AtomicInteger();
+    private final Set<String> mined = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Mocks a node that mines a block per request of the block number
+     */
+    private Web3jService mockNode() throws IOException {
+
+        Web3jService node = mock(Web3jService.class);
+        when(node.send(any(Request.class), any())).thenAnswer(invocation -> respond(invocation.getArgument(0)));
+        return node;
+    }
+
+    private Response<?> respond(Request<?, ?> request) {
+
+        if (request.getMethod().equals("eth_blockNumber")) {
+            EthBlockNumber blockNumber = new EthBlockNumber();
+            blockNumber.setResult("0x" + Integer.toHexString(block.incrementAndGet()));
+            return blockNumber;
+        }
+
+        receiptRequests.incrementAndGet();
+        String hash = (String) request.getParams().get(0);
+        EthGetTransactionReceipt response = new EthGetTransactionReceipt();
+        if (mined.contains(hash)) {
+            TransactionReceipt receipt = new TransactionReceipt();
+            receipt.setTransactionHash(hash);
+            receipt.setStatus("0x1");
+            response.setResult(receipt);
+        }
+        return response;
+    }
+
+    @Test
+    public void completesMinedTransactions() throws Exception {
+
+        Web3jService node = mockNode();
+        TransactionReceiptWatcher watcher = new TransactionReceiptWatcher(Web3j.build(node), node, 10, 5000);
+
+        CompletableFuture<TransactionReceipt> future = watcher.watch(MINED_TX);
+        Thread.sleep(50);
+        assertFalse(future.isDone());
+
+        mined.add(MINED_TX);
+        TransactionReceipt receipt = future.get(5, TimeUnit.SECONDS);
+
+        assertEquals(MINED_TX, receipt.getTransactionHash());
+        assertEquals(0, watcher.getPendingTransactions());
+    }
+
+    @Test
+    public void expiresAfterTimeout() throws Exception {
+
+        Web3jService node = mockNode();
+        TransactionReceiptWatcher watcher = new TransactionReceiptWatcher(Web3j.build(node), node, 10, 100);
+
+        try {
+            watcher.watch(PENDING_TX).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TransactionException);
+        }
+        assertEquals(0, watcher.getPendingTransactions());
+
+        // the watcher stops polling when there are no pending transactions
+        int requests = receiptRequests.get();
+        Thread.sleep(100);
+        assertEquals(requests, receiptRequests.get());
+    }
+
+}
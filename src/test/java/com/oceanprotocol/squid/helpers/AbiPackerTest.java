@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.service.AccessService;
+import org.junit.Test;
+import org.web3j.crypto.Hash;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbiPackerTest {
+
+    private static final String DDO_JSON_SAMPLE = "src/test/resources/examples/ddo-example.json";
+
+    private static final String AGREEMENT_ID = "0x0f1e2d3c4b5a69788796a5b4c3d2e1f00f1e2d3c4b5a69788796a5b4c3d2e1f0";
+    private static final String CONSUMER = "0x068ed00cf0441e4829d9784fcbe7b9e26d4bd8d0";
+    private static final String PUBLISHER = "0x00bd138abd70e2f00903268f3db08f2d25677c9e";
+    private static final String LOCK_REWARD_ADDRESS = "0x3a3926f3f88f1ee05164404f93fdb3887cbe8e35";
+    private static final String ACCESS_SECRET_STORE_ADDRESS = "0x19513460bc16254c74ae806683e906478a42b543";
+    private static final String ESCROW_REWARD_ADDRESS = "0x8f006dbb3727d18f032c5618595ecdd2ede13b61";
+
+    // generated with the hex String concatenations hashed with Hash.sha3
+    private static final String LOCK_REWARD_ID = "0xb48f148e1a0fee780ee1a67875fe44ec1d1e6ce329ff8395fdacc2a7f9791594";
+    private static final String ACCESS_SECRET_STORE_ID = "0xceb6ba34a23488f1ac0edab24f52a6404056e805e8ba7213c4c824fd556ba577";
+    private static final String ESCROW_REWARD_ID = "0xb6d5332be8bbe1e345979f0d6ce0a2381108b02ace33a40023cdccad6d326a3a";
+    private static final String AGREEMENT_HASH = "0xda96f43a84e298a5cd66e2255f75319ecdf554ced88153c1443dab174c0fb522";
+
+    private static AccessService getAccessService() throws Exception {
+
+        DDO ddo = DDO.fromJSON(new TypeReference<DDO>() {}, new String(Files.readAllBytes(Paths.get(DDO_JSON_SAMPLE))));
+        AccessService accessService = ddo.getAccessService("1");
+        accessService.templateId = PUBLISHER;
+        accessService.getConditionbyName("lockReward").getParameterByName("_amount").value = "10";
+        accessService.getConditionbyName("escrowReward").getParameterByName("_amount").value = "10";
+        accessService.getConditionbyName("accessSecretStore").getParameterByName("_documentId").value =
+                "0x2c22d7f7a5b74b8ab00e2b3eb3e4ec0b2a3a2f1c9f4aa8f2e1b2c3d4e5f60718";
+        accessService.serviceAgreementTemplate.conditions.get(1).timeout = 10;
+        accessService.serviceAgreementTemplate.conditions.get(2).timelock = 3;
+        return accessService;
+    }
+
+    @Test
+    public void conditionIds() throws Exception {
+
+        AccessService accessService = getAccessService();
+
+        assertEquals(LOCK_REWARD_ID, accessService.generateLockRewardId(AGREEMENT_ID, ESCROW_REWARD_ADDRESS, LOCK_REWARD_ADDRESS));
+        assertEquals(ACCESS_SECRET_STORE_ID, accessService.generateAccessSecretStoreConditionId(AGREEMENT_ID, CONSUMER, ACCESS_SECRET_STORE_ADDRESS));
+        assertEquals(ESCROW_REWARD_ID, accessService.generateEscrowRewardConditionId(AGREEMENT_ID, CONSUMER, PUBLISHER,
+                ESCROW_REWARD_ADDRESS, LOCK_REWARD_ID, ACCESS_SECRET_STORE_ID));
+    }
+
+    @Test
+    public void serviceAgreementHash() throws Exception {
+
+        AccessService accessService = getAccessService();
+
+        assertEquals(AGREEMENT_HASH, accessService.generateServiceAgreementHash(AGREEMENT_ID, CONSUMER, PUBLISHER,
+                LOCK_REWARD_ADDRESS, ACCESS_SECRET_STORE_ADDRESS, ESCROW_REWARD_ADDRESS));
+    }
+
+    @Test
+    public void sameHashThanHexConcatenation() throws Exception {
+
+        String uint = EthereumHelper.remove0x(EncodingHelper.hexEncodeAbiType("uint", BigInteger.valueOf(1234567)));
+
+        assertEquals(Hash.sha3("0x" + "abc" + uint + "0f"),
+                AbiPacker.get().hex("0xabc").uint256(1234567).hex("0f").keccakHex());
+        assertEquals(Hash.sha3("0x" + uint + "abc"),
+                AbiPacker.get().uint256(BigInteger.valueOf(1234567)).hex("0xa0xbc").keccakHex());
+        assertEquals(Hash.sha3("0x"), AbiPacker.get().keccakHex());
+    }
+
+}
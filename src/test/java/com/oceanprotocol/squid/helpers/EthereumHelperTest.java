@@ -9,12 +9,15 @@ import com.oceanprotocol.squid.exceptions.EncodingException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Test;
+import org.web3j.crypto.Credentials;
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Sign;
 import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -54,6 +57,48 @@ public class EthereumHelperTest {
 
     }
 
+    @Test
+    public void recoverAddressWithV() {
+        byte[] hashMessage = EthereumHelper.getEthereumMessageHash("Hi dude");
+        Sign.SignatureData signatureData = EthereumHelper.signMessage("Hi dude", KEY_PAIR);
+
+        assertEquals(ADDRESS, EthereumHelper.recoverAddress(signatureData, hashMessage));
+        assertTrue(EthereumHelper.recoverAddressFromSignature(signatureData, hashMessage).contains(ADDRESS));
+
+        Sign.SignatureData invalidV = new Sign.SignatureData((byte) 99, signatureData.getR(), signatureData.getS());
+        assertNull(EthereumHelper.recoverAddress(invalidV, hashMessage));
+        assertTrue(EthereumHelper.wasSignedByAddress(ADDRESS, invalidV, hashMessage));
+    }
+
+    @Test
+    public void verifyAll() {
+        List<EthereumHelper.SignedMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String message = "Message " + i;
+            String address = i % 3 == 0 ? "0x00bd138abd70e2f00903268f3db08f2d25677c9e" : ADDRESS;
+            messages.add(new EthereumHelper.SignedMessage(address, EthereumHelper.signMessage(message, KEY_PAIR),
+                    EthereumHelper.getEthereumMessageHash(message)));
+        }
+
+        boolean[] results = EthereumHelper.verifyAll(messages);
+
+        assertEquals(messages.size(), results.length);
+        for (int i = 0; i < results.length; i++)
+            assertEquals(i % 3 != 0, results[i]);
+    }
+
+    @Test
+    public void localSignMessage() throws Exception {
+        String hash = CryptoHelper.sha3256("Hi there");
+
+        String signature = EthereumHelper.localSignMessage(hash, Credentials.create(KEY_PAIR));
+        assertEquals(132, signature.length());
+
+        Sign.SignatureData signatureData = EncodingHelper.stringToSignature(signature.substring(2));
+        assertEquals(KEY_PAIR.getPublicKey(), Sign.signedPrefixedMessageToKey(Numeric.hexStringToByteArray(hash), signatureData));
+        assertTrue(signatureData.getV() == 27 || signatureData.getV() == 28);
+    }
+
     @Test
     public void checkingSignatureString() throws EncodingException {
         String message = CryptoHelper.sha3256("Hi there");
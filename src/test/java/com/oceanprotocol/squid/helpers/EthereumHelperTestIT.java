@@ -13,6 +13,7 @@ import com.typesafe.config.ConfigFactory;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.web3j.crypto.CipherException;
+import org.web3j.crypto.Hash;
 import org.web3j.crypto.Sign;
 
 import java.io.IOException;
@@ -66,6 +67,14 @@ public class EthereumHelperTestIT {
         assertTrue( signedMaessage.length() == 132);
     }
 
+    @Test
+    public void localSignMessage() throws Exception {
+        String hash = Hash.sha3(EncodingHelper.encodeToHex("Hi there"));
+
+        String nodeSignature = EthereumHelper.ethSignMessage(keeper.getWeb3(), hash, keeper.getCredentials().getAddress(), account.password);
+        assertEquals(nodeSignature, EthereumHelper.localSignMessage(hash, keeper.getCredentials()));
+    }
+
 
 
 
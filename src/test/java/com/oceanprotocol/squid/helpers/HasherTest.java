@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Test;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint64;
+import org.web3j.crypto.Hash;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA3_256;
+import static org.junit.Assert.*;
+
+public class HasherTest {
+
+    @Test
+    public void sha3AsDigestUtils() {
+
+        StringBuilder longText = new StringBuilder();
+        for (int i = 0; i < 100; i++)
+            longText.append("Ocean Protocol é€😀 ");
+
+        for (String text : new String[]{"", "Hi there", "é€😀\uD800", longText.toString()})
+            assertEquals(new DigestUtils(SHA3_256).digestAsHex(text), Hasher.sha3().update(text).doFinalHex(false));
+    }
+
+    @Test
+    public void keccakAsHashSha3() {
+
+        byte[] input = "Ocean Protocol".getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(Hash.sha3(input), Hasher.keccak().update(input, 0, 5).update(input, 5, input.length - 5).doFinal());
+
+        // the hasher is emptied after computing a hash
+        byte[] out = new byte[Hasher.HASH_LENGTH + 1];
+        Hasher.keccak().update(input).doFinal(out, 1);
+        assertArrayEquals(Hash.sha3(input), Arrays.copyOfRange(out, 1, out.length));
+        assertEquals(Hash.sha3(HexCodec.encode(input, true)), Hasher.keccak().update(input).doFinalHex(true));
+    }
+
+    @Test
+    public void objectsAsToBytes() throws Exception {
+
+        Object[] values = {"hey".getBytes(), BigInteger.TEN, BigInteger.valueOf(-1), BigInteger.ZERO,
+                new Address("00a329c0648769A73afAc7F9381E08FB43dBEA72"), new Uint256(BigInteger.TEN),
+                new Uint64(BigInteger.valueOf(123456789)), 7, -7, Long.MIN_VALUE};
+
+        ByteArrayOutputStream concatenation = new ByteArrayOutputStream();
+        Hasher hasher = Hasher.keccak();
+        for (Object value : values) {
+            concatenation.write(CryptoHelper.toBytes(value));
+            hasher.update(value);
+        }
+
+        assertArrayEquals(Hash.sha3(concatenation.toByteArray()), hasher.doFinal());
+        assertArrayEquals(Hash.sha3(concatenation.toByteArray()), CryptoHelper.soliditySha3(values));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedObject() {
+        Hasher.keccak().update((Object) new StringBuilder());
+    }
+
+}
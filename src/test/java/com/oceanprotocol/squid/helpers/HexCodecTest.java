@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.helpers;
+
+import org.apache.commons.codec.binary.Hex;
+import org.junit.Test;
+import org.web3j.utils.Numeric;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class HexCodecTest {
+
+    private static final byte[] BYTES = "Ocean Protocol é\u0000ÿ".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void encodeAsNumericAndCommonsHex() {
+
+        assertEquals(Numeric.toHexString(BYTES), HexCodec.encode(BYTES, true));
+        assertEquals(Hex.encodeHexString(BYTES), HexCodec.encode(BYTES, false));
+        assertEquals("0x", HexCodec.encode(new byte[0], true));
+
+        char[] chars = new char[8];
+        assertEquals(7, HexCodec.encode(new byte[]{0x0a, (byte) 0xbc, 0x01}, 1, 2, chars, 3));
+        assertEquals("bc01", new String(chars, 3, 4));
+    }
+
+    @Test
+    public void decodeAsNumeric() {
+
+        for (String hex : new String[]{"0x0a1B2c", "0a1b2c", "0xabc", "abc", "0x", "", "f"})
+            assertArrayEquals(hex, Numeric.hexStringToByteArray(hex), HexCodec.decode(hex));
+
+        byte[] bytes = new byte[4];
+        String hex = "zz0xabcdzz";
+        assertEquals(3, HexCodec.decode(hex, 2, 8, bytes, 1));
+        assertArrayEquals(new byte[]{0, (byte) 0xab, (byte) 0xcd, 0}, bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeInvalidChars() {
+        HexCodec.decode("0x12g4");
+    }
+
+    @Test
+    public void prefixes() {
+
+        assertTrue(HexCodec.isHex("0123456789abcdefABCDEF"));
+        assertFalse(HexCodec.isHex("0x12"));
+        assertFalse(HexCodec.isHex(""));
+        assertFalse(HexCodec.isHex("12٠"));
+
+        assertEquals("12ab", HexCodec.cleanPrefix("0x12ab"));
+        assertEquals("12ab", HexCodec.cleanPrefix("12ab"));
+        assertEquals("12ab", HexCodec.cleanPrefixLowerCase("0x12AB"));
+        assertEquals("12ab0x", HexCodec.cleanPrefixLowerCase("0x12ab0x"));
+
+        for (String input : new String[]{"0x12", "120x340x", "00xx", "12", "0x", ""})
+            assertEquals(input.replaceAll("0x", ""), HexCodec.removeAllPrefixes(input));
+    }
+
+}
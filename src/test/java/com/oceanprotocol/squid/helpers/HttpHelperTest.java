@@ -5,7 +5,9 @@
 
 package com.oceanprotocol.squid.helpers;
 
+import com.oceanprotocol.squid.models.AbstractModel;
 import com.oceanprotocol.squid.models.HttpResponse;
+import com.oceanprotocol.squid.models.aquarius.SearchResult;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.NameValuePair;
@@ -24,9 +26,14 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HttpHelperTest {
@@ -56,6 +63,43 @@ public class HttpHelperTest {
     }
 
 
+    @Test
+    public void configureConnectionPool() {
+
+        HttpHelper.configureConnectionPool(new HttpHelper.ConnectionPoolConfig()
+                .setMaxConnectionsPerHost(5)
+                .setMaxTotalConnections(10));
+
+        HttpClient client = HttpHelper.getHttpClient();
+        assertSame(client, HttpHelper.getHttpClient());
+        assertSame(HttpHelper.getDownloadClient(), HttpHelper.getDownloadClient());
+        assertTrue(client.getHttpConnectionManager() instanceof MultiThreadedHttpConnectionManager);
+        assertEquals(5, client.getHttpConnectionManager().getParams().getDefaultMaxConnectionsPerHost());
+        assertEquals(10, client.getHttpConnectionManager().getParams().getMaxTotalConnections());
+
+        HttpHelper.configureConnectionPool(new HttpHelper.ConnectionPoolConfig());
+        assertNotSame(client, HttpHelper.getHttpClient());
+    }
+
+    @Test
+    public void httpClientExecuteStreamsTheBody() throws IOException {
+
+        HttpClient client = mock(HttpClient.class);
+        GetMethod method = mock(GetMethod.class);
+
+        when(client.executeMethod(method)).thenReturn(1);
+        when(method.getStatusCode()).thenReturn(200);
+        when(method.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("{\"total_results\": 3}".getBytes()));
+
+        Integer total = HttpHelper.httpClientExecute(client, method, (statusCode, body) -> {
+            assertEquals(200, statusCode);
+            return AbstractModel.fromJSON(SearchResult.class, body).total_results;
+        });
+
+        assertEquals(Integer.valueOf(3), total);
+        verify(method).releaseConnection();
+    }
+
     @Test
     public void httpClientGenericMethod() throws IOException {
 
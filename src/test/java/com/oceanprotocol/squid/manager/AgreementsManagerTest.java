@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.oceanprotocol.keeper.contracts.*;
+import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.external.web3.BatchHttpService;
+import com.oceanprotocol.squid.models.service.AgreementStatus;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Bytes32;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AgreementsManagerTest {
+
+    private static final String AGREEMENT_STORE = "0x0000000000000000000000000000000000000001";
+    private static final String CONDITION_STORE = "0x0000000000000000000000000000000000000002";
+    private static final String LOCK_REWARD = "0x00000000000000000000000000000000000000A1";
+    private static final String ACCESS = "0x00000000000000000000000000000000000000A2";
+    private static final String ESCROW = "0x00000000000000000000000000000000000000A3";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer server;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // fake node with agreements of three conditions. The state of every condition is the last byte of its id
+        server.createContext("/", exchange -> {
+            JsonNode body = mapper.readTree(exchange.getRequestBody());
+            batchSizes.add(body.isArray() ? body.size() : 0);
+
+            ArrayNode responses = mapper.createArrayNode();
+            for (JsonNode request : body.isArray() ? body : mapper.createArrayNode().add(body)) {
+                ObjectNode response = responses.addObject();
+                response.put("jsonrpc", "2.0");
+                response.put("id", request.get("id").asLong());
+                response.put("result", "0x" + call(request.get("params").get(0).get("to").asText(),
+                        request.get("params").get(0).get("data").asText()));
+            }
+
+            byte[] bytes = mapper.writeValueAsBytes(body.isArray() ? responses : responses.get(0));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private static String call(String to, String data) {
+
+        byte[] argument = Numeric.hexStringToByteArray(data.substring(10));
+
+        if (to.equalsIgnoreCase(AGREEMENT_STORE)) {
+            byte[] agreementId = argument;
+            return FunctionEncoder.encodeConstructor(Arrays.asList(
+                    new Bytes32(agreementId), new Address(LOCK_REWARD), new Address(LOCK_REWARD),
+                    new DynamicArray<>(conditionId(agreementId, 1), conditionId(agreementId, 2), conditionId(agreementId, 3)),
+                    new Address(LOCK_REWARD), new Uint256(BigInteger.ONE)));
+        }
+
+        String[] conditions = {LOCK_REWARD, ACCESS, ESCROW};
+        int index = argument[30];
+        return FunctionEncoder.encodeConstructor(Arrays.<Type>asList(
+                new Address(conditions[index - 1]), new Uint8(BigInteger.valueOf(argument[31])),
+                new Uint256(BigInteger.ZERO), new Uint256(BigInteger.ZERO), new Uint256(BigInteger.ZERO),
+                new Address(LOCK_REWARD), new Uint256(BigInteger.ZERO)));
+    }
+
+    // the condition index and its state are the last two bytes of the id
+    private static Bytes32 conditionId(byte[] agreementId, int index) {
+        byte[] id = Hash.sha3(agreementId);
+        id[30] = (byte) index;
+        id[31] = (byte) (agreementId[0] + index);
+        return new Bytes32(id);
+    }
+
+    private static <T extends org.web3j.tx.Contract> T mockContract(Class<T> contractClass, String address) {
+        T contract = mock(contractClass);
+        when(contract.getContractAddress()).thenReturn(address);
+        return contract;
+    }
+
+    @Test
+    public void getStatusOfSeveralAgreements() throws Exception {
+
+        BatchHttpService service = new BatchHttpService("http://localhost:" + server.getAddress().getPort());
+        AgreementsManager manager = AgreementsManager.getInstance(KeeperService.getInstance(service), null);
+        manager.setAgreementStoreManagerContract(mockContract(AgreementStoreManager.class, AGREEMENT_STORE));
+        manager.setConditionStoreManagerContract(mockContract(ConditionStoreManager.class, CONDITION_STORE));
+        manager.setLockRewardCondition(mockContract(LockRewardCondition.class, LOCK_REWARD));
+        manager.setAccessSecretStoreCondition(mockContract(AccessSecretStoreCondition.class, ACCESS));
+        manager.setEscrowReward(mockContract(EscrowReward.class, ESCROW));
+
+        String agreementId1 = "0x1000000000000000000000000000000000000000000000000000000000000000";
+        String agreementId2 = "0x2000000000000000000000000000000000000000000000000000000000000000";
+        List<AgreementStatus> statuses = manager.getStatus(Arrays.asList(agreementId1, agreementId2));
+
+        assertEquals(2, statuses.size());
+        assertEquals(agreementId1, statuses.get(0).agreementId);
+        assertEquals(BigInteger.valueOf(0x11), statuses.get(0).conditions.get(0).conditions.get("lockReward"));
+        assertEquals(BigInteger.valueOf(0x12), statuses.get(0).conditions.get(0).conditions.get("accessSecretStore"));
+        assertEquals(BigInteger.valueOf(0x13), statuses.get(0).conditions.get(0).conditions.get("escrowReward"));
+        assertEquals(agreementId2, statuses.get(1).agreementId);
+        assertEquals(BigInteger.valueOf(0x21), statuses.get(1).conditions.get(0).conditions.get("lockReward"));
+        // a batch with the agreements and another one with their conditions
+        assertEquals(Arrays.asList(2, 6), batchSizes);
+    }
+
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.manager;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oceanprotocol.keeper.contracts.*;
+import com.oceanprotocol.squid.core.cache.DDOResolutionCache;
+import com.oceanprotocol.squid.core.index.DIDEventIndex;
+import com.oceanprotocol.squid.core.sla.OrderJournal;
+import com.oceanprotocol.squid.external.AquariusService;
+import com.oceanprotocol.squid.external.KeeperService;
+import com.oceanprotocol.squid.helpers.EncodingHelper;
+import com.oceanprotocol.squid.models.Account;
+import com.oceanprotocol.squid.models.DDO;
+import com.oceanprotocol.squid.models.DID;
+import com.oceanprotocol.squid.models.asset.OrderRequest;
+import com.oceanprotocol.squid.models.asset.OrderResult;
+import com.oceanprotocol.squid.models.service.AccessService;
+import com.oceanprotocol.squid.models.service.AgreementStatus;
+import com.sun.net.httpserver.HttpServer;
+import io.reactivex.Flowable;
+import io.reactivex.processors.ReplayProcessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.admin.Admin;
+import org.web3j.protocol.core.RemoteCall;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OceanManagerTest {
+
+    private static final String DDO_JSON_SAMPLE = "src/test/resources/examples/ddo-example.json";
+    private static final String CONSUMER = "0x00000000000000000000000000000000000000aa";
+    private static final String LOCK_REWARD = "0x00000000000000000000000000000000000000a1";
+    private static final String ACCESS = "0x00000000000000000000000000000000000000a2";
+    private static final String ESCROW = "0x00000000000000000000000000000000000000a3";
+    private static final String AGREEMENT_ID = "1111111111111111111111111111111111111111111111111111111111111111";
+    private static final BigInteger PRICE = BigInteger.TEN;
+    private static final String DID_REGISTRY = "0x00000000000000000000000000000000000000a4";
+    private static final String OWNER = "0x00000000000000000000000000000000000000bb";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DDO ddo;
+    private KeeperService keeper;
+    private OceanToken token;
+    private RemoteCall<BigInteger> allowanceCall;
+    private LockRewardCondition lockReward;
+    private RemoteCall<TransactionReceipt> lockRewardCall;
+    private AccessSecretStoreCondition access;
+    private AgreementsManager agreementsManager;
+    private OrderJournal journal;
+    private DDOResolutionCache cache;
+    private OceanManager manager;
+    private String ddoJson;
+    private HttpServer aquarius;
+    private ExecutorService aquariusExecutor;
+    private final AtomicInteger aquariusRequests = new AtomicInteger();
+    private final AtomicInteger aquariusInFlight = new AtomicInteger();
+    private final AtomicInteger aquariusMaxInFlight = new AtomicInteger();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+
+        ddoJson = new String(Files.readAllBytes(Paths.get(DDO_JSON_SAMPLE)));
+        ddo = DDO.fromJSON(new TypeReference<DDO>() {}, ddoJson);
+        ddo.metadata.base.price = PRICE.toString();
+        AccessService accessService = ddo.getAccessService("1");
+        accessService.getConditionbyName("lockReward").getParameterByName("_amount").value = PRICE.toString();
+        accessService.getConditionbyName("escrowReward").getParameterByName("_amount").value = PRICE.toString();
+        accessService.getConditionbyName("accessSecretStore").getParameterByName("_documentId").value = AGREEMENT_ID;
+
+        keeper = mock(KeeperService.class);
+        Admin web3j = mock(Admin.class);
+        Request<?, EthBlockNumber> blockNumberRequest = (Request<?, EthBlockNumber>) mock(Request.class);
+        EthBlockNumber blockNumber = new EthBlockNumber();
+        blockNumber.setResult("0x64");
+        when(blockNumberRequest.send()).thenReturn(blockNumber);
+        Mockito.doReturn(blockNumberRequest).when(web3j).ethBlockNumber();
+        when(keeper.getWeb3()).thenReturn(web3j);
+        when(keeper.tokenApprove(any(), any(), any())).thenReturn(true);
+
+        token = mock(OceanToken.class);
+        allowanceCall = (RemoteCall<BigInteger>) mock(RemoteCall.class);
+        when(token.getContractAddress()).thenReturn("0x00000000000000000000000000000000000000cc");
+        when(token.allowance(CONSUMER, LOCK_REWARD)).thenReturn(allowanceCall);
+        when(token.approvalEventFlowable(any())).thenReturn(Flowable.never());
+        when(token.transferEventFlowable(any())).thenReturn(Flowable.never());
+
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        lockReward = mock(LockRewardCondition.class);
+        lockRewardCall = (RemoteCall<TransactionReceipt>) mock(RemoteCall.class);
+        when(lockRewardCall.send()).thenReturn(receipt);
+        when(lockReward.getContractAddress()).thenReturn(LOCK_REWARD);
+        when(lockReward.fulfill(any(), any(), any())).thenReturn(lockRewardCall);
+
+        // the access is granted as soon as the Fulfilled events are listened
+        AccessSecretStoreCondition.FulfilledEventResponse fulfilled = new AccessSecretStoreCondition.FulfilledEventResponse();
+        fulfilled._agreementId = EncodingHelper.hexStringToBytes(AGREEMENT_ID);
+        access = mock(AccessSecretStoreCondition.class);
+        when(access.getContractAddress()).thenReturn(ACCESS);
+        when(access.fulfilledEventFlowable(any())).thenReturn(Flowable.just(fulfilled));
+
+        EscrowAccessSecretStoreTemplate template = mock(EscrowAccessSecretStoreTemplate.class);
+        when(template.agreementCreatedEventFlowable(any())).thenReturn(Flowable.never());
+
+        EscrowReward escrowReward = mock(EscrowReward.class);
+        when(escrowReward.getContractAddress()).thenReturn(ESCROW);
+
+        agreementsManager = mock(AgreementsManager.class);
+        when(agreementsManager.isAgreementCreated(AGREEMENT_ID)).thenReturn(true);
+        when(agreementsManager.getStatus(AGREEMENT_ID)).thenReturn(status(1, 1));
+
+        DIDRegistry didRegistry = mock(DIDRegistry.class);
+        when(didRegistry.getContractAddress()).thenReturn(DID_REGISTRY);
+
+        cache = new DDOResolutionCache(10, 60000);
+        cache.put(new DID(ddo.id), ddo, BigInteger.ONE);
+
+        journal = OrderJournal.open(folder.getRoot().toPath().resolve("orders.journal"));
+        journal.create(AGREEMENT_ID, ddo.id, "1", BigInteger.valueOf(90));
+
+        manager = OceanManager.getInstance(keeper, mock(AquariusService.class));
+        manager.setAgreementManager(agreementsManager)
+                .setDDOResolutionCache(cache)
+                .setOrderJournal(journal)
+                .setOrderTimeout(1000);
+        manager.setTokenContract(token)
+                .setEscrowAccessSecretStoreTemplate(template)
+                .setLockRewardCondition(lockReward)
+                .setAccessSecretStoreCondition(access)
+                .setEscrowReward(escrowReward)
+                .setDidRegistryContract(didRegistry)
+                .setMainAccount(new Account(CONSUMER));
+    }
+
+    @After
+    public void tearDown() {
+        if (aquarius != null) {
+            aquarius.stop(0);
+            aquariusExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a fake Aquarius that answers every DDO with the example, failing the DDOs whose url contains failed
+     */
+    private String startAquarius() throws Exception {
+
+        aquarius = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        aquarius.createContext("/api/v1/aquarius/assets/ddo/", exchange -> {
+            aquariusRequests.incrementAndGet();
+            aquariusMaxInFlight.accumulateAndGet(aquariusInFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            aquariusInFlight.decrementAndGet();
+            boolean failed = exchange.getRequestURI().getPath().contains("failed");
+            byte[] body = (failed ? "{}" : ddoJson).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(failed ? 500 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        aquariusExecutor = Executors.newCachedThreadPool();
+        aquarius.setExecutor(aquariusExecutor);
+        aquarius.start();
+        return "http://localhost:" + aquarius.getAddress().getPort() + "/api/v1/aquarius/assets/ddo/{did}";
+    }
+
+    private static EthLog.LogResult registered(DID did, String url, long block) {
+        String data = FunctionEncoder.encodeConstructor(Arrays.asList(
+                new Utf8String(url), new Address(OWNER), new Uint256(BigInteger.valueOf(block))));
+        return new EthLog.LogObject(false, "0x0", "0x0", "0x0", "0x0", Numeric.toHexStringWithPrefix(BigInteger.valueOf(block)),
+                DID_REGISTRY, data, null,
+                Arrays.asList(EventEncoder.encode(DIDRegistry.DIDATTRIBUTEREGISTERED_EVENT),
+                        Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(did.getHash()), 64),
+                        Numeric.toHexStringWithPrefixZeroPadded(Numeric.toBigInt(OWNER), 64),
+                        Numeric.toHexStringWithPrefixZeroPadded(BigInteger.ONE, 64)));
+    }
+
+    /**
+     * Opens an index with the registrations of the DIDs given, caught up to the head of the fake chain
+     */
+    private DIDEventIndex openIndex(Map<DID, String> urls) throws Exception {
+
+        DIDEventIndex index = DIDEventIndex.open(folder.getRoot().toPath().resolve("did.idx"), BigInteger.ZERO);
+        List<EthLog.LogResult> logs = new ArrayList<>();
+        for (Map.Entry<DID, String> url : urls.entrySet())
+            logs.add(registered(url.getKey(), url.getValue(), 10 + logs.size()));
+        index.append(logs, BigInteger.valueOf(100));
+        manager.setDIDEventIndex(index);
+        return index;
+    }
+
+    private static AgreementStatus status(int lockReward, int accessSecretStore) {
+        AgreementStatus.ConditionStatusMap conditions = new AgreementStatus.ConditionStatusMap();
+        conditions.conditions.put("lockReward", BigInteger.valueOf(lockReward));
+        conditions.conditions.put("accessSecretStore", BigInteger.valueOf(accessSecretStore));
+        AgreementStatus status = new AgreementStatus();
+        status.agreementId = AGREEMENT_ID;
+        status.conditions.add(conditions);
+        return status;
+    }
+
+    @Test
+    public void resumeCreatedOrderWithAllowance() throws Exception {
+
+        // the allowance already covers the price, no approve is needed
+        when(allowanceCall.send()).thenReturn(PRICE);
+
+        List<OrderResult> results = manager.resumeOrders().toList().blockingGet();
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).getError(), results.get(0).isAccessGranted());
+        verify(lockRewardCall, times(1)).send();
+        verify(keeper, never()).tokenApprove(any(), any(), any());
+        assertTrue(journal.getInFlightOrders().isEmpty());
+    }
+
+    @Test
+    public void resumeRewardLockedOrder() throws Exception {
+
+        journal.record(AGREEMENT_ID, OrderJournal.State.AGREEMENT_ON_CHAIN, null);
+        journal.record(AGREEMENT_ID, OrderJournal.State.REWARD_LOCKED, BigInteger.valueOf(95));
+
+        List<OrderResult> results = manager.resumeOrders().toList().blockingGet();
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).getError(), results.get(0).isAccessGranted());
+        // the reward is not locked again
+        verify(lockReward, never()).fulfill(any(), any(), any());
+        assertTrue(journal.getInFlightOrders().isEmpty());
+    }
+
+    @Test
+    public void resolveCachedDIDAsync() throws Exception {
+
+        startAquarius();
+
+        assertSame(ddo, manager.resolveDIDAsync(new DID(ddo.id)).get(5, TimeUnit.SECONDS));
+        assertEquals(0, aquariusRequests.get());
+    }
+
+    @Test
+    public void resolveDIDAsyncFromTheIndex() throws Exception {
+
+        DID did = DID.builder();
+        DIDEventIndex index = openIndex(Collections.singletonMap(did, startAquarius()));
+
+        DDO resolved = manager.resolveDIDAsync(did).get(5, TimeUnit.SECONDS);
+        assertEquals(ddo.id, resolved.id);
+        assertEquals(1, aquariusRequests.get());
+
+        // the DDO resolved is cached with the block of its registration
+        assertSame(resolved, cache.get(did));
+        assertSame(resolved, manager.resolveDIDAsync(did).get(5, TimeUnit.SECONDS));
+        assertEquals(1, aquariusRequests.get());
+        index.close();
+    }
+
+    @Test
+    public void resolveDIDsLimitingTheRequestsPerHost() throws Exception {
+
+        String url = startAquarius();
+        Map<DID, String> urls = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++)
+            urls.put(DID.builder(), url);
+        DID failed = DID.builder();
+        urls.put(failed, url.replace("{did}", "failed/{did}"));
+        DIDEventIndex index = openIndex(urls);
+        manager.setMaxRequestsPerHost(2);
+
+        Map<DID, DDO> ddos = manager.resolveDIDs(urls.keySet());
+
+        // the DDO that can not be retrieved doesn't abort the others
+        assertEquals(4, ddos.size());
+        assertFalse(ddos.containsKey(failed));
+        assertEquals(5, aquariusRequests.get());
+        assertTrue(aquariusMaxInFlight.get() <= 2);
+        index.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void purchaseAssetsWithAFailedOrder() throws Exception {
+
+        when(allowanceCall.send()).thenReturn(PRICE);
+        RemoteCall<BigInteger> balanceCall = (RemoteCall<BigInteger>) mock(RemoteCall.class);
+        when(balanceCall.sendAsync()).thenReturn(CompletableFuture.completedFuture(PRICE));
+        when(token.balanceOf(CONSUMER)).thenReturn(balanceCall);
+
+        TemplatesManager templatesManager = mock(TemplatesManager.class);
+        when(templatesManager.isTemplateApproved(any())).thenReturn(true);
+        manager.setTemplatesManager(templatesManager);
+        when(agreementsManager.createAgreementAsync(any(), any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(true));
+
+        // the access is granted as soon as the reward is locked
+        ReplayProcessor<AccessSecretStoreCondition.FulfilledEventResponse> fulfilledEvents = ReplayProcessor.create();
+        when(access.fulfilledEventFlowable(any())).thenReturn(fulfilledEvents);
+        when(lockReward.fulfill(any(), any(), any())).thenAnswer(invocation -> {
+            AccessSecretStoreCondition.FulfilledEventResponse fulfilled = new AccessSecretStoreCondition.FulfilledEventResponse();
+            fulfilled._agreementId = invocation.getArgument(0);
+            fulfilled.log = new Log();
+            fulfilled.log.setTransactionHash(EncodingHelper.toHexString(fulfilled._agreementId));
+            fulfilled.log.setLogIndex("0x0");
+            fulfilled.log.setBlockNumber("0x65");
+            fulfilledEvents.onNext(fulfilled);
+            return lockRewardCall;
+        });
+
+        // the second DID is not registered
+        DID unknown = DID.builder();
+        DIDEventIndex index = openIndex(Collections.emptyMap());
+
+        List<OrderResult> results = manager.purchaseAssets(Arrays.asList(
+                new OrderRequest(new DID(ddo.id), "1"),
+                new OrderRequest(unknown, "1")))
+                .toList().blockingGet();
+
+        assertEquals(2, results.size());
+        for (OrderResult result : results) {
+            if (result.getDid().equals(unknown)) {
+                assertFalse(result.isAccessGranted());
+                assertNotNull(result.getError());
+            } else
+                assertTrue(result.getError(), result.isAccessGranted());
+        }
+        verify(lockRewardCall, times(1)).send();
+        index.close();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Ocean Protocol Foundation
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.oceanprotocol.squid.models;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.oceanprotocol.squid.models.asset.AssetMetadata;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.oceanprotocol.squid.models.AbstractModel.DATE_FORMAT;
+import static org.junit.Assert.*;
+
+public class AbstractModelTest {
+
+    private static final String DDO_JSON_SAMPLE = "src/test/resources/examples/ddo-example.json";
+    private static final String METADATA_JSON_SAMPLE = "src/test/resources/examples/metadata.json";
+    private static String DDO_JSON_CONTENT;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        DDO_JSON_CONTENT = new String(Files.readAllBytes(Paths.get(DDO_JSON_SAMPLE)));
+    }
+
+    @Test
+    public void datesInUtc() throws Exception {
+
+        Date date = Date.from(Instant.parse("2019-02-08T08:13:49Z"));
+        assertEquals("2019-02-08T08:13:49Z", DATE_FORMAT.format(date));
+        assertEquals(date, DATE_FORMAT.parse("2019-02-08T08:13:49Z"));
+        assertEquals(date, ((DateFormatHolder) DDO.fromJSON(new TypeReference<DateFormatHolder>() {},
+                "{\"date\": \"2019-02-08T08:13:49Z\"}")).date);
+
+        DDO ddo = DDO.fromJSON(new TypeReference<DDO>() {}, DDO_JSON_CONTENT);
+        assertEquals(ddo.created, DDO.fromJSON(new TypeReference<DDO>() {}, ddo.toJson()).created);
+        assertTrue(ddo.toJson().contains("\"created\":\"" + DATE_FORMAT.format(ddo.created) + "\""));
+
+        // the alternative pattern ignores the text after the seconds
+        AssetMetadata metadata = AssetMetadata.fromJSON(new TypeReference<AssetMetadata>() {},
+                new String(Files.readAllBytes(Paths.get(METADATA_JSON_SAMPLE))));
+        assertEquals(Date.from(Instant.parse("2012-10-10T17:00:00Z")), metadata.base.dateCreated);
+    }
+
+    @Test
+    public void parseInParallel() throws Exception {
+
+        Date created = DDO.fromJSON(new TypeReference<DDO>() {}, DDO_JSON_CONTENT).created;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Date>> dates = new ArrayList<>();
+            for (int i = 0; i < 200; i++)
+                dates.add(executor.submit(() -> DDO.fromJSON(new TypeReference<DDO>() {}, DDO_JSON_CONTENT).created));
+            for (Future<Date> date : dates)
+                assertEquals(created, date.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void generatedAccessors() throws Exception {
+
+        String json = DDO.fromJSON(new TypeReference<DDO>() {}, DDO_JSON_CONTENT).toJson();
+
+        AbstractModel.setGeneratedAccessors(true);
+        try {
+            assertEquals(json, DDO.fromJSON(new TypeReference<DDO>() {}, DDO_JSON_CONTENT).toJson());
+        } finally {
+            AbstractModel.setGeneratedAccessors(false);
+        }
+    }
+
+    public static class DateFormatHolder extends AbstractModel {
+        public Date date;
+    }
+
+}